@@ -0,0 +1,69 @@
+import java.util.*;
+
+// Deterministic dataset for benchmarks: a catalog of courses, students that
+// each take a few of them, and a fixed number of grades per weighted category.
+public class SyntheticData {
+    private static final String[] FIRST_NAMES = {"Ana", "Ben", "Carla", "Diego", "Eve", "Farah", "Gus", "Hana", "Ivan", "Jo"};
+    private static final String[] LAST_NAMES = {"Reyes", "Santos", "Cruz", "Garcia", "Lim", "Tan", "Dela Cruz", "Mendoza"};
+    private static final String[] MAJORS = {"BSIT", "BSCS", "BSIS", "BSEMC", "BSBA"};
+    
+    public static final int COURSES_PER_STUDENT = 5;
+    
+    private final int students;
+    private final int courses;
+    private final int gradesPerCategory;
+    private final long seed;
+    
+    public SyntheticData(int students, int courses, int gradesPerCategory, long seed) {
+        this.students = students;
+        this.courses = courses;
+        this.gradesPerCategory = gradesPerCategory;
+        this.seed = seed;
+    }
+    
+    public static String studentId(int i) {
+        return String.format("24-%06d", i);
+    }
+    
+    public static String courseCode(int i) {
+        return "CS" + (100 + i);
+    }
+    
+    // Course i of student s; the same student never gets a course twice
+    public int courseIndexOf(int student, int i) {
+        int perStudent = Math.min(COURSES_PER_STUDENT, courses);
+        return (student * 7 + (i % perStudent) * (courses / perStudent)) % courses;
+    }
+    
+    public String courseOf(int student, int i) {
+        return courseCode(courseIndexOf(student, i));
+    }
+    
+    public int getStudents() { return students; }
+    public int getCourses() { return courses; }
+    
+    public GradeTracker populate(GradeTracker tracker) {
+        Random random = new Random(seed);
+        for (int c = 0; c < courses; c++) {
+            tracker.addCourse(courseCode(c), "Course " + c, 3, c % 2 == 0 ? 1 : 2);
+        }
+        
+        int perStudent = Math.min(COURSES_PER_STUDENT, courses);
+        for (int s = 0; s < students; s++) {
+            String id = studentId(s);
+            tracker.addStudent(id, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                + LAST_NAMES[random.nextInt(LAST_NAMES.length)], MAJORS[random.nextInt(MAJORS.length)]);
+            for (int i = 0; i < perStudent; i++) {
+                String code = courseOf(s, i);
+                tracker.enrollStudent(id, code);
+                Course course = tracker.getCourse(code);
+                for (String category : course.getAssignmentTypes()) {
+                    for (int g = 0; g < gradesPerCategory; g++) {
+                        tracker.addGrade(id, code, category, category + " " + (g + 1), 50 + random.nextInt(51));
+                    }
+                }
+            }
+        }
+        return tracker;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+import java.io.*;
+
+// Default-package side of bench.Workload; see the note there
+public class TrackerWorkload implements bench.Workload {
+    private GradeTracker tracker;
+    private SyntheticData data;
+    // Precomputed so the benchmarks do not measure String.format
+    private String[] studentIds;
+    private String[] courseCodes;
+    private String[][] rosters;
+    // Measure report formatting, not the terminal
+    private final ReportRenderer discard = new ReportRenderer(Writer.nullWriter());
+    
+    @Override
+    public void populate(int students, int courses, int gradesPerCategory, long seed) {
+        data = new SyntheticData(students, courses, gradesPerCategory, seed);
+        tracker = data.populate(new GradeTracker());
+        studentIds = new String[students];
+        for (int s = 0; s < students; s++) {
+            studentIds[s] = SyntheticData.studentId(s);
+        }
+        courseCodes = new String[courses];
+        for (int c = 0; c < courses; c++) {
+            courseCodes[c] = SyntheticData.courseCode(c);
+        }
+        rosters = new String[courses][];
+        for (int c = 0; c < courses; c++) {
+            rosters[c] = tracker.getEnrolledStudents(courseCodes[c]).toArray(new String[0]);
+        }
+    }
+    
+    private Student student(int i) {
+        return tracker.getStudent(studentIds[i % studentIds.length]);
+    }
+    
+    // Cycles through every (student, enrolled course) pair
+    private String courseOf(int i) {
+        return courseCodes[data.courseIndexOf(i % studentIds.length, i / studentIds.length)];
+    }
+    
+    @Override
+    public boolean addGrade(int i, double grade) {
+        return tracker.addGrade(studentIds[i % studentIds.length], courseOf(i), "Exams", "Bench", grade);
+    }
+    
+    // One exam grade for everyone enrolled in a course, batched or one call per grade
+    @Override
+    public int addCourseGrades(int i, boolean batched) {
+        int c = i % courseCodes.length;
+        String[] roster = rosters[c];
+        if (!batched) {
+            int added = 0;
+            for (int s = 0; s < roster.length; s++) {
+                if (tracker.addGrade(roster[s], courseCodes[c], "Exams", "Bench", (s + i) % 101)) added++;
+            }
+            return added;
+        }
+        GradeBatch batch = new GradeBatch(courseCodes[c], "Exams", "Bench", roster.length);
+        for (int s = 0; s < roster.length; s++) {
+            batch.add(roster[s], (s + i) % 101);
+        }
+        return tracker.addGrades(batch).getApplied();
+    }
+    
+    @Override
+    public double courseGrade(int i) {
+        return student(i).getCourseGrade(tracker.getCourse(courseOf(i)));
+    }
+    
+    @Override
+    public double courseGradeUncached(int i) {
+        String code = courseOf(i);
+        return student(i).getCourseGrade(code, tracker.getCourse(code).getWeights());
+    }
+    
+    @Override
+    public void courseReport(int i) {
+        tracker.writeCourseReport(courseCodes[i % courseCodes.length], discard);
+        discard.flush();
+    }
+    
+    @Override
+    public int allCourseStatistics() {
+        return tracker.getAllCourseStatistics().size();
+    }
+    
+    // Needed final for every student and cut-off of one course, with the final worth 30%
+    @Override
+    public int predictCourse(int i) {
+        return tracker.predictCourse(courseCodes[i % courseCodes.length], 0.3, GradeScale.STANDARD).getReachable(0);
+    }
+    
+    @Override
+    public int searchStudents(String query) {
+        return tracker.findStudents(query, 0, 20).getTotal();
+    }
+    
+    @Override
+    public boolean save(boolean full) {
+        return tracker.saveAllData(full);
+    }
+    
+    @Override
+    public boolean load(boolean lazy) {
+        GradeTracker loaded = new GradeTracker();
+        loaded.setLazyLoading(lazy);
+        boolean ok = loaded.loadAllData();
+        loaded.closeJournal();
+        return ok;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// saveAllData/loadAllData against ./data in the benchmark working directory
+// (build/jmh-work when run through gradle jmh). Each call is one save or
+// load, so these are timed as single shots: a full save of every segment,
+// and a save after one new grade, which rewrites only that student's shard.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class PersistenceBenchmark {
+    @Param({"1000", "10000", "50000"})
+    public int students;
+    
+    @Param({"50"})
+    public int courses;
+    
+    @Param({"3"})
+    public int gradesPerCategory;
+    
+    private Workload workload;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = Workload.create();
+        workload.populate(students, courses, gradesPerCategory, 42);
+        if (!workload.save(true)) throw new IllegalStateException("Initial save failed");
+    }
+    
+    @Benchmark
+    public boolean saveAllData() {
+        return workload.save(true);
+    }
+    
+    @Benchmark
+    public boolean saveAfterOneGrade() {
+        workload.addGrade(0, 90);
+        return workload.save(false);
+    }
+    
+    @Benchmark
+    public boolean loadAllData() {
+        return workload.load(false);
+    }
+    
+    @Benchmark
+    public boolean loadAllDataMapped() {
+        return workload.load(true);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package bench;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// In-memory hot paths at several dataset sizes.
+// Run: gradle jmh -Pjmh.args="TrackerBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx3g"})
+public class TrackerBenchmark {
+    @Param({"1000", "10000", "50000"})
+    public int students;
+    
+    @Param({"50"})
+    public int courses;
+    
+    @Param({"3"})
+    public int gradesPerCategory;
+    
+    private Workload workload;
+    private int next;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        workload = Workload.create();
+        workload.populate(students, courses, gradesPerCategory, 42);
+    }
+    
+    private int next() {
+        next = (next + 7919) & Integer.MAX_VALUE;
+        return next;
+    }
+    
+    @Benchmark
+    public boolean addGrade() {
+        int i = next();
+        return workload.addGrade(i, i % 101);
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int addCourseGradesLoop() {
+        return workload.addCourseGrades(next(), false);
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int addCourseGradesBatch() {
+        return workload.addCourseGrades(next(), true);
+    }
+    
+    @Benchmark
+    public double getCourseGrade() {
+        return workload.courseGrade(next());
+    }
+    
+    @Benchmark
+    public double getCourseGradeUncached() {
+        return workload.courseGradeUncached(next());
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public void displayCourseReport() {
+        workload.courseReport(next());
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int allCourseStatistics() {
+        return workload.allCourseStatistics();
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int predictCourse() {
+        return workload.predictCourse(next());
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int searchStudentsByName() {
+        return workload.searchStudents("carla");
+    }
+    
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int searchStudentsById() {
+        return workload.searchStudents("24-0012");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,37 @@
+package bench;
+
+// The tracker lives in the default package, which code in a named package
+// cannot import, and JMH refuses benchmarks in the default package. The
+// benchmarks therefore drive the tracker through this interface, implemented
+// by the default-package TrackerWorkload and loaded once per trial.
+public interface Workload {
+    void populate(int students, int courses, int gradesPerCategory, long seed);
+    
+    boolean addGrade(int i, double grade);
+    
+    int addCourseGrades(int i, boolean batched);
+    
+    double courseGrade(int i);
+    
+    double courseGradeUncached(int i);
+    
+    void courseReport(int i);
+    
+    int allCourseStatistics();
+    
+    int predictCourse(int i);
+    
+    int searchStudents(String query);
+    
+    boolean save(boolean full);
+    
+    boolean load(boolean lazy);
+    
+    static Workload create() {
+        try {
+            return (Workload) Class.forName("TrackerWorkload").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("TrackerWorkload is not on the classpath", e);
+        }
+    }
+}
\ No newline at end of file
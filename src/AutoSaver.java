@@ -0,0 +1,94 @@
+import java.io.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Saves a GradeTracker in the background: once the oldest unsaved change is
+// older than the interval, or sooner once enough changes pile up. All saves
+// run on one scheduler thread, so a burst of changes between two checks
+// becomes one delta save, and grade entry only waits while the save copies
+// the changed students (see GradeTracker.saveAllData).
+public class AutoSaver implements Closeable {
+    public static final long DEFAULT_INTERVAL_SECONDS = 30;
+    public static final long DEFAULT_MAX_CHANGES = 1000;
+    // How often the change count is checked
+    private static final long CHECK_MILLIS = 100;
+    
+    private final GradeTracker tracker;
+    private final long intervalMillis;
+    private final long maxChanges;
+    private final ScheduledExecutorService scheduler;
+    // Written by the scheduler thread only
+    private volatile long saves;
+    private volatile long failures;
+    private volatile long lastSaveNanos;
+    private volatile long lastPauseNanos;
+    private volatile long lastChanges;
+    
+    private AutoSaver(GradeTracker tracker, long intervalMillis, long maxChanges) {
+        this.tracker = tracker;
+        this.intervalMillis = intervalMillis;
+        this.maxChanges = maxChanges;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "auto-save");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public static AutoSaver start(GradeTracker tracker, long intervalSeconds, long maxChanges) {
+        AutoSaver saver = new AutoSaver(tracker, Math.max(1, intervalSeconds) * 1000, Math.max(1, maxChanges));
+        saver.scheduler.scheduleWithFixedDelay(saver::check, CHECK_MILLIS, CHECK_MILLIS, TimeUnit.MILLISECONDS);
+        return saver;
+    }
+    
+    private void check() {
+        long unsaved = tracker.getUnsavedChanges();
+        if (unsaved <= 0) return;
+        if (unsaved >= maxChanges || tracker.getUnsavedMillis() >= intervalMillis) save(unsaved);
+    }
+    
+    // An exception escaping a scheduled task would cancel every later check
+    private void save(long unsaved) {
+        long start = System.nanoTime();
+        boolean saved;
+        try {
+            saved = tracker.saveAllData(false);
+        } catch (RuntimeException e) {
+            System.out.println("ERROR in auto-save: " + e);
+            saved = false;
+        }
+        lastSaveNanos = System.nanoTime() - start;
+        lastPauseNanos = tracker.getLastSavePauseNanos();
+        lastChanges = unsaved;
+        if (saved) saves++;
+        else failures++;
+    }
+    
+    public long getSaveCount() { return saves; }
+    public long getFailureCount() { return failures; }
+    
+    // Wall time of the last save, and how long of it grade entry was blocked
+    public double getLastSaveMillis() { return lastSaveNanos / 1e6; }
+    public double getLastPauseMillis() { return lastPauseNanos / 1e6; }
+    
+    // Changes the last save picked up at once
+    public long getLastSaveChanges() { return lastChanges; }
+    
+    // Lag: changes not in the store yet, and the age of the oldest one
+    public long getUnsavedChanges() { return tracker.getUnsavedChanges(); }
+    public long getLagMillis() { return tracker.getUnsavedMillis(); }
+    
+    // Stops checking, waits for a save in progress, and saves what is left
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long unsaved = tracker.getUnsavedChanges();
+        if (unsaved > 0) save(unsaved);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,379 @@
+import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.*;
+
+// Columnar export of the grades fact table: one row per grade with the
+// columns studentId, courseCode, category, assignment (strings) and score
+// (double), for the warehouse to load without re-parsing text.
+//
+// Layout (all numbers big-endian):
+//   header      magic, version (short), flags (short)
+//   row groups  row count (int), then one chunk per column in schema order:
+//               value width (byte), raw length (int), compressed length (int),
+//               Deflate bytes
+//   footer      schema: column count, then (name, type) per column
+//               dictionaries: per string column, count then the strings
+//               row groups: count, then (offset, rows) per group
+//               total rows (long)
+//   trailer     footer offset (long), magic
+//
+// String columns hold indexes into the column's dictionary, each chunk in
+// the fewest bytes (1-4) that fit its largest index. Scores are float64
+// (width 8), or unsigned hundredths (width 2) when every score in the row
+// group is a whole hundredth below 655.36, as typed-in grades are; n / 100.0
+// gives back exactly the same double. Rows are buffered one row group at a time and each
+// dictionary only grows by new distinct values, so memory stays bounded
+// by ROW_GROUP_ROWS whatever the number of grades. A group is written by the
+// first flushIfFull after it reaches ROW_GROUP_ROWS, so it can run over by the
+// rows added since; readers take the row count from the group.
+public class ColumnarGrades {
+    public static final int MAGIC = 0x53475443; // "SGTC"
+    public static final short VERSION = 1;
+    public static final int ROW_GROUP_ROWS = 64 * 1024;
+    public static final String[] COLUMNS = {"studentId", "courseCode", "category", "assignment", "score"};
+    static final byte TYPE_STRING = 1;
+    static final byte TYPE_DOUBLE = 2;
+    private static final int STRING_COLUMNS = 4;
+    private static final int TRAILER_SIZE = Long.BYTES + Integer.BYTES;
+    
+    public interface RowVisitor {
+        void row(String studentId, String courseCode, String category, String assignment, double score);
+    }
+    
+    // Rows go in as Symbols ids (STUDENTS, COURSES, CATEGORIES, ASSIGNMENT_NAMES),
+    // the way Student stores them. The file is written to a temp file and moved
+    // into place by finish(); closing it without finish() deletes the temp file,
+    // so a failed export never leaves a truncated file that looks complete.
+    public static class Writer implements Closeable {
+        private final Path file;
+        private final Path temp;
+        private final OutputStream out;
+        private final SymbolTable[] symbols = {
+            Symbols.STUDENTS, Symbols.COURSES, Symbols.CATEGORIES, Symbols.ASSIGNMENT_NAMES};
+        private final Dictionary[] dictionaries = new Dictionary[STRING_COLUMNS];
+        private final int[][] ids = new int[STRING_COLUMNS][ROW_GROUP_ROWS];
+        private double[] scores = new double[ROW_GROUP_ROWS];
+        private ByteBuffer raw = ByteBuffer.allocate(ROW_GROUP_ROWS * Double.BYTES);
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private byte[] compressed = new byte[ROW_GROUP_ROWS * Double.BYTES];
+        private final List<long[]> rowGroups = new ArrayList<>();
+        private int rows;
+        private long totalRows;
+        private long position;
+        private boolean finished;
+        private boolean closed;
+        
+        public Writer(Path file) throws IOException {
+            this.file = file;
+            this.temp = file.resolveSibling(file.getFileName() + ".tmp");
+            this.out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16);
+            for (int c = 0; c < STRING_COLUMNS; c++) dictionaries[c] = new Dictionary();
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 2 * Short.BYTES);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) 0);
+            write(header);
+        }
+        
+        // Only buffers the row; nothing is compressed or written until flushIfFull
+        public void add(int studentId, int courseId, int categoryId, int nameId, double score) {
+            if (rows == scores.length) {
+                for (int c = 0; c < STRING_COLUMNS; c++) ids[c] = Arrays.copyOf(ids[c], rows * 2);
+                scores = Arrays.copyOf(scores, rows * 2);
+            }
+            ids[0][rows] = dictionaries[0].index(studentId);
+            ids[1][rows] = dictionaries[1].index(courseId);
+            ids[2][rows] = dictionaries[2].index(categoryId);
+            ids[3][rows] = dictionaries[3].index(nameId);
+            scores[rows] = score;
+            rows++;
+        }
+        
+        // Writes the buffered row group once it is full; call it between
+        // students, with no lock held, as it compresses and writes
+        public void flushIfFull() throws IOException {
+            if (rows >= ROW_GROUP_ROWS) flushRowGroup();
+        }
+        
+        public long getRowCount() {
+            return totalRows + rows;
+        }
+        
+        public long getBytesWritten() {
+            return position;
+        }
+        
+        private void flushRowGroup() throws IOException {
+            if (rows == 0) return;
+            if (raw.capacity() < rows * Double.BYTES) raw = ByteBuffer.allocate(rows * Double.BYTES);
+            rowGroups.add(new long[] {position, rows});
+            ByteBuffer count = ByteBuffer.allocate(Integer.BYTES).putInt(rows);
+            write(count);
+            for (int c = 0; c < STRING_COLUMNS; c++) {
+                int width = width(dictionaries[c].size - 1);
+                int[] column = ids[c];
+                raw.clear();
+                switch (width) {
+                    case 1: for (int i = 0; i < rows; i++) raw.put((byte) column[i]); break;
+                    case 2: for (int i = 0; i < rows; i++) raw.putShort((short) column[i]); break;
+                    case 3:
+                        for (int i = 0; i < rows; i++) {
+                            raw.put((byte) (column[i] >>> 16)).putShort((short) column[i]);
+                        }
+                        break;
+                    default: for (int i = 0; i < rows; i++) raw.putInt(column[i]); break;
+                }
+                writeChunk(width);
+            }
+            raw.clear();
+            if (inHundredths()) {
+                for (int i = 0; i < rows; i++) raw.putShort((short) Math.rint(scores[i] * 100));
+                writeChunk(Short.BYTES);
+            } else {
+                for (int i = 0; i < rows; i++) raw.putDouble(scores[i]);
+                writeChunk(Double.BYTES);
+            }
+            totalRows += rows;
+            rows = 0;
+        }
+        
+        private boolean inHundredths() {
+            for (int i = 0; i < rows; i++) {
+                double hundredths = Math.rint(scores[i] * 100);
+                if (!(hundredths >= 0 && hundredths < 1 << 16 && hundredths / 100 == scores[i])) return false;
+            }
+            return true;
+        }
+        
+        private static int width(int maxIndex) {
+            if (maxIndex < 1 << 8) return 1;
+            if (maxIndex < 1 << 16) return 2;
+            if (maxIndex < 1 << 24) return 3;
+            return 4;
+        }
+        
+        private void writeChunk(int width) throws IOException {
+            int length = raw.position();
+            deflater.reset();
+            deflater.setInput(raw.array(), 0, length);
+            deflater.finish();
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == compressed.length) compressed = Arrays.copyOf(compressed, size * 2);
+                size += deflater.deflate(compressed, size, compressed.length - size);
+            }
+            ByteBuffer lengths = ByteBuffer.allocate(1 + 2 * Integer.BYTES).put((byte) width).putInt(length).putInt(size);
+            write(lengths);
+            out.write(compressed, 0, size);
+            position += size;
+        }
+        
+        private void write(ByteBuffer bytes) throws IOException {
+            out.write(bytes.array(), 0, bytes.position());
+            position += bytes.position();
+        }
+        
+        // Writes the last row group and the footer, and publishes the file
+        public void finish() throws IOException {
+            if (closed) throw new IOException("Writer is closed");
+            flushRowGroup();
+            long footerOffset = position;
+            DataOutputStream footer = new DataOutputStream(out);
+            footer.writeInt(COLUMNS.length);
+            for (int c = 0; c < COLUMNS.length; c++) {
+                footer.writeUTF(COLUMNS[c]);
+                footer.writeByte(c < STRING_COLUMNS ? TYPE_STRING : TYPE_DOUBLE);
+            }
+            for (int c = 0; c < STRING_COLUMNS; c++) {
+                Dictionary dictionary = dictionaries[c];
+                footer.writeInt(dictionary.size);
+                for (int i = 0; i < dictionary.size; i++) {
+                    footer.writeUTF(symbols[c].symbol(dictionary.values[i]));
+                }
+            }
+            footer.writeInt(rowGroups.size());
+            for (long[] group : rowGroups) {
+                footer.writeLong(group[0]);
+                footer.writeInt((int) group[1]);
+            }
+            footer.writeLong(totalRows);
+            footer.writeLong(footerOffset);
+            footer.writeInt(MAGIC);
+            footer.flush();
+            out.close();
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            finished = true;
+        }
+        
+        // Without a successful finish() this aborts the export and deletes the temp file
+        @Override
+        public void close() throws IOException {
+            if (closed) return;
+            closed = true;
+            deflater.end();
+            if (finished) return;
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+    
+    // Column dictionary: global symbol id -> index in the file, in first-seen order
+    private static class Dictionary {
+        private int[] indexes = new int[256];
+        private int[] values = new int[256];
+        private int size;
+        
+        int index(int symbolId) {
+            if (symbolId >= indexes.length) {
+                indexes = Arrays.copyOf(indexes, Math.max(indexes.length * 2, symbolId + 1));
+            }
+            // Stored as index + 1 so the zero-filled array means "not seen yet"
+            int index = indexes[symbolId] - 1;
+            if (index >= 0) return index;
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size] = symbolId;
+            indexes[symbolId] = size + 1;
+            return size++;
+        }
+    }
+    
+    // Reads a file written by Writer one row group at a time
+    public static class Reader implements Closeable {
+        private final FileChannel channel;
+        private final String[] columns;
+        private final String[][] dictionaries = new String[STRING_COLUMNS][];
+        private final long[] groupOffsets;
+        private final int[] groupRows;
+        private final long rowCount;
+        private final long footerOffset;
+        
+        public Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                long size = channel.size();
+                ByteBuffer header = read(0, Integer.BYTES + 2 * Short.BYTES);
+                ByteBuffer trailer = read(size - TRAILER_SIZE, TRAILER_SIZE);
+                footerOffset = trailer.getLong();
+                if (header.getInt() != MAGIC || trailer.getInt() != MAGIC) {
+                    throw new IOException("Not a columnar grades file: " + file);
+                }
+                short version = header.getShort();
+                if (version > VERSION) throw new IOException("Unsupported columnar grades version " + version);
+                
+                ByteBuffer footerBytes = read(footerOffset, (int) (size - TRAILER_SIZE - footerOffset));
+                DataInputStream footer = new DataInputStream(new ByteArrayInputStream(
+                    footerBytes.array(), 0, footerBytes.limit()));
+                columns = new String[footer.readInt()];
+                for (int c = 0; c < columns.length; c++) {
+                    columns[c] = footer.readUTF();
+                    byte type = footer.readByte();
+                    if (type != (c < STRING_COLUMNS ? TYPE_STRING : TYPE_DOUBLE) || !columns[c].equals(COLUMNS[c])) {
+                        throw new IOException("Unexpected column " + columns[c] + " of type " + type);
+                    }
+                }
+                for (int c = 0; c < STRING_COLUMNS; c++) {
+                    dictionaries[c] = new String[footer.readInt()];
+                    for (int i = 0; i < dictionaries[c].length; i++) dictionaries[c][i] = footer.readUTF();
+                }
+                groupOffsets = new long[footer.readInt()];
+                groupRows = new int[groupOffsets.length];
+                for (int g = 0; g < groupOffsets.length; g++) {
+                    groupOffsets[g] = footer.readLong();
+                    groupRows[g] = footer.readInt();
+                }
+                rowCount = footer.readLong();
+            } catch (IOException | RuntimeException e) {
+                channel.close();
+                throw e;
+            }
+        }
+        
+        public String[] getColumns() { return columns.clone(); }
+        public long getRowCount() { return rowCount; }
+        public int getRowGroupCount() { return groupOffsets.length; }
+        
+        // Distinct values of a string column, e.g. every course code in the file
+        public List<String> getDictionary(int column) {
+            return Collections.unmodifiableList(Arrays.asList(dictionaries[column]));
+        }
+        
+        // One row group in memory at a time
+        public void forEachRow(RowVisitor visitor) throws IOException {
+            ByteBuffer[] chunks = new ByteBuffer[COLUMNS.length];
+            int[] widths = new int[COLUMNS.length];
+            Inflater inflater = new Inflater();
+            try {
+                for (int g = 0; g < groupOffsets.length; g++) {
+                    long end = g + 1 < groupOffsets.length ? groupOffsets[g + 1] : footerOffset;
+                    ByteBuffer group = read(groupOffsets[g], (int) (end - groupOffsets[g]));
+                    int rows = group.getInt();
+                    if (rows != groupRows[g]) throw new IOException("Row group " + g + " does not match the footer");
+                    for (int c = 0; c < chunks.length; c++) {
+                        widths[c] = group.get();
+                        chunks[c] = inflate(group, inflater);
+                    }
+                    for (int i = 0; i < rows; i++) {
+                        visitor.row(dictionaries[0][index(chunks[0], widths[0])],
+                            dictionaries[1][index(chunks[1], widths[1])],
+                            dictionaries[2][index(chunks[2], widths[2])],
+                            dictionaries[3][index(chunks[3], widths[3])],
+                            widths[4] == Short.BYTES ? (chunks[4].getShort() & 0xFFFF) / 100.0 : chunks[4].getDouble());
+                    }
+                }
+            } finally {
+                inflater.end();
+            }
+        }
+        
+        private static int index(ByteBuffer chunk, int width) {
+            switch (width) {
+                case 1: return chunk.get() & 0xFF;
+                case 2: return chunk.getShort() & 0xFFFF;
+                case 3: return (chunk.get() & 0xFF) << 16 | chunk.getShort() & 0xFFFF;
+                default: return chunk.getInt();
+            }
+        }
+        
+        // Inflates the column chunk at the group's position and moves past it
+        private ByteBuffer inflate(ByteBuffer group, Inflater inflater) throws IOException {
+            int length = group.getInt();
+            int size = group.getInt();
+            byte[] output = new byte[length];
+            inflater.reset();
+            inflater.setInput(group.array(), group.position(), size);
+            try {
+                int inflated = 0;
+                while (inflated < length) {
+                    int n = inflater.inflate(output, inflated, length - inflated);
+                    if (n == 0 && (inflater.finished() || inflater.needsInput())) break;
+                    inflated += n;
+                }
+                if (inflated != length) throw new IOException("Truncated column chunk");
+            } catch (DataFormatException e) {
+                throw new IOException("Corrupt column chunk", e);
+            }
+            group.position(group.position() + size);
+            return ByteBuffer.wrap(output);
+        }
+        
+        private ByteBuffer read(long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of columnar grades file");
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,616 @@
+import java.util.*;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.ToIntFunction;
+
+// Non-interactive mode: runs tracker commands back to back without prompts.
+//
+//   java Main report --course CS101
+//   java Main import grades.csv ";" report --overview
+//   java Main --file commands.txt        (one command per line, "-" reads stdin)
+//
+// Report output goes through one buffered writer that is flushed after each
+// command. The first failing command stops the run.
+public class CommandRunner {
+    public static final int OK = 0;
+    public static final int FAILED = 1;
+    public static final int USAGE = 2;
+    
+    private static final String EXPORT_USAGE =
+        "export --student <id> <file> | --all <directory|file.zip> [--courses] [--threads n]"
+        + " | --transcripts <directory|file.zip> [--scale name] [--threads n] | --grades <file.sgc>"
+        + " | --csv <directory>";
+    private static final String PREDICT_USAGE =
+        "predict <sr-code> <course-code> <final-weight> <desired-grade> | --course <code> <final-weight> [--scale name]";
+    private static final String TRANSCRIPT_USAGE = "transcript <sr-code> [--scale standard|plus-minus]";
+    private static final String ADD_GRADES_USAGE =
+        "add-grades <course-code> <type> <name> <sr-code>=<grade> ...";
+    private static final String SET_WEIGHTS_USAGE =
+        "set-weights <course-code> <type>=<weight> ...";
+    private static final String RANK_USAGE =
+        "rank --course <code> [--top n] | --student <id> | --gpa [--top n] | --deans-list [min-gpa]";
+    private static final String SERVE_USAGE = "serve [--port n] [--threads n] [--save-every seconds] [--save-after changes]";
+    
+    private final GradeTracker tracker;
+    private final ReportRenderer out;
+    // Subscribed on the first rank command and kept current by grade events after that
+    private RankingViews rankings;
+    // One engine per grade scale, so repeated transcript exports reuse unchanged terms
+    private final Map<GradeScale, TranscriptEngine> transcripts = new HashMap<>();
+    
+    public CommandRunner(GradeTracker tracker) {
+        this(tracker, ReportRenderer.console());
+    }
+    
+    public CommandRunner(GradeTracker tracker, ReportRenderer out) {
+        this.tracker = tracker;
+        this.out = out;
+    }
+    
+    public int run(String[] args) {
+        List<List<String>> commands;
+        try {
+            commands = parseArguments(args);
+        } catch (IOException e) {
+            System.err.println("ERROR reading command file: " + e.getMessage());
+            return USAGE;
+        }
+        if (commands.isEmpty()) {
+            printUsage();
+            return USAGE;
+        }
+        
+        tracker.loadAllData();
+        try {
+            for (List<String> command : commands) {
+                int status = execute(command);
+                out.flush();
+                if (status != OK) {
+                    System.err.println("Stopped at: " + String.join(" ", command));
+                    return status;
+                }
+            }
+            return OK;
+        } finally {
+            out.flush();
+            tracker.closeJournal();
+        }
+    }
+    
+    static List<List<String>> parseArguments(String[] args) throws IOException {
+        if (args.length == 2 && (args[0].equals("--file") || args[0].equals("-f"))) {
+            Reader source = args[1].equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8);
+            try (BufferedReader reader = new BufferedReader(source)) {
+                List<List<String>> commands = new ArrayList<>();
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String trimmed = line.trim();
+                    if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+                    commands.add(tokenize(trimmed));
+                }
+                return commands;
+            }
+        }
+        
+        List<List<String>> commands = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals(";")) {
+                if (!current.isEmpty()) commands.add(current);
+                current = new ArrayList<>();
+            } else {
+                current.add(arg);
+            }
+        }
+        if (!current.isEmpty()) commands.add(current);
+        return commands;
+    }
+    
+    // Splits on whitespace; double quotes group words ("Intro to Programming")
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) tokens.add(token.toString());
+                token.setLength(0);
+                inToken = false;
+            } else {
+                token.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) tokens.add(token.toString());
+        return tokens;
+    }
+    
+    int execute(List<String> command) {
+        String name = command.get(0);
+        List<String> args = command.subList(1, command.size());
+        try {
+            switch (name) {
+                case "import": return importGrades(args);
+                case "report": return report(args);
+                case "export": return export(args);
+                case "search": return search(args);
+                case "rank": return rank(args);
+                case "transcript": return transcript(args);
+                case "add-student": return addStudent(args);
+                case "add-course": return addCourse(args);
+                case "set-weights": return setWeights(args);
+                case "set-term": return setTerm(args);
+                case "enroll": return enroll(args);
+                case "add-grade": return addGrade(args);
+                case "add-grades": return addGrades(args);
+                case "predict": return predict(args);
+                case "save": return save(args);
+                case "serve": return serve(args);
+                case "metrics": return metrics(args);
+                case "help":
+                    printUsage();
+                    return OK;
+                default:
+                    out.error("Unknown command: " + name);
+                    return USAGE;
+            }
+        } catch (NumberFormatException e) {
+            out.error("Expected a number: " + e.getMessage());
+            return USAGE;
+        }
+    }
+    
+    private int importGrades(List<String> args) {
+        if (args.size() != 1) return usage("import <grades.csv>");
+        try {
+            GradeImporter.Result result = new GradeImporter(tracker).importFile(Paths.get(args.get(0)));
+            PrintWriter writer = out.writer();
+            for (String error : result.getErrors()) {
+                writer.println("  " + error);
+            }
+            if (result.getRowsRejected() > result.getErrors().size()) {
+                writer.println("  ... " + (result.getRowsRejected() - result.getErrors().size()) + " more");
+            }
+            writer.printf("Imported %d of %d rows (%d rejected) in %.2fs - %.0f rows/s%n",
+                result.getRowsImported(), result.getRowsRead(), result.getRowsRejected(),
+                result.getElapsedSeconds(), result.getRowsPerSecond());
+            return OK;
+        } catch (IOException e) {
+            out.error("importing grades: " + e.getMessage());
+            return FAILED;
+        }
+    }
+    
+    private int report(List<String> args) {
+        if (args.size() == 2 && args.get(0).equals("--student")) {
+            return tracker.writeStudentReport(args.get(1), out) ? OK : FAILED;
+        }
+        if (args.size() == 2 && args.get(0).equals("--course")) {
+            return tracker.writeCourseReport(args.get(1), out) ? OK : FAILED;
+        }
+        if (args.size() == 1 && args.get(0).equals("--overview")) {
+            tracker.writeDatabaseOverview(out);
+            return OK;
+        }
+        boolean details = args.size() == 2 && args.get(1).equals("--details");
+        if ((args.size() == 1 || details) && args.get(0).equals("--courses")) {
+            tracker.writeAllCourses(out, details);
+            return OK;
+        }
+        if ((args.size() == 1 || details) && args.get(0).equals("--students")) {
+            tracker.writeAllStudents(out, details);
+            return OK;
+        }
+        return usage("report --student <id> | --course <code> | --overview | --courses [--details] | --students [--details]");
+    }
+    
+    private int export(List<String> args) {
+        if (args.size() == 3 && args.get(0).equals("--student")) {
+            if (!tracker.writeStudentReportFile(args.get(1), Paths.get(args.get(2)))) return FAILED;
+            out.success("Report exported to: " + args.get(2));
+            return OK;
+        }
+        if (args.size() >= 2 && args.get(0).equals("--all")) {
+            boolean includeCourses = false;
+            int threads = Runtime.getRuntime().availableProcessors();
+            for (int i = 2; i < args.size(); i++) {
+                if (args.get(i).equals("--courses")) includeCourses = true;
+                else if (args.get(i).equals("--threads") && i + 1 < args.size()) threads = Integer.parseInt(args.get(++i));
+                else return usage(EXPORT_USAGE);
+            }
+            return exportAll(Paths.get(args.get(1)), includeCourses, threads);
+        }
+        if (args.size() == 2 && args.get(0).equals("--grades")) {
+            return exportGrades(Paths.get(args.get(1)));
+        }
+        if (args.size() == 2 && args.get(0).equals("--csv")) {
+            return exportCsv(Paths.get(args.get(1)));
+        }
+        if (args.size() >= 2 && args.get(0).equals("--transcripts")) {
+            GradeScale scale = GradeScale.STANDARD;
+            int threads = Runtime.getRuntime().availableProcessors();
+            for (int i = 2; i < args.size(); i++) {
+                if (args.get(i).equals("--scale") && i + 1 < args.size()) scale = GradeScale.named(args.get(++i));
+                else if (args.get(i).equals("--threads") && i + 1 < args.size()) threads = Integer.parseInt(args.get(++i));
+                else return usage(EXPORT_USAGE);
+                if (scale == null) return usage(EXPORT_USAGE);
+            }
+            return exportTranscripts(Paths.get(args.get(1)), scale, threads);
+        }
+        return usage(EXPORT_USAGE);
+    }
+    
+    private int exportAll(Path target, boolean includeCourses, int threads) {
+        try {
+            ReportExporter.Result result = new ReportExporter(tracker, threads)
+                .exportAll(target, includeCourses, exportProgress());
+            exported(result, target);
+            return OK;
+        } catch (IOException e) {
+            out.error("exporting reports: " + e.getMessage());
+            return FAILED;
+        }
+    }
+    
+    private int exportTranscripts(Path target, GradeScale scale, int threads) {
+        TranscriptEngine engine = transcripts(scale);
+        long computed = engine.getTermsComputed();
+        long reused = engine.getTermsReused();
+        try {
+            ReportExporter.Result result = new ReportExporter(tracker, threads)
+                .exportTranscripts(target, engine, exportProgress());
+            exported(result, target);
+            out.writer().printf("Terms: %d recomputed, %d reused%n",
+                engine.getTermsComputed() - computed, engine.getTermsReused() - reused);
+            return OK;
+        } catch (IOException e) {
+            out.error("exporting transcripts: " + e.getMessage());
+            return FAILED;
+        }
+    }
+    
+    private int exportGrades(Path target) {
+        long start = System.nanoTime();
+        try {
+            long rows = tracker.exportGradeColumns(target);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            out.success(String.format("Exported %d grades (%d KB) to %s in %.2fs - %.0f rows/s",
+                rows, Files.size(target) / 1024, target, seconds, rows / Math.max(seconds, 1e-9)));
+            return OK;
+        } catch (IOException e) {
+            out.error("exporting grades: " + e.getMessage());
+            return FAILED;
+        }
+    }
+    
+    private int exportCsv(Path directory) {
+        try {
+            tracker.exportCsv(directory);
+            out.success("Exported enrollments.csv, grades.csv and courses.csv to " + directory);
+            return OK;
+        } catch (IOException e) {
+            out.error("exporting CSV files: " + e.getMessage());
+            return FAILED;
+        }
+    }
+    
+    // Only the changed store segments, or all of them with --full
+    private int save(List<String> args) {
+        if (args.size() > 1 || (args.size() == 1 && !args.get(0).equals("--full"))) return usage("save [--full]");
+        return tracker.saveAllData(!args.isEmpty()) ? OK : FAILED;
+    }
+    
+    // Timings of the commands run so far in this process, in the Prometheus text format
+    private int metrics(List<String> args) {
+        if (!args.isEmpty()) return usage("metrics");
+        out.writer().print(tracker.getMetrics().toPrometheus());
+        return OK;
+    }
+    
+    // Progress goes to stderr in 10% steps so stdout stays the report summary
+    private static ReportExporter.Progress exportProgress() {
+        int[] lastStep = {0};
+        return (done, total) -> {
+            int step = total == 0 ? 10 : done * 10 / total;
+            if (step > lastStep[0]) {
+                lastStep[0] = step;
+                System.err.printf("  %d/%d reports%n", done, total);
+            }
+        };
+    }
+    
+    private void exported(ReportExporter.Result result, Path target) {
+        out.success(String.format("Exported %d reports (%d KB) to %s in %.2fs - %.0f reports/s",
+            result.getReports(), result.getBytes() / 1024, target,
+            result.getElapsedSeconds(), result.getReportsPerSecond()));
+    }
+    
+    private int search(List<String> args) {
+        if (args.size() < 2 || !(args.get(0).equals("--students") || args.get(0).equals("--courses"))) {
+            return usage("search --students|--courses <query> [--offset n] [--limit n]");
+        }
+        int offset = 0;
+        int limit = 20;
+        for (int i = 2; i + 1 < args.size(); i += 2) {
+            if (args.get(i).equals("--offset")) offset = Integer.parseInt(args.get(i + 1));
+            else if (args.get(i).equals("--limit")) limit = Integer.parseInt(args.get(i + 1));
+            else return usage("search --students|--courses <query> [--offset n] [--limit n]");
+        }
+        if (args.get(0).equals("--students")) {
+            tracker.writeStudentSearch(args.get(1), offset, limit, out);
+        } else {
+            tracker.writeCourseSearch(args.get(1), offset, limit, out);
+        }
+        return OK;
+    }
+    
+    private int rank(List<String> args) {
+        if (args.isEmpty()) return usage(RANK_USAGE);
+        RankingViews views = rankings();
+        String option = args.get(0);
+        if (option.equals("--student") && args.size() == 2) {
+            Student student = tracker.getStudent(args.get(1));
+            if (student == null) {
+                out.error("Student not found!");
+                return FAILED;
+            }
+            String id = student.getSrCode();
+            out.studentStanding(student, views.getGpa(id), views.getGpaRank(id), views.getGpaRankedCount());
+            for (String courseCode : student.getEnrolledCourses()) {
+                int rank = views.getCourseRank(courseCode, id);
+                if (rank > 0) {
+                    out.courseStanding(courseCode, views.getCourseGrade(courseCode, id), rank,
+                        views.getRankedCount(courseCode));
+                }
+            }
+            return OK;
+        }
+        if (option.equals("--deans-list") && args.size() <= 2) {
+            double minGpa = args.size() == 2 ? Double.parseDouble(args.get(1)) : 3.5;
+            rankingTable(String.format("DEAN'S LIST (GPA %.2f+)", minGpa), views.getDeansList(minGpa),
+                views.getGpaRankedCount(), views::getGpaRank, false);
+            return OK;
+        }
+        
+        int top = 10;
+        int topAt = option.equals("--course") ? 2 : 1;
+        if (option.equals("--course") && args.size() < 2) return usage(RANK_USAGE);
+        if (args.size() == topAt + 2 && args.get(topAt).equals("--top")) top = Integer.parseInt(args.get(topAt + 1));
+        else if (args.size() != topAt) return usage(RANK_USAGE);
+        
+        if (option.equals("--course")) {
+            String courseCode = args.get(1);
+            if (tracker.getCourse(courseCode) == null) {
+                out.error("Course not found!");
+                return FAILED;
+            }
+            rankingTable("CLASS RANK: " + courseCode, views.getCourseTop(courseCode, top),
+                views.getRankedCount(courseCode), id -> views.getCourseRank(courseCode, id), true);
+            return OK;
+        }
+        if (option.equals("--gpa")) {
+            rankingTable("TOP " + top + " BY GPA", views.getTopByGpa(top),
+                views.getGpaRankedCount(), views::getGpaRank, false);
+            return OK;
+        }
+        return usage(RANK_USAGE);
+    }
+    
+    private int transcript(List<String> args) {
+        GradeScale scale = GradeScale.STANDARD;
+        if (args.size() == 3 && args.get(1).equals("--scale")) scale = GradeScale.named(args.get(2));
+        else if (args.size() != 1) return usage(TRANSCRIPT_USAGE);
+        if (scale == null) return usage(TRANSCRIPT_USAGE);
+        
+        StringBuilder text = new StringBuilder(2048);
+        if (!transcripts(scale).appendTranscript(args.get(0), text)) {
+            out.error("Student not found!");
+            return FAILED;
+        }
+        PrintWriter writer = out.writer();
+        writer.print(text);
+        return OK;
+    }
+    
+    private TranscriptEngine transcripts(GradeScale scale) {
+        return transcripts.computeIfAbsent(scale, s -> new TranscriptEngine(tracker, s));
+    }
+    
+    private RankingViews rankings() {
+        if (rankings == null) {
+            rankings = new RankingViews();
+            tracker.addListener(rankings);
+        }
+        return rankings;
+    }
+    
+    private void rankingTable(String title, List<Leaderboard.Entry> entries, int rankedCount,
+                              ToIntFunction<String> rankOf, boolean percent) {
+        out.rankingHeader(title, rankedCount);
+        for (Leaderboard.Entry entry : entries) {
+            Student student = tracker.getStudent(entry.getId());
+            out.rankingRow(rankOf.applyAsInt(entry.getId()), entry.getId(),
+                student != null ? student.getName() : "", entry.getScore(), percent);
+        }
+    }
+    
+    private int addStudent(List<String> args) {
+        if (args.size() != 3) return usage("add-student <sr-code> <name> <major>");
+        if (!tracker.addStudent(args.get(0), args.get(1), args.get(2))) {
+            out.error("Student already exists!");
+            return FAILED;
+        }
+        return OK;
+    }
+    
+    private int addCourse(List<String> args) {
+        if (args.size() != 4) return usage("add-course <code> <name> <credits> <weight-scheme>");
+        tracker.addCourse(args.get(0), args.get(1), Integer.parseInt(args.get(2)), Integer.parseInt(args.get(3)));
+        return OK;
+    }
+    
+    // Custom weight scheme: set-weights CS101 Labs=30 Project=30 Final=40
+    private int setWeights(List<String> args) {
+        if (args.size() < 2) return usage(SET_WEIGHTS_USAGE);
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String entry : args.subList(1, args.size())) {
+            int equals = entry.lastIndexOf('=');
+            if (equals <= 0) return usage(SET_WEIGHTS_USAGE);
+            weights.put(entry.substring(0, equals), Double.parseDouble(entry.substring(equals + 1)));
+        }
+        if (!tracker.setCourseWeights(args.get(0), weights)) {
+            out.error("Failed to set weights! Check if the course exists.");
+            return FAILED;
+        }
+        return OK;
+    }
+    
+    private int setTerm(List<String> args) {
+        if (args.size() != 2) return usage("set-term <course-code> <term>");
+        if (!tracker.setCourseTerm(args.get(0), args.get(1))) {
+            out.error("Course not found!");
+            return FAILED;
+        }
+        return OK;
+    }
+    
+    private int enroll(List<String> args) {
+        if (args.size() != 2) return usage("enroll <sr-code> <course-code>");
+        if (!tracker.enrollStudent(args.get(0), args.get(1))) {
+            out.error("Enrollment failed! Check if student/course exists.");
+            return FAILED;
+        }
+        return OK;
+    }
+    
+    private int addGrade(List<String> args) {
+        if (args.size() != 5) return usage("add-grade <sr-code> <course-code> <type> <name> <grade>");
+        if (!tracker.addGrade(args.get(0), args.get(1), args.get(2), args.get(3), Double.parseDouble(args.get(4)))) {
+            out.error("Failed to add grade!");
+            return FAILED;
+        }
+        return OK;
+    }
+    
+    // One assignment for many students: add-grades CS101 Exams Midterm 24-00001=91.5 24-00002=78
+    private int addGrades(List<String> args) {
+        if (args.size() < 4) return usage(ADD_GRADES_USAGE);
+        GradeBatch batch = new GradeBatch(args.get(0), args.get(1), args.get(2), args.size() - 3);
+        for (String entry : args.subList(3, args.size())) {
+            int equals = entry.lastIndexOf('=');
+            if (equals <= 0) return usage(ADD_GRADES_USAGE);
+            batch.add(entry.substring(0, equals), Double.parseDouble(entry.substring(equals + 1)));
+        }
+        
+        GradeBatch.Result result = tracker.addGrades(batch);
+        PrintWriter writer = out.writer();
+        for (GradeBatch.Failure failure : result.getFailures()) {
+            writer.println("  " + failure.getStudentId() + ": " + failure.getMessage());
+        }
+        writer.printf("Added %d of %d grades (%d failed)%n",
+            result.getApplied(), result.getSubmitted(), result.getFailed());
+        return OK;
+    }
+    
+    private int predict(List<String> args) {
+        // Whole course: predict --course CS101 0.3 [--scale plus-minus]
+        if (args.size() >= 3 && args.get(0).equals("--course")) {
+            GradeScale scale = GradeScale.STANDARD;
+            if (args.size() == 5 && args.get(3).equals("--scale")) scale = GradeScale.named(args.get(4));
+            else if (args.size() != 3) return usage(PREDICT_USAGE);
+            double finalWeight = Double.parseDouble(args.get(2));
+            if (scale == null || !(finalWeight > 0 && finalWeight <= 1)) return usage(PREDICT_USAGE);
+            return tracker.writeCoursePrediction(args.get(1), finalWeight, scale, out) ? OK : FAILED;
+        }
+        if (args.size() != 4) return usage(PREDICT_USAGE);
+        if (!tracker.writeCurrentGrade(args.get(0), args.get(1), out)) return FAILED;
+        return tracker.writeGradePrediction(args.get(0), args.get(1),
+            Double.parseDouble(args.get(2)), Double.parseDouble(args.get(3)), out) ? OK : FAILED;
+    }
+    
+    // Runs the HTTP API on the loopback interface until the process is stopped
+    private int serve(List<String> args) {
+        int port = GradeServer.DEFAULT_PORT;
+        int threads = GradeServer.DEFAULT_THREADS;
+        long saveEvery = AutoSaver.DEFAULT_INTERVAL_SECONDS;
+        long saveAfter = AutoSaver.DEFAULT_MAX_CHANGES;
+        for (int i = 0; i < args.size(); i += 2) {
+            if (i + 1 >= args.size()) return usage(SERVE_USAGE);
+            if (args.get(i).equals("--port")) port = Integer.parseInt(args.get(i + 1));
+            else if (args.get(i).equals("--threads")) threads = Integer.parseInt(args.get(i + 1));
+            else if (args.get(i).equals("--save-every")) saveEvery = Long.parseLong(args.get(i + 1));
+            else if (args.get(i).equals("--save-after")) saveAfter = Long.parseLong(args.get(i + 1));
+            else return usage(SERVE_USAGE);
+        }
+        
+        GradeServer server;
+        try {
+            server = GradeServer.start(tracker, new InetSocketAddress(InetAddress.getLoopbackAddress(), port), threads);
+        } catch (IOException e) {
+            out.error("starting server: " + e.getMessage());
+            return FAILED;
+        }
+        AutoSaver saver = AutoSaver.start(tracker, saveEvery, saveAfter);
+        server.setAutoSaver(saver);
+        out.success("Serving http://localhost:" + server.getPort() + "/api/ on "
+            + (server.usesVirtualThreads() ? "virtual threads" : threads + " threads") + " - Ctrl+C to stop");
+        out.flush();
+        
+        // Every accepted write is already in the journal; the last auto-save
+        // only keeps the next start from replaying it
+        CountDownLatch stopped = new CountDownLatch(1);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            saver.close();
+            tracker.closeJournal();
+            stopped.countDown();
+        }));
+        try {
+            stopped.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return OK;
+    }
+    
+    private int usage(String syntax) {
+        out.error("Usage: " + syntax);
+        return USAGE;
+    }
+    
+    private void printUsage() {
+        PrintWriter writer = out.writer();
+        writer.println("Usage: java Main <command> [args] [\";\" <command> ...]");
+        writer.println("       java Main --file <commands.txt | ->");
+        writer.println("Commands:");
+        writer.println("  import <grades.csv>");
+        writer.println("  report --student <id> | --course <code> | --overview | --courses [--details] | --students [--details]");
+        writer.println("  " + EXPORT_USAGE);
+        writer.println("  search --students|--courses <query> [--offset n] [--limit n]");
+        writer.println("  " + RANK_USAGE);
+        writer.println("  " + TRANSCRIPT_USAGE);
+        writer.println("  add-student <sr-code> <name> <major>");
+        writer.println("  add-course <code> <name> <credits> <weight-scheme>");
+        writer.println("  " + SET_WEIGHTS_USAGE);
+        writer.println("  set-term <course-code> <term>");
+        writer.println("  enroll <sr-code> <course-code>");
+        writer.println("  add-grade <sr-code> <course-code> <type> <name> <grade>");
+        writer.println("  " + ADD_GRADES_USAGE);
+        writer.println("  " + PREDICT_USAGE);
+        writer.println("  save [--full]");
+        writer.println("  " + SERVE_USAGE);
+        writer.println("  metrics");
+        writer.flush();
+    }
+}
\ No newline at end of file
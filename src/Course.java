@@ -1,5 +1,7 @@
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public class Course implements Serializable {
     private static final long serialVersionUID = 1L;
@@ -7,7 +9,17 @@ public class Course implements Serializable {
     private String code;
     private String name;
     private int credits;
+    // Academic term the course is offered in, e.g. "2024-1"; "" if not set
+    private volatile String term = "";
+    // Source of truth for the scheme; only replaced or edited by writers, who
+    // then recompile the weight vector that readers use
     private Map<String, Double> assignmentWeights;
+    // Index into Symbols.COURSES; students key their course records by it
+    private transient int id;
+    private transient volatile WeightVector weightVector;
+    
+    // Every compiled vector gets a new stamp so students can tell a cached grade is stale
+    private static final AtomicInteger WEIGHT_STAMPS = new AtomicInteger();
     
     public Course(String code, String name, int credits, int weightScheme) {
         this.code = code;
@@ -30,27 +42,164 @@ public class Course implements Serializable {
             default:
                 assignmentWeights.put("Assignments", 1.0);
         }
+        intern();
+    }
+    
+    public Course(String code, String name, int credits, Map<String, Double> weights) {
+        this.code = code;
+        this.name = name;
+        this.credits = credits;
+        this.assignmentWeights = new HashMap<>(weights);
+        intern();
+    }
+    
+    // Detached copy for a background save, taken with the course's lock held
+    Course copy() {
+        Course copy = new Course(code, name, credits, assignmentWeights);
+        copy.term = term;
+        return copy;
+    }
+    
+    private void intern() {
+        id = Symbols.COURSES.intern(code);
+        weightVector = new WeightVector(assignmentWeights);
     }
     
     public List<String> getAssignmentTypes() {
-        return new ArrayList<>(assignmentWeights.keySet());
+        return weightVector.types;
+    }
+    
+    public boolean hasAssignmentType(String assignmentType) {
+        return weightVector.indexOf(Symbols.CATEGORIES.lookup(assignmentType)) >= 0;
     }
     
     public Map<String, Double> getWeights() {
-        return assignmentWeights;
+        return weightVector.weights;
+    }
+    
+    public WeightVector getWeightVector() {
+        return weightVector;
+    }
+    
+    // Replaces the whole scheme, e.g. a custom scheme (3). Weights may be
+    // fractions or percentages; they are stored normalized to sum to 1.
+    public void setWeights(Map<String, Double> weights) {
+        double total = 0.0;
+        for (double weight : weights.values()) {
+            total += weight;
+        }
+        Map<String, Double> normalized = new HashMap<>();
+        for (Map.Entry<String, Double> weight : weights.entrySet()) {
+            normalized.put(weight.getKey(), total > 0 ? weight.getValue() / total : 0.0);
+        }
+        assignmentWeights = normalized;
+        weightVector = new WeightVector(normalized);
+    }
+    
+    public int getWeightsStamp() {
+        return weightVector.stamp;
     }
     
     public String toCSV() {
-        StringBuilder weights = new StringBuilder();
+        WeightVector vector = weightVector;
+        StringBuilder csv = new StringBuilder(64);
+        csv.append(code).append(',').append(name).append(',').append(credits).append(',');
+        for (int i = 0; i < vector.size(); i++) {
+            if (i > 0) csv.append(';');
+            csv.append(vector.types.get(i)).append(':').append(vector.raw[i]);
+        }
+        csv.append(',').append(getTerm());
+        return csv.toString();
+    }
+    
+    public void writeBinary(GradeSnapshot.Encoder out) {
+        out.putSymbol(code);
+        out.putString(name);
+        out.putInt(credits);
+        out.putInt(assignmentWeights.size());
         for (Map.Entry<String, Double> entry : assignmentWeights.entrySet()) {
-            if (weights.length() > 0) weights.append(";");
-            weights.append(entry.getKey()).append(":").append(entry.getValue());
+            out.putSymbol(entry.getKey());
+            out.putDouble(entry.getValue());
         }
-        return String.format("%s,%s,%d,%s", code, name, credits, weights.toString());
+        out.putSymbol(getTerm());
+    }
+    
+    public static Course readBinary(ByteBuffer in, GradeSnapshot.Decoder dictionary) {
+        String code = dictionary.symbol(in.getInt());
+        String name = GradeSnapshot.getString(in);
+        int credits = in.getInt();
+        int count = in.getInt();
+        Map<String, Double> weights = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            weights.put(dictionary.symbol(in.getInt()), in.getDouble());
+        }
+        Course course = new Course(code, name, credits, weights);
+        // Records written before terms existed end after the weights
+        if (in.hasRemaining()) course.term = dictionary.symbol(in.getInt());
+        return course;
     }
     
     // Getters
+    public int getId() { return id; }
     public String getCode() { return code; }
     public String getName() { return name; }
     public int getCredits() { return credits; }
+    public String getTerm() { return term != null ? term : ""; }
+    
+    public void setTerm(String term) {
+        this.term = term;
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        intern();
+    }
+    
+    // A weight scheme compiled for grade computation: category ids
+    // (Symbols.CATEGORIES) and their weights normalized to sum to 1, in
+    // parallel arrays. Immutable; edits compile a new vector and publish it
+    // through the volatile field, so readers always see one whole scheme.
+    public static final class WeightVector {
+        private final int[] categories;
+        private final double[] normalized;
+        private final double[] raw;
+        private final List<String> types;
+        private final Map<String, Double> weights;
+        private final int stamp;
+        
+        WeightVector(Map<String, Double> scheme) {
+            int size = scheme.size();
+            categories = new int[size];
+            normalized = new double[size];
+            raw = new double[size];
+            String[] names = new String[size];
+            double total = 0.0;
+            int i = 0;
+            for (Map.Entry<String, Double> weight : scheme.entrySet()) {
+                names[i] = weight.getKey();
+                categories[i] = Symbols.CATEGORIES.intern(weight.getKey());
+                raw[i] = weight.getValue();
+                total += raw[i];
+                i++;
+            }
+            for (i = 0; i < size; i++) {
+                normalized[i] = total > 0 ? raw[i] / total : 0.0;
+            }
+            types = List.of(names);
+            weights = Collections.unmodifiableMap(new LinkedHashMap<>(scheme));
+            stamp = WEIGHT_STAMPS.incrementAndGet();
+        }
+        
+        public int size() { return categories.length; }
+        public int category(int index) { return categories[index]; }
+        public double weight(int index) { return normalized[index]; }
+        public int stamp() { return stamp; }
+        
+        public int indexOf(int categoryId) {
+            for (int i = 0; i < categories.length; i++) {
+                if (categories[i] == categoryId) return i;
+            }
+            return -1;
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,82 @@
+import java.util.*;
+
+// The grade predictor for a whole course: for every enrolled student, the
+// final exam score needed to reach each cut-off of a grade scale (A, B, C, D
+// on the standard scale). Needed scores are laid out per cut-off as one
+// double[] over the students, filled by a branch-free loop over the current
+// grades that C2 compiles to SIMD instructions.
+public class CoursePrediction {
+    private final String courseCode;
+    private final double finalWeight;
+    private final GradeScale scale;
+    private final String[] studentIds;
+    private final String[] names;
+    private final double[] current;
+    private final int count;
+    // needed[cutoff][student]; above 100 is out of reach, 0 or below is already secured
+    private final double[][] needed;
+    
+    CoursePrediction(String courseCode, double finalWeight, GradeScale scale,
+                     String[] studentIds, String[] names, double[] current, int count) {
+        this.courseCode = courseCode;
+        this.finalWeight = finalWeight;
+        this.scale = scale;
+        this.studentIds = studentIds;
+        this.names = names;
+        this.current = current;
+        this.count = count;
+        this.needed = new double[scale.cutoffCount()][count];
+        double[] targets = new double[scale.cutoffCount()];
+        for (int t = 0; t < targets.length; t++) targets[t] = scale.cutoff(t);
+        requiredFinals(current, count, finalWeight, targets, needed);
+    }
+    
+    // The final exam counts finalWeight (0-1] of the course grade and the
+    // grade so far the rest: target = current * (1 - w) + final * w
+    public static double requiredFinal(double currentGrade, double finalWeight, double target) {
+        return (target - currentGrade * (1 - finalWeight)) / finalWeight;
+    }
+    
+    // requiredFinal for every grade and target, as target / w - current * (1 - w) / w
+    // so the inner loop is one multiply-add per student
+    static void requiredFinals(double[] current, int count, double finalWeight, double[] targets, double[][] needed) {
+        double carried = (1 - finalWeight) / finalWeight;
+        for (int t = 0; t < targets.length; t++) {
+            double base = targets[t] / finalWeight;
+            double[] row = needed[t];
+            for (int i = 0; i < count; i++) {
+                row[i] = base - current[i] * carried;
+            }
+        }
+    }
+    
+    public String getCourseCode() { return courseCode; }
+    public double getFinalWeight() { return finalWeight; }
+    public GradeScale getScale() { return scale; }
+    public int getCount() { return count; }
+    public String getStudentId(int i) { return studentIds[i]; }
+    public String getName(int i) { return names[i]; }
+    public double getCurrentGrade(int i) { return current[i]; }
+    public int getCutoffCount() { return needed.length; }
+    public String getCutoffLetter(int cutoff) { return scale.cutoffLetter(cutoff); }
+    public double getCutoff(int cutoff) { return scale.cutoff(cutoff); }
+    public double getNeeded(int cutoff, int i) { return needed[cutoff][i]; }
+    
+    // Students who can still reach the cut-off with a final of 100 or less
+    public int getReachable(int cutoff) {
+        int reachable = 0;
+        for (double score : needed[cutoff]) {
+            if (score <= 100) reachable++;
+        }
+        return reachable;
+    }
+    
+    // Students who keep the cut-off even with a zero on the final
+    public int getSecured(int cutoff) {
+        int secured = 0;
+        for (double score : needed[cutoff]) {
+            if (score <= 0) secured++;
+        }
+        return secured;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,121 @@
+import java.util.*;
+
+// Summary of the final grades in one course. Count, mean, variance, min, max
+// and the letter histogram come from a single pass over a primitive array;
+// the median and percentiles read from one sorted copy of it.
+public class CourseStatistics {
+    public static final String[] LETTERS = {"A", "B", "C", "D", "F"};
+    
+    private final String courseCode;
+    private final int count;
+    private final double mean;
+    private final double min;
+    private final double max;
+    private final double stdDev;
+    private final double[] sorted;
+    private final int[] histogram;
+    
+    private CourseStatistics(String courseCode, int count, double mean, double min, double max,
+                             double stdDev, double[] sorted, int[] histogram) {
+        this.courseCode = courseCode;
+        this.count = count;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.stdDev = stdDev;
+        this.sorted = sorted;
+        this.histogram = histogram;
+    }
+    
+    // Uses the first count entries of grades; the array is not modified
+    public static CourseStatistics of(String courseCode, double[] grades, int count) {
+        int[] histogram = new int[LETTERS.length];
+        double mean = 0.0;
+        double m2 = 0.0;
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        
+        // Welford's update keeps the variance stable without a second pass
+        for (int i = 0; i < count; i++) {
+            double grade = grades[i];
+            double delta = grade - mean;
+            mean += delta / (i + 1);
+            m2 += delta * (grade - mean);
+            if (grade < min) min = grade;
+            if (grade > max) max = grade;
+            histogram[letterIndex(grade)]++;
+        }
+        
+        double[] sorted = Arrays.copyOf(grades, count);
+        Arrays.sort(sorted);
+        if (count == 0) {
+            min = 0.0;
+            max = 0.0;
+        }
+        double stdDev = count > 0 ? Math.sqrt(m2 / count) : 0.0;
+        return new CourseStatistics(courseCode, count, mean, min, max, stdDev, sorted, histogram);
+    }
+    
+    public static int letterIndex(double grade) {
+        if(grade >= 90) return 0;
+        else if(grade >= 80) return 1;
+        else if(grade >= 70) return 2;
+        else if(grade >= 60) return 3;
+        else return 4;
+    }
+    
+    public String getCourseCode() { return courseCode; }
+    public int getCount() { return count; }
+    public double getMean() { return mean; }
+    public double getMin() { return min; }
+    public double getMax() { return max; }
+    public double getStdDev() { return stdDev; }
+    public double getMedian() { return percentile(50); }
+    
+    // Linear interpolation between the closest ranks, p in [0, 100]
+    public double percentile(double p) {
+        if (count == 0) return 0.0;
+        double rank = Math.min(Math.max(p, 0), 100) / 100.0 * (count - 1);
+        int lower = (int) Math.floor(rank);
+        int upper = Math.min(lower + 1, count - 1);
+        return sorted[lower] + (sorted[upper] - sorted[lower]) * (rank - lower);
+    }
+    
+    public int getLetterCount(String letter) {
+        for (int i = 0; i < LETTERS.length; i++) {
+            if (LETTERS[i].equals(letter)) return histogram[i];
+        }
+        return 0;
+    }
+    
+    public int[] getHistogram() {
+        return histogram.clone();
+    }
+    
+    // Growable primitive buffer of grades for one course
+    public static class Accumulator {
+        private double[] grades = new double[16];
+        private int size;
+        
+        public void add(double grade) {
+            if (size == grades.length) grades = Arrays.copyOf(grades, size * 2);
+            grades[size++] = grade;
+        }
+        
+        public void addAll(Accumulator other) {
+            if (size + other.size > grades.length) {
+                grades = Arrays.copyOf(grades, Math.max(grades.length * 2, size + other.size));
+            }
+            System.arraycopy(other.grades, 0, grades, size, other.size);
+            size += other.size;
+        }
+        
+        public int size() {
+            return size;
+        }
+        
+        public CourseStatistics toStatistics(String courseCode) {
+            return CourseStatistics.of(courseCode, grades, size);
+        }
+    }
+}
\ No newline at end of file
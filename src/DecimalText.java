@@ -0,0 +1,41 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Appends fixed-point numbers to a StringBuilder with the same output as
+// String.format("%.Nf"), without creating a Formatter for every value.
+// Formatter rounds the shortest decimal form of the double HALF_UP (1.005
+// prints as 1.01), so values that land near a tie go through the same
+// BigDecimal.valueOf rounding instead of trusting the binary product.
+public final class DecimalText {
+    private static final long[] POWERS = {1, 10, 100, 1000, 10000, 100000, 1000000};
+    
+    private DecimalText() {
+    }
+    
+    public static StringBuilder append(StringBuilder out, double value, int decimals) {
+        if (decimals < 0 || decimals >= POWERS.length || !(value >= 0) || value >= 1e12) {
+            // Negative, NaN, infinite and huge values are rare here; keep the exact formatter
+            return out.append(String.format("%." + Math.max(decimals, 0) + "f", value));
+        }
+        
+        long scale = POWERS[decimals];
+        double scaled = value * scale;
+        double fraction = scaled - Math.floor(scaled);
+        long units;
+        if (Math.abs(fraction - 0.5) < 1e-6) {
+            units = BigDecimal.valueOf(value).setScale(decimals, RoundingMode.HALF_UP).unscaledValue().longValue();
+        } else {
+            units = Math.round(scaled);
+        }
+        
+        out.append(units / scale);
+        if (decimals > 0) {
+            out.append('.');
+            long fractionUnits = units % scale;
+            for (long digit = scale / 10; digit > 0; digit /= 10) {
+                out.append((char) ('0' + (fractionUnits / digit) % 10));
+            }
+        }
+        return out;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+import java.util.*;
+
+// Many grades for one assignment of one course, e.g. a whole exam, entered
+// with GradeTracker.addGrades. Student IDs and grades are kept in parallel
+// arrays; failures come back in the Result instead of being printed.
+public class GradeBatch {
+    public enum Reason {
+        UNKNOWN_COURSE,
+        UNKNOWN_ASSIGNMENT_TYPE,
+        GRADE_OUT_OF_RANGE,
+        UNKNOWN_STUDENT,
+        NOT_ENROLLED
+    }
+    
+    private final String courseCode;
+    private final String assignmentType;
+    private final String assignmentName;
+    private String[] studentIds;
+    private double[] grades;
+    private int size;
+    
+    public GradeBatch(String courseCode, String assignmentType, String assignmentName) {
+        this(courseCode, assignmentType, assignmentName, 16);
+    }
+    
+    public GradeBatch(String courseCode, String assignmentType, String assignmentName, int expectedSize) {
+        this.courseCode = courseCode;
+        this.assignmentType = assignmentType;
+        this.assignmentName = assignmentName;
+        this.studentIds = new String[Math.max(1, expectedSize)];
+        this.grades = new double[studentIds.length];
+    }
+    
+    public GradeBatch add(String studentId, double grade) {
+        if (size == studentIds.length) {
+            studentIds = Arrays.copyOf(studentIds, size * 2);
+            grades = Arrays.copyOf(grades, size * 2);
+        }
+        studentIds[size] = studentId;
+        grades[size] = grade;
+        size++;
+        return this;
+    }
+    
+    public String getCourseCode() { return courseCode; }
+    public String getAssignmentType() { return assignmentType; }
+    public String getAssignmentName() { return assignmentName; }
+    public int size() { return size; }
+    
+    public String studentId(int index) {
+        Objects.checkIndex(index, size);
+        return studentIds[index];
+    }
+    
+    public double grade(int index) {
+        Objects.checkIndex(index, size);
+        return grades[index];
+    }
+    
+    public static class Failure {
+        private final int index;
+        private final String studentId;
+        private final double grade;
+        private final Reason reason;
+        
+        Failure(int index, String studentId, double grade, Reason reason) {
+            this.index = index;
+            this.studentId = studentId;
+            this.grade = grade;
+            this.reason = reason;
+        }
+        
+        public int getIndex() { return index; }
+        public String getStudentId() { return studentId; }
+        public double getGrade() { return grade; }
+        public Reason getReason() { return reason; }
+        
+        public String getMessage() {
+            switch (reason) {
+                case UNKNOWN_COURSE: return "Course does not exist";
+                case UNKNOWN_ASSIGNMENT_TYPE: return "Assignment type does not exist for this course";
+                case GRADE_OUT_OF_RANGE: return "Grade must be between 0 and 100";
+                case UNKNOWN_STUDENT: return "Student " + studentId + " does not exist";
+                default: return "Student " + studentId + " is not enrolled in this course";
+            }
+        }
+    }
+    
+    public static class Result {
+        private final int submitted;
+        private int applied;
+        private final List<Failure> failures = new ArrayList<>();
+        
+        Result(int submitted) {
+            this.submitted = submitted;
+        }
+        
+        void applied() {
+            applied++;
+        }
+        
+        void failed(GradeBatch batch, int index, Reason reason) {
+            failures.add(new Failure(index, batch.studentIds[index], batch.grades[index], reason));
+        }
+        
+        // Range failures are found before the rest, so failures are put back in batch order
+        void sortFailures() {
+            failures.sort(Comparator.comparingInt(Failure::getIndex));
+        }
+        
+        public int getSubmitted() { return submitted; }
+        public int getApplied() { return applied; }
+        public int getFailed() { return failures.size(); }
+        public boolean isComplete() { return failures.isEmpty(); }
+        public List<Failure> getFailures() { return Collections.unmodifiableList(failures); }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+import java.util.*;
+
+// Growable primitive column of scores for one course/category, with the
+// assignment name of each score stored as an id into a shared SymbolTable
+public class GradeColumn {
+    private double[] scores;
+    private int[] nameIds;
+    private int size;
+    private double sum;
+    
+    public GradeColumn() {
+        this(4);
+    }
+    
+    public GradeColumn(int initialCapacity) {
+        this.scores = new double[Math.max(1, initialCapacity)];
+        this.nameIds = new int[scores.length];
+    }
+    
+    public void add(double score, int nameId) {
+        if (size == scores.length) {
+            ensureCapacity(size * 2);
+        }
+        scores[size] = score;
+        nameIds[size] = nameId;
+        size++;
+        sum += score;
+    }
+    
+    // Detached copy trimmed to size, e.g. for a background save
+    public GradeColumn copy() {
+        GradeColumn copy = new GradeColumn(size);
+        System.arraycopy(scores, 0, copy.scores, 0, size);
+        System.arraycopy(nameIds, 0, copy.nameIds, 0, size);
+        copy.size = size;
+        copy.sum = sum;
+        return copy;
+    }
+    
+    public void ensureCapacity(int capacity) {
+        if (capacity > scores.length) {
+            scores = Arrays.copyOf(scores, capacity);
+            nameIds = Arrays.copyOf(nameIds, capacity);
+        }
+    }
+    
+    public double score(int index) {
+        Objects.checkIndex(index, size);
+        return scores[index];
+    }
+    
+    public int nameId(int index) {
+        Objects.checkIndex(index, size);
+        return nameIds[index];
+    }
+    
+    public int size() { return size; }
+    public double sum() { return sum; }
+    
+    public double average() {
+        return size > 0 ? sum / size : 0.0;
+    }
+    
+    // Read-only boxed view for callers that still expect List<Double>
+    public List<Double> asList() {
+        return new ScoreListView();
+    }
+    
+    private class ScoreListView extends AbstractList<Double> implements RandomAccess {
+        @Override
+        public Double get(int index) {
+            return score(index);
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
\ No newline at end of file
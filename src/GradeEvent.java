@@ -0,0 +1,38 @@
+// A change to one student's standing in one course. GradeTracker publishes
+// it to its GradeListeners while holding the student's lock, so the events
+// for one student arrive in the order the changes were made. Each event
+// carries the resulting course grade, so applying an event twice is harmless.
+public final class GradeEvent {
+    public enum Type {
+        ENROLLED,
+        GRADE_ADDED,
+        WEIGHTS_CHANGED,
+        // The course moved to another term; the grade itself is unchanged
+        TERM_CHANGED,
+        // Current state sent to a new listener, or to every listener after a reload
+        REPLAYED
+    }
+    
+    private final Type type;
+    private final String studentId;
+    private final String courseCode;
+    private final int credits;
+    private final double courseGrade;
+    
+    GradeEvent(Type type, String studentId, String courseCode, int credits, double courseGrade) {
+        this.type = type;
+        this.studentId = studentId;
+        this.courseCode = courseCode;
+        this.credits = credits;
+        this.courseGrade = courseGrade;
+    }
+    
+    public Type getType() { return type; }
+    public String getStudentId() { return studentId; }
+    public String getCourseCode() { return courseCode; }
+    public int getCredits() { return credits; }
+    
+    // NaN until the student has a grade in the course
+    public double getCourseGrade() { return courseGrade; }
+    public boolean hasGrade() { return !Double.isNaN(courseGrade); }
+}
\ No newline at end of file
@@ -0,0 +1,171 @@
+import java.util.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+// Bulk import of grades in the format saveGradesToCSV writes:
+//   StudentID,CourseCode,AssignmentType,AssignmentName,Grade
+// The file is read in chunks; chunks are parsed on a worker pool and then
+// validated and applied in file order on the calling thread. Bad rows are
+// collected in the result instead of stopping the import.
+public class GradeImporter {
+    private static final int CHUNK_ROWS = 8192;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    
+    private final GradeTracker tracker;
+    private final int threads;
+    
+    public GradeImporter(GradeTracker tracker) {
+        this(tracker, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public GradeImporter(GradeTracker tracker, int threads) {
+        this.tracker = tracker;
+        this.threads = Math.max(1, threads);
+    }
+    
+    public Result importFile(Path file) throws IOException {
+        Result result = new Result();
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<Row>>> pending = new ArrayDeque<>();
+        
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            long lineNumber = 0;
+            List<String> lines = new ArrayList<>(CHUNK_ROWS);
+            long firstLine = 1;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber == 1 && line.startsWith("StudentID,")) {
+                    firstLine = 2;
+                    continue;
+                }
+                lines.add(line);
+                if (lines.size() == CHUNK_ROWS) {
+                    submit(pool, pending, lines, firstLine);
+                    firstLine = lineNumber + 1;
+                    lines = new ArrayList<>(CHUNK_ROWS);
+                    // Bound the number of parsed chunks waiting in memory
+                    while (pending.size() >= threads * 2) {
+                        apply(pending.removeFirst(), result);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                submit(pool, pending, lines, firstLine);
+            }
+            while (!pending.isEmpty()) {
+                apply(pending.removeFirst(), result);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+    
+    private void submit(ExecutorService pool, Deque<Future<List<Row>>> pending, List<String> lines, long firstLine) {
+        pending.addLast(pool.submit(() -> parse(lines, firstLine)));
+    }
+    
+    private void apply(Future<List<Row>> chunk, Result result) throws IOException {
+        List<Row> rows;
+        try {
+            rows = chunk.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Import interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse import chunk", e.getCause());
+        }
+        result.rowsRead += rows.size();
+        tracker.addImportedGrades(rows, result);
+    }
+    
+    static List<Row> parse(List<String> lines, long firstLine) {
+        List<Row> rows = new ArrayList<>(lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            rows.add(parseLine(lines.get(i), firstLine + i));
+        }
+        return rows;
+    }
+    
+    // Assignment names are written unquoted, so everything between the third
+    // comma and the last comma belongs to the name
+    static Row parseLine(String line, long lineNumber) {
+        Row row = new Row(lineNumber, line);
+        int first = line.indexOf(',');
+        int second = first < 0 ? -1 : line.indexOf(',', first + 1);
+        int third = second < 0 ? -1 : line.indexOf(',', second + 1);
+        int last = line.lastIndexOf(',');
+        if (third < 0 || last <= third) {
+            row.error = "Expected 5 fields";
+            return row;
+        }
+        
+        row.studentId = line.substring(0, first).trim();
+        row.courseCode = line.substring(first + 1, second).trim();
+        row.assignmentType = line.substring(second + 1, third).trim();
+        row.assignmentName = line.substring(third + 1, last).trim();
+        try {
+            row.grade = Double.parseDouble(line.substring(last + 1).trim());
+        } catch (NumberFormatException e) {
+            row.error = "Grade is not a number";
+            return row;
+        }
+        if (row.studentId.isEmpty() || row.courseCode.isEmpty() || row.assignmentType.isEmpty()) {
+            row.error = "Student ID, course code and assignment type are required";
+        } else if (!(row.grade >= 0 && row.grade <= 100)) {
+            row.error = "Grade must be between 0 and 100";
+        }
+        return row;
+    }
+    
+    public static class Row {
+        final long lineNumber;
+        final String line;
+        String studentId;
+        String courseCode;
+        String assignmentType;
+        String assignmentName;
+        double grade;
+        String error;
+        
+        Row(long lineNumber, String line) {
+            this.lineNumber = lineNumber;
+            this.line = line;
+        }
+    }
+    
+    public static class Result {
+        private long rowsRead;
+        private long rowsImported;
+        private long rowsRejected;
+        private long elapsedNanos;
+        private final List<String> errors = new ArrayList<>();
+        
+        void imported() {
+            rowsImported++;
+        }
+        
+        void rejected(Row row, String reason) {
+            rowsRejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("Line " + row.lineNumber + ": " + reason + " [" + row.line + "]");
+            }
+        }
+        
+        public long getRowsRead() { return rowsRead; }
+        public long getRowsImported() { return rowsImported; }
+        public long getRowsRejected() { return rowsRejected; }
+        public List<String> getErrors() { return Collections.unmodifiableList(errors); }
+        public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+        
+        public double getRowsPerSecond() {
+            return elapsedNanos > 0 ? rowsRead / (elapsedNanos / 1e9) : 0.0;
+        }
+    }
+}
\ No newline at end of file
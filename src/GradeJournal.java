@@ -0,0 +1,442 @@
+import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+
+// Append-only log of tracker mutations made since the last snapshot.
+//
+// Each record is: length (int), CRC32 of the body (int), then the body:
+// sequence (long), type (byte) and the operation's arguments. Appends
+// only copy the record into an in-memory buffer; the first caller that
+// waits for durability writes the whole buffer and forces the channel, and
+// every record appended before that releases with the same fsync.
+//
+// Positions are logical: they keep growing when records are discarded, so a
+// position handed out before a save still compares correctly after it.
+public class GradeJournal implements Closeable {
+    public static final byte ADD_STUDENT = 1;
+    public static final byte ADD_COURSE = 2;
+    public static final byte ENROLL = 3;
+    public static final byte ADD_GRADE = 4;
+    public static final byte SET_WEIGHTS = 5;
+    public static final byte SET_TERM = 6;
+    
+    private final Path file;
+    private FileChannel channel;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long sequence;
+    // Logical position of the first byte in the file
+    private long start;
+    private long appendedPosition;
+    private long durablePosition;
+    private boolean forcing;
+    // Bumped by each failed group commit; threads that waited through one get its exception
+    private long failures;
+    private IOException failure;
+    // Set by open: where the records newer than the snapshot begin, and how
+    // many of them were not replayed because earlier ones are missing
+    private final long snapshotPosition;
+    private final long skippedRecords;
+    
+    private GradeJournal(Path file, FileChannel channel, long sequence, long snapshotPosition,
+                         long skippedRecords) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.sequence = sequence;
+        this.appendedPosition = channel.size();
+        this.durablePosition = appendedPosition;
+        this.snapshotPosition = snapshotPosition;
+        this.skippedRecords = skippedRecords;
+    }
+    
+    // Replays records newer than afterSequence, cuts off a torn tail, and opens
+    // the log for appending. Sequences have no holes, so if the first newer
+    // record is not afterSequence + 1 the log no longer reaches back to the
+    // snapshot (e.g. one older than the log was trimmed for); nothing is
+    // replayed then, as a mix of old state and later changes would be worse.
+    public static GradeJournal open(Path file, long afterSequence, Replay replay) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long sequence = afterSequence;
+        long validEnd = 0;
+        long snapshotPosition = 0;
+        boolean replaying = true;
+        boolean first = true;
+        long skipped = 0;
+        
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                int checksum;
+                byte[] body;
+                try {
+                    length = in.readInt();
+                    checksum = in.readInt();
+                    if (length < Long.BYTES + 1 || length > channel.size()) break;
+                    body = new byte[length];
+                    in.readFully(body);
+                } catch (EOFException e) {
+                    break;
+                }
+                crc.reset();
+                crc.update(body);
+                if ((int) crc.getValue() != checksum) break;
+                
+                DataInputStream record = new DataInputStream(new ByteArrayInputStream(body));
+                long recordSequence = record.readLong();
+                if (recordSequence > afterSequence) {
+                    if (first) {
+                        replaying = recordSequence == afterSequence + 1;
+                        first = false;
+                    }
+                    if (replaying) apply(record.readByte(), record, replay);
+                    else skipped++;
+                }
+                sequence = Math.max(sequence, recordSequence);
+                validEnd += 2 * Integer.BYTES + length;
+                if (recordSequence <= afterSequence) snapshotPosition = validEnd;
+            }
+        }
+        
+        if (channel.size() > validEnd) {
+            channel.truncate(validEnd);
+            channel.force(true);
+        }
+        channel.position(validEnd);
+        return new GradeJournal(file, channel, sequence, snapshotPosition, skipped);
+    }
+    
+    // Position after the last record the snapshot given to open already had
+    public long getSnapshotPosition() {
+        return snapshotPosition;
+    }
+    
+    // Records newer than the snapshot that open could not replay
+    public long getSkippedRecords() {
+        return skippedRecords;
+    }
+    
+    private static void apply(byte type, DataInputStream in, Replay replay) throws IOException {
+        switch (type) {
+            case ADD_STUDENT:
+                replay.addStudent(in.readUTF(), in.readUTF(), in.readUTF());
+                break;
+            case ADD_COURSE:
+                replay.addCourse(in.readUTF(), in.readUTF(), in.readInt(), in.readInt());
+                break;
+            case ENROLL:
+                replay.enrollStudent(in.readUTF(), in.readUTF());
+                break;
+            case ADD_GRADE:
+                replay.addGrade(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readDouble());
+                break;
+            case SET_WEIGHTS:
+                String courseCode = in.readUTF();
+                int count = in.readInt();
+                Map<String, Double> weights = new LinkedHashMap<>();
+                for (int i = 0; i < count; i++) {
+                    weights.put(in.readUTF(), in.readDouble());
+                }
+                replay.setCourseWeights(courseCode, weights);
+                break;
+            case SET_TERM:
+                replay.setCourseTerm(in.readUTF(), in.readUTF());
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type);
+        }
+    }
+    
+    // The append methods return the journal position of the record without
+    // waiting for it to reach disk; pass it to awaitDurable, or call sync() after a batch
+    public long appendStudent(String srCode, String name, String major) throws IOException {
+        Record record = new Record(ADD_STUDENT);
+        record.out.writeUTF(srCode);
+        record.out.writeUTF(name);
+        record.out.writeUTF(major);
+        return append(record);
+    }
+    
+    public long appendCourse(String code, String name, int credits, int weightScheme) throws IOException {
+        Record record = new Record(ADD_COURSE);
+        record.out.writeUTF(code);
+        record.out.writeUTF(name);
+        record.out.writeInt(credits);
+        record.out.writeInt(weightScheme);
+        return append(record);
+    }
+    
+    public long appendWeights(String courseCode, Map<String, Double> weights) throws IOException {
+        Record record = new Record(SET_WEIGHTS);
+        record.out.writeUTF(courseCode);
+        record.out.writeInt(weights.size());
+        for (Map.Entry<String, Double> weight : weights.entrySet()) {
+            record.out.writeUTF(weight.getKey());
+            record.out.writeDouble(weight.getValue());
+        }
+        return append(record);
+    }
+    
+    public long appendTerm(String courseCode, String term) throws IOException {
+        Record record = new Record(SET_TERM);
+        record.out.writeUTF(courseCode);
+        record.out.writeUTF(term);
+        return append(record);
+    }
+    
+    public long appendEnrollment(String studentId, String courseCode) throws IOException {
+        Record record = new Record(ENROLL);
+        record.out.writeUTF(studentId);
+        record.out.writeUTF(courseCode);
+        return append(record);
+    }
+    
+    public long appendGrade(String studentId, String courseCode, String assignmentType,
+                            String assignmentName, double grade) throws IOException {
+        Record record = new Record(ADD_GRADE);
+        record.out.writeUTF(studentId);
+        record.out.writeUTF(courseCode);
+        record.out.writeUTF(assignmentType);
+        record.out.writeUTF(assignmentName);
+        record.out.writeDouble(grade);
+        return append(record);
+    }
+    
+    public void sync() throws IOException {
+        long position;
+        synchronized (this) {
+            position = appendedPosition;
+        }
+        awaitDurable(position);
+    }
+    
+    // Only copies the record into the pending buffer; nothing touches the disk here
+    private synchronized long append(Record record) {
+        byte[] body = record.body(++sequence);
+        crc.reset();
+        crc.update(body);
+        
+        int length = 2 * Integer.BYTES + body.length;
+        if (pending.remaining() < length) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + length));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+        pending.putInt(body.length);
+        pending.putInt((int) crc.getValue());
+        pending.put(body);
+        appendedPosition += length;
+        return appendedPosition;
+    }
+    
+    // Group commit: the leader writes everything appended so far with one write
+    // and one force. Writes are positional, at the end of what is durable, so a
+    // retry after a failed write overwrites whatever part of it reached the file.
+    public void awaitDurable(long position) throws IOException {
+        ByteBuffer batch;
+        long target;
+        long offset;
+        FileChannel out;
+        synchronized (this) {
+            long seenFailures = failures;
+            while (durablePosition < position && forcing) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted waiting for journal sync");
+                }
+            }
+            if (durablePosition >= position) return;
+            if (failures != seenFailures) {
+                throw new IOException("Journal sync failed: " + failure.getMessage(), failure);
+            }
+            forcing = true;
+            batch = pending;
+            pending = spare;
+            spare = null;
+            target = appendedPosition;
+            offset = durablePosition - start;
+            out = channel;
+        }
+        
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                offset += out.write(batch, offset);
+            }
+            out.force(false);
+        } catch (IOException e) {
+            failed(batch, out, e);
+            throw e;
+        }
+        synchronized (this) {
+            batch.clear();
+            spare = batch;
+            forcing = false;
+            durablePosition = Math.max(durablePosition, target);
+            notifyAll();
+        }
+    }
+    
+    // The failed batch goes back in front of the records appended since, for
+    // the next sync to retry; the file is cut back to what is durable, as
+    // open() stops replaying at a torn record and would lose everything after it
+    private synchronized void failed(ByteBuffer batch, FileChannel out, IOException e) {
+        try {
+            out.truncate(durablePosition - start);
+        } catch (IOException truncateFailure) {
+            e.addSuppressed(truncateFailure);
+        }
+        batch.rewind();
+        pending.flip();
+        ByteBuffer requeued = ByteBuffer.allocate(Math.max(batch.capacity(), batch.limit() + pending.limit()));
+        requeued.put(batch).put(pending);
+        pending.clear();
+        spare = pending;
+        pending = requeued;
+        failure = e;
+        failures++;
+        forcing = false;
+        notifyAll();
+    }
+    
+    public synchronized long getSequence() {
+        return sequence;
+    }
+    
+    // Position after the last record appended
+    public synchronized long getPosition() {
+        return appendedPosition;
+    }
+    
+    // Bytes in the file, including records not written yet
+    public synchronized long size() {
+        return appendedPosition - start;
+    }
+    
+    // Called once a snapshot containing every record up to getSequence() is safely
+    // written; records still waiting in the buffer are covered by that snapshot
+    public synchronized void reset() throws IOException {
+        awaitIdle();
+        pending.clear();
+        channel.truncate(0);
+        channel.force(true);
+        channel.position(0);
+        start = appendedPosition;
+        durablePosition = appendedPosition;
+    }
+    
+    // Called once a snapshot covering every record up to position is safely
+    // written, while records after it may still be arriving. Those are copied
+    // into a new file that atomically replaces the log, so a crash leaves
+    // either the old log or the new one, and replay skips what the snapshot has.
+    public synchronized void discardThrough(long position) throws IOException {
+        awaitIdle();
+        if (position >= appendedPosition) {
+            reset();
+            return;
+        }
+        if (position <= start) return;
+        
+        // Left in pending until written, so a failure here loses nothing
+        ByteBuffer unwritten = pending.duplicate();
+        unwritten.flip();
+        long offset = durablePosition - start;
+        while (unwritten.hasRemaining()) {
+            offset += channel.write(unwritten, offset);
+        }
+        pending.clear();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel tail = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            long from = position - start;
+            long count = appendedPosition - position;
+            for (long copied = 0; copied < count; ) {
+                copied += channel.transferTo(from + copied, count - copied, tail);
+            }
+            tail.force(true);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tail.close();
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        syncDirectory();
+        channel.close();
+        channel = tail;
+        start = position;
+        durablePosition = appendedPosition;
+    }
+    
+    // Waits until no leader is writing outside the monitor
+    private void awaitIdle() throws InterruptedIOException {
+        while (forcing) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for journal sync");
+            }
+        }
+    }
+    
+    // Makes the rename durable; records appended to the new file would otherwise
+    // be lost with it. Not every platform can open a directory for this.
+    private void syncDirectory() {
+        Path directory = file.toAbsolutePath().getParent();
+        try (FileChannel handle = FileChannel.open(directory, StandardOpenOption.READ)) {
+            handle.force(true);
+        } catch (IOException e) {
+            // Not supported here
+        }
+    }
+    
+    public Path getFile() {
+        return file;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        sync();
+        channel.close();
+    }
+    
+    private static class Record {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final byte type;
+        
+        Record(byte type) {
+            this.type = type;
+        }
+        
+        byte[] body(long sequence) {
+            ByteBuffer header = ByteBuffer.allocate(Long.BYTES + 1);
+            header.putLong(sequence);
+            header.put(type);
+            byte[] payload = bytes.toByteArray();
+            byte[] body = Arrays.copyOf(header.array(), header.capacity() + payload.length);
+            System.arraycopy(payload, 0, body, header.capacity(), payload.length);
+            return body;
+        }
+    }
+    
+    // Receives replayed operations during recovery
+    public interface Replay {
+        void addStudent(String srCode, String name, String major);
+        void addCourse(String code, String name, int credits, int weightScheme);
+        void setCourseWeights(String courseCode, Map<String, Double> weights);
+        void setCourseTerm(String courseCode, String term);
+        void enrollStudent(String studentId, String courseCode);
+        void addGrade(String studentId, String courseCode, String assignmentType,
+                      String assignmentName, double grade);
+    }
+}
\ No newline at end of file
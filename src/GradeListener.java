@@ -0,0 +1,10 @@
+// Receives GradeEvents from GradeTracker. Called on the thread making the
+// change with a student lock held, so implementations must be thread-safe
+// and quick; they must not call back into the tracker.
+public interface GradeListener {
+    void gradeChanged(GradeEvent event);
+    
+    // All data was replaced, e.g. loaded from disk; REPLAYED events for the new state follow
+    default void reset() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+// Maps a percentage course grade to a letter and grade points. STANDARD
+// uses the same A-F cut-offs as the report letters; PLUS_MINUS is the
+// common 4.0 scale with +/- steps.
+public final class GradeScale {
+    public static final GradeScale STANDARD = new GradeScale("standard",
+        new double[] {90, 80, 70, 60, 0},
+        new String[] {"A", "B", "C", "D", "F"},
+        new double[] {4.0, 3.0, 2.0, 1.0, 0.0});
+    public static final GradeScale PLUS_MINUS = new GradeScale("plus-minus",
+        new double[] {93, 90, 87, 83, 80, 77, 73, 70, 67, 63, 60, 0},
+        new String[] {"A", "A-", "B+", "B", "B-", "C+", "C", "C-", "D+", "D", "D-", "F"},
+        new double[] {4.0, 3.7, 3.3, 3.0, 2.7, 2.3, 2.0, 1.7, 1.3, 1.0, 0.7, 0.0});
+    
+    private final String name;
+    // Lowest percentage of each step, highest step first
+    private final double[] minimums;
+    private final String[] letters;
+    private final double[] points;
+    
+    private GradeScale(String name, double[] minimums, String[] letters, double[] points) {
+        this.name = name;
+        this.minimums = minimums;
+        this.letters = letters;
+        this.points = points;
+    }
+    
+    // STANDARD or PLUS_MINUS by name; null if there is no such scale
+    public static GradeScale named(String name) {
+        if (name.equals(STANDARD.name)) return STANDARD;
+        if (name.equals(PLUS_MINUS.name)) return PLUS_MINUS;
+        return null;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String letter(double grade) {
+        return letters[step(grade)];
+    }
+    
+    public double points(double grade) {
+        return points[step(grade)];
+    }
+    
+    public double maxPoints() {
+        return points[0];
+    }
+    
+    // Every step but the lowest, highest first: the cut-offs a grade can be aimed at
+    public int cutoffCount() {
+        return minimums.length - 1;
+    }
+    
+    public double cutoff(int step) {
+        return minimums[step];
+    }
+    
+    public String cutoffLetter(int step) {
+        return letters[step];
+    }
+    
+    // Passing steps earn the course's credits
+    public boolean passes(double grade) {
+        return points(grade) > 0;
+    }
+    
+    private int step(double grade) {
+        for (int i = 0; i < minimums.length - 1; i++) {
+            if (grade >= minimums[i]) return i;
+        }
+        return minimums.length - 1;
+    }
+}
\ No newline at end of file
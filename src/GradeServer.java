@@ -0,0 +1,778 @@
+import java.util.*;
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+// Local HTTP/JSON API over a GradeTracker, for the portal to poll.
+//
+//   GET  /api/status                            GET  /api/metrics (Prometheus text format)
+//   GET  /api/students[?q=&offset=&limit=]      POST /api/students {srCode, name, major}
+//   GET  /api/students/{id}                     GET  /api/students/{id}/report
+//   GET  /api/students/{id}/transcript
+//   GET  /api/courses[?q=&offset=&limit=]       POST /api/courses {code, name, credits, weightScheme, term}
+//   GET  /api/courses/{code}                    GET  /api/courses/{code}/report
+//   GET  /api/courses/{code}/rankings[?limit=]  GET  /api/rankings[?limit=] (by GPA)
+//   GET  /api/courses/{code}/predictions?finalWeight=[&scale=]
+//   POST /api/enrollments {studentId, courseCode}
+//   POST /api/grades {studentId, courseCode, type, name, grade}
+//
+// Responses are written field by field into the chunked response body, never
+// assembled as one string first. Grades are copied under the student's lock
+// and written after it is released, so a slow client never blocks grade entry. Each
+// request runs on a virtual thread when the JDK has them, otherwise on a
+// fixed pool.
+public class GradeServer {
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_THREADS = 64;
+    
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY = 64 * 1024;
+    
+    private final GradeTracker tracker;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    // Kept current by the tracker's grade events while the server runs
+    private final RankingViews rankings = new RankingViews();
+    private TranscriptEngine transcripts;
+    private volatile AutoSaver autoSaver;
+    
+    private GradeServer(GradeTracker tracker, HttpServer server, ExecutorService executor, boolean virtualThreads) {
+        this.tracker = tracker;
+        this.server = server;
+        this.executor = executor;
+        this.virtualThreads = virtualThreads;
+    }
+    
+    public static GradeServer start(GradeTracker tracker, InetSocketAddress address, int threads) throws IOException {
+        // Headers and body go out as separate small writes; without TCP_NODELAY
+        // every keep-alive response waits on the client's delayed ACK
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        
+        ExecutorService executor = virtualThreadExecutor();
+        boolean virtualThreads = executor != null;
+        if (executor == null) executor = Executors.newFixedThreadPool(Math.max(1, threads));
+        
+        HttpServer server = HttpServer.create(address, 1024);
+        GradeServer api = new GradeServer(tracker, server, executor, virtualThreads);
+        tracker.addListener(api.rankings);
+        api.transcripts = new TranscriptEngine(tracker, GradeScale.STANDARD);
+        server.createContext("/api/", api::handle);
+        server.setExecutor(executor);
+        server.start();
+        return api;
+    }
+    
+    // Executors.newVirtualThreadPerTaskExecutor() exists from JDK 21; the build
+    // targets 17, so it is looked up at runtime
+    private static ExecutorService virtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+    
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+    
+    public boolean usesVirtualThreads() {
+        return virtualThreads;
+    }
+    
+    // Reported under "autoSave" in /api/status
+    public void setAutoSaver(AutoSaver autoSaver) {
+        this.autoSaver = autoSaver;
+    }
+    
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+        tracker.removeListener(rankings);
+        transcripts.detach();
+    }
+    
+    private void handle(HttpExchange exchange) {
+        try {
+            route(exchange);
+        } catch (IllegalArgumentException e) {
+            error(exchange, 400, e.getMessage());
+        } catch (Exception e) {
+            error(exchange, 500, e.toString());
+        } finally {
+            exchange.close();
+        }
+    }
+    
+    private void route(HttpExchange exchange) throws IOException {
+        String[] path = segments(exchange.getRequestURI().getRawPath());
+        String method = exchange.getRequestMethod();
+        String resource = path.length > 0 ? path[0] : "";
+        
+        if (resource.equals("students") && path.length == 1) {
+            if (method.equals("GET")) listStudents(exchange);
+            else if (method.equals("POST")) createStudent(exchange);
+            else notAllowed(exchange, "GET, POST");
+        } else if (resource.equals("students") && (path.length == 2 || isReport(path))) {
+            if (method.equals("GET")) student(exchange, path[1], path.length == 3);
+            else notAllowed(exchange, "GET");
+        } else if (resource.equals("students") && path.length == 3 && path[2].equals("transcript")) {
+            if (method.equals("GET")) transcript(exchange, path[1]);
+            else notAllowed(exchange, "GET");
+        } else if (resource.equals("courses") && path.length == 1) {
+            if (method.equals("GET")) listCourses(exchange);
+            else if (method.equals("POST")) createCourse(exchange);
+            else notAllowed(exchange, "GET, POST");
+        } else if (resource.equals("courses") && (path.length == 2 || isReport(path))) {
+            if (method.equals("GET")) course(exchange, path[1], path.length == 3);
+            else notAllowed(exchange, "GET");
+        } else if (resource.equals("courses") && path.length == 3 && path[2].equals("rankings")) {
+            if (method.equals("GET")) courseRankings(exchange, path[1]);
+            else notAllowed(exchange, "GET");
+        } else if (resource.equals("courses") && path.length == 3 && path[2].equals("predictions")) {
+            if (method.equals("GET")) coursePredictions(exchange, path[1]);
+            else notAllowed(exchange, "GET");
+        } else if (resource.equals("rankings") && path.length == 1) {
+            if (method.equals("GET")) gpaRankings(exchange);
+            else notAllowed(exchange, "GET");
+        } else if (resource.equals("enrollments") && path.length == 1) {
+            if (method.equals("POST")) enroll(exchange);
+            else notAllowed(exchange, "POST");
+        } else if (resource.equals("grades") && path.length == 1) {
+            if (method.equals("POST")) addGrade(exchange);
+            else notAllowed(exchange, "POST");
+        } else if (resource.equals("status") && path.length == 1) {
+            if (method.equals("GET")) status(exchange);
+            else notAllowed(exchange, "GET");
+        } else if (resource.equals("metrics") && path.length == 1) {
+            if (method.equals("GET")) metrics(exchange);
+            else notAllowed(exchange, "GET");
+        } else {
+            error(exchange, 404, "No such resource: " + exchange.getRequestURI().getPath());
+        }
+    }
+    
+    private static boolean isReport(String[] path) {
+        return path.length == 3 && path[2].equals("report");
+    }
+    
+    private void listStudents(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        int offset = intParameter(query, "offset", 0);
+        int limit = Math.min(intParameter(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        String search = query.get("q");
+        
+        if (search != null) {
+            SearchIndex.Page<Student> page = tracker.findStudents(search, offset, limit);
+            respond(exchange, 200, json -> {
+                pageHeader(json, page.getTotal(), offset, limit);
+                json.name("students").beginArray();
+                for (Student student : page.getResults()) {
+                    json.beginObject();
+                    studentFields(json, student);
+                    json.endObject();
+                }
+                json.endArray().endObject();
+            });
+            return;
+        }
+        
+        // SR-code, name and major never change after a student is added, so
+        // the page needs no student lock at all
+        List<String> ids = tracker.getStudentIds(offset, limit);
+        respond(exchange, 200, json -> {
+            pageHeader(json, tracker.getStudentCount(), offset, limit);
+            json.name("students").beginArray();
+            for (String id : ids) {
+                Student student = tracker.getStudent(id);
+                if (student == null) continue;
+                json.beginObject();
+                studentFields(json, student);
+                json.endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+    
+    private void student(HttpExchange exchange, String id, boolean report) throws IOException {
+        // Grades are copied with the student's read lock held and written after
+        // it is released, so a slow client never holds up grade entry
+        List<CourseRow> rows = new ArrayList<>();
+        Student[] found = new Student[1];
+        tracker.readStudent(id, student -> {
+            found[0] = student;
+            for (String courseCode : student.getEnrolledCourses()) {
+                Course course = tracker.getCourse(courseCode);
+                if (course == null) continue;
+                CourseRow row = new CourseRow(course, student.getCourseGrade(course));
+                if (report) {
+                    for (String type : student.getAssignmentTypes(courseCode)) {
+                        row.categories.add(new CategoryRow(type, student.getCategoryAverage(courseCode, type),
+                            student.getCategoryCount(courseCode, type)));
+                    }
+                }
+                rows.add(row);
+            }
+        });
+        Student student = found[0];
+        if (student == null) {
+            error(exchange, 404, "Student not found: " + id);
+            return;
+        }
+        respond(exchange, 200, json -> {
+            json.beginObject();
+            studentFields(json, student);
+            double gpa = rankings.getGpa(id);
+            if (Double.isNaN(gpa)) {
+                json.name("gpa").nullValue();
+            } else {
+                json.field("gpa", gpa, 2).field("rank", rankings.getGpaRank(id));
+            }
+            json.name("courses").beginArray();
+            for (CourseRow row : rows) {
+                json.beginObject()
+                    .field("code", row.course.getCode())
+                    .field("name", row.course.getName())
+                    .field("credits", row.course.getCredits())
+                    .field("grade", row.grade, 2)
+                    .field("letter", student.getGradeLetter(row.grade));
+                int rank = rankings.getCourseRank(row.course.getCode(), id);
+                if (rank > 0) json.field("rank", rank);
+                if (report) {
+                    json.name("categories").beginArray();
+                    for (CategoryRow category : row.categories) {
+                        json.beginObject()
+                            .field("type", category.type)
+                            .field("average", category.average, 2)
+                            .field("count", category.count)
+                            .endObject();
+                    }
+                    json.endArray();
+                }
+                json.endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+    
+    // One enrolled course of a student as copied under the student's lock
+    private static class CourseRow {
+        final Course course;
+        final double grade;
+        final List<CategoryRow> categories = new ArrayList<>();
+        
+        CourseRow(Course course, double grade) {
+            this.course = course;
+            this.grade = grade;
+        }
+    }
+    
+    private static class CategoryRow {
+        final String type;
+        final double average;
+        final int count;
+        
+        CategoryRow(String type, double average, int count) {
+            this.type = type;
+            this.average = average;
+            this.count = count;
+        }
+    }
+    
+    private void transcript(HttpExchange exchange, String id) throws IOException {
+        TranscriptEngine.Transcript transcript = transcripts.transcript(id);
+        if (transcript == null) {
+            error(exchange, 404, "Student not found: " + id);
+            return;
+        }
+        respond(exchange, 200, json -> {
+            json.beginObject()
+                .field("srCode", transcript.getStudentId())
+                .field("name", transcript.getName())
+                .field("scale", transcript.getScale().getName());
+            json.name("terms").beginArray();
+            for (TranscriptEngine.TermRollup term : transcript.getTerms()) {
+                json.beginObject().field("term", term.getTerm());
+                json.name("courses").beginArray();
+                for (TranscriptEngine.CourseLine line : term.getCourses()) {
+                    json.beginObject()
+                        .field("code", line.getCode())
+                        .field("credits", line.getCredits())
+                        .field("grade", line.getGrade(), 2)
+                        .field("letter", line.getLetter())
+                        .field("points", line.getPoints(), 2)
+                        .endObject();
+                }
+                json.endArray()
+                    .field("attemptedCredits", term.getAttemptedCredits())
+                    .field("earnedCredits", term.getEarnedCredits())
+                    .field("gpa", term.getGpa(), 2)
+                    .endObject();
+            }
+            json.endArray()
+                .field("attemptedCredits", transcript.getAttemptedCredits())
+                .field("earnedCredits", transcript.getEarnedCredits())
+                .field("gpa", transcript.getCumulativeGpa(), 2)
+                .endObject();
+        });
+    }
+    
+    private void courseRankings(HttpExchange exchange, String code) throws IOException {
+        if (tracker.getCourse(code) == null) {
+            error(exchange, 404, "Course not found: " + code);
+            return;
+        }
+        int limit = Math.min(intParameter(query(exchange), "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        List<Leaderboard.Entry> top = rankings.getCourseTop(code, limit);
+        int ranked = rankings.getRankedCount(code);
+        respond(exchange, 200, json -> {
+            json.beginObject().field("code", code).field("ranked", ranked);
+            json.name("students").beginArray();
+            for (Leaderboard.Entry entry : top) {
+                rankingEntry(json, rankings.getCourseRank(code, entry.getId()), entry, "grade");
+            }
+            json.endArray().endObject();
+        });
+    }
+    
+    // Final exam score each student needs for each cut-off; null when out of reach
+    private void coursePredictions(HttpExchange exchange, String code) throws IOException {
+        Map<String, String> query = query(exchange);
+        double finalWeight = Double.parseDouble(required(query, "finalWeight"));
+        if (!(finalWeight > 0 && finalWeight <= 1)) throw new IllegalArgumentException("finalWeight must be in (0, 1]");
+        GradeScale scale = GradeScale.named(query.getOrDefault("scale", GradeScale.STANDARD.getName()));
+        if (scale == null) throw new IllegalArgumentException("Unknown scale: " + query.get("scale"));
+        CoursePrediction prediction = tracker.predictCourse(code, finalWeight, scale);
+        if (prediction == null) {
+            error(exchange, 404, "Course not found: " + code);
+            return;
+        }
+        respond(exchange, 200, json -> {
+            json.beginObject()
+                .field("code", code)
+                .field("finalWeight", finalWeight, 2)
+                .field("scale", scale.getName());
+            json.name("cutoffs").beginObject();
+            for (int t = 0; t < prediction.getCutoffCount(); t++) {
+                json.field(prediction.getCutoffLetter(t), prediction.getCutoff(t), 2);
+            }
+            json.endObject();
+            json.name("students").beginArray();
+            for (int i = 0; i < prediction.getCount(); i++) {
+                json.beginObject()
+                    .field("srCode", prediction.getStudentId(i))
+                    .field("current", prediction.getCurrentGrade(i), 2);
+                json.name("needed").beginObject();
+                for (int t = 0; t < prediction.getCutoffCount(); t++) {
+                    double needed = prediction.getNeeded(t, i);
+                    json.name(prediction.getCutoffLetter(t));
+                    if (needed > 100) json.nullValue();
+                    else json.value(Math.max(needed, 0.0), 2);
+                }
+                json.endObject().endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+    
+    private void gpaRankings(HttpExchange exchange) throws IOException {
+        int limit = Math.min(intParameter(query(exchange), "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        List<Leaderboard.Entry> top = rankings.getTopByGpa(limit);
+        int ranked = rankings.getGpaRankedCount();
+        respond(exchange, 200, json -> {
+            json.beginObject().field("ranked", ranked);
+            json.name("students").beginArray();
+            for (Leaderboard.Entry entry : top) {
+                rankingEntry(json, rankings.getGpaRank(entry.getId()), entry, "gpa");
+            }
+            json.endArray().endObject();
+        });
+    }
+    
+    private void rankingEntry(JsonWriter json, int rank, Leaderboard.Entry entry, String scoreName) {
+        Student student = tracker.getStudent(entry.getId());
+        json.beginObject()
+            .field("rank", rank)
+            .field("srCode", entry.getId())
+            .field("name", student != null ? student.getName() : "")
+            .field(scoreName, entry.getScore(), 2)
+            .endObject();
+    }
+    
+    private static void studentFields(JsonWriter json, Student student) {
+        json.field("srCode", student.getSrCode())
+            .field("name", student.getName())
+            .field("major", student.getMajor());
+    }
+    
+    private void createStudent(HttpExchange exchange) throws IOException {
+        Map<String, String> body = body(exchange);
+        String srCode = required(body, "srCode");
+        if (!tracker.addStudent(srCode, required(body, "name"), required(body, "major"))) {
+            error(exchange, 409, "Student already exists: " + srCode);
+            return;
+        }
+        respond(exchange, 201, json -> json.beginObject().field("srCode", srCode).endObject());
+    }
+    
+    private void listCourses(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        int offset = intParameter(query, "offset", 0);
+        int limit = Math.min(intParameter(query, "limit", DEFAULT_LIMIT), MAX_LIMIT);
+        String search = query.get("q");
+        
+        List<Course> courses = new ArrayList<>();
+        int total;
+        if (search != null) {
+            SearchIndex.Page<Course> page = tracker.findCourses(search, offset, limit);
+            courses.addAll(page.getResults());
+            total = page.getTotal();
+        } else {
+            for (String code : tracker.getCourseCodes(offset, limit)) {
+                Course course = tracker.getCourse(code);
+                if (course != null) courses.add(course);
+            }
+            total = tracker.getCourseCount();
+        }
+        respond(exchange, 200, json -> {
+            pageHeader(json, total, offset, limit);
+            json.name("courses").beginArray();
+            for (Course course : courses) {
+                json.beginObject();
+                courseFields(json, course);
+                json.endObject();
+            }
+            json.endArray().endObject();
+        });
+    }
+    
+    private void course(HttpExchange exchange, String code, boolean report) throws IOException {
+        Course course = tracker.getCourse(code);
+        if (course == null) {
+            error(exchange, 404, "Course not found: " + code);
+            return;
+        }
+        respond(exchange, 200, json -> {
+            json.beginObject();
+            courseFields(json, course);
+            json.name("weights").beginObject();
+            for (Map.Entry<String, Double> weight : course.getWeights().entrySet()) {
+                json.name(weight.getKey()).value(weight.getValue());
+            }
+            json.endObject();
+            
+            if (!report) {
+                json.field("enrolled", tracker.getEnrollmentCount(code)).endObject();
+                return;
+            }
+            // Rows stream out as each student is read; the grades are kept
+            // only as doubles for the statistics at the end
+            List<String> enrolled = tracker.getEnrolledStudents(code);
+            CourseStatistics.Accumulator grades = new CourseStatistics.Accumulator();
+            json.field("enrolled", enrolled.size());
+            json.name("students").beginArray();
+            // Each grade is read under the student's lock, then written after it is released
+            double[] grade = new double[1];
+            Student[] read = new Student[1];
+            for (String studentId : enrolled) {
+                read[0] = null;
+                tracker.readStudent(studentId, student -> {
+                    read[0] = student;
+                    grade[0] = student.getCourseGrade(course);
+                });
+                Student student = read[0];
+                if (student == null) continue;
+                grades.add(grade[0]);
+                json.beginObject()
+                    .field("srCode", student.getSrCode())
+                    .field("name", student.getName())
+                    .field("grade", grade[0], 2)
+                    .field("letter", student.getGradeLetter(grade[0]))
+                    .endObject();
+            }
+            json.endArray();
+            statistics(json, grades.toStatistics(code));
+            json.endObject();
+        });
+    }
+    
+    private static void courseFields(JsonWriter json, Course course) {
+        json.field("code", course.getCode())
+            .field("name", course.getName())
+            .field("credits", course.getCredits())
+            .field("term", course.getTerm());
+    }
+    
+    private static void statistics(JsonWriter json, CourseStatistics stats) {
+        json.name("statistics").beginObject()
+            .field("count", stats.getCount())
+            .field("mean", stats.getMean(), 2)
+            .field("median", stats.getMedian(), 2)
+            .field("min", stats.getMin(), 2)
+            .field("max", stats.getMax(), 2)
+            .field("stdDev", stats.getStdDev(), 2)
+            .field("p25", stats.percentile(25), 2)
+            .field("p75", stats.percentile(75), 2)
+            .field("p90", stats.percentile(90), 2);
+        json.name("histogram").beginObject();
+        int[] histogram = stats.getHistogram();
+        for (int i = 0; i < histogram.length; i++) {
+            json.field(CourseStatistics.LETTERS[i], histogram[i]);
+        }
+        json.endObject().endObject();
+    }
+    
+    private void createCourse(HttpExchange exchange) throws IOException {
+        Map<String, String> body = body(exchange);
+        String code = required(body, "code");
+        String name = required(body, "name");
+        int credits = Integer.parseInt(required(body, "credits"));
+        int weightScheme = Integer.parseInt(body.getOrDefault("weightScheme", "1"));
+        if (!tracker.addCourseIfAbsent(code, name, credits, weightScheme)) {
+            error(exchange, 409, "Course already exists: " + code);
+            return;
+        }
+        String term = body.get("term");
+        if (term != null) tracker.setCourseTerm(code, term);
+        respond(exchange, 201, json -> json.beginObject().field("code", code).endObject());
+    }
+    
+    private void enroll(HttpExchange exchange) throws IOException {
+        Map<String, String> body = body(exchange);
+        String studentId = required(body, "studentId");
+        String courseCode = required(body, "courseCode");
+        if (!tracker.enrollStudent(studentId, courseCode)) {
+            error(exchange, 404, "Student or course not found");
+            return;
+        }
+        respond(exchange, 201, json -> json.beginObject()
+            .field("studentId", studentId)
+            .field("courseCode", courseCode)
+            .endObject());
+    }
+    
+    private void addGrade(HttpExchange exchange) throws IOException {
+        Map<String, String> body = body(exchange);
+        String studentId = required(body, "studentId");
+        String courseCode = required(body, "courseCode");
+        String type = required(body, "type");
+        String name = required(body, "name");
+        double grade = Double.parseDouble(required(body, "grade"));
+        if (!(grade >= 0 && grade <= 100)) {
+            throw new IllegalArgumentException("Grade must be between 0 and 100");
+        }
+        if (!tracker.addGrade(studentId, courseCode, type, name, grade)) {
+            error(exchange, 404, "Student, course or enrollment not found");
+            return;
+        }
+        respond(exchange, 201, json -> json.beginObject()
+            .field("studentId", studentId)
+            .field("courseCode", courseCode)
+            .field("type", type)
+            .field("name", name)
+            .field("grade", grade, 2)
+            .endObject());
+    }
+    
+    private static void pageHeader(JsonWriter json, int total, int offset, int limit) {
+        json.beginObject()
+            .field("total", total)
+            .field("offset", offset)
+            .field("limit", limit);
+    }
+    
+    // Sends the headers, then streams the body; the length is not known up
+    // front, so HttpServer uses chunked encoding
+    private static void respond(HttpExchange exchange, int status, Consumer<JsonWriter> body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192);
+        JsonWriter json = new JsonWriter(writer);
+        body.accept(json);
+        json.flush();
+        if (json.checkError() != null) throw json.checkError();
+    }
+    
+    private void status(HttpExchange exchange) throws IOException {
+        AutoSaver saver = autoSaver;
+        respond(exchange, 200, json -> {
+            json.beginObject()
+                .field("students", tracker.getStudentCount())
+                .field("courses", tracker.getCourseCount())
+                .field("virtualThreads", virtualThreads);
+            if (saver != null) {
+                json.name("autoSave").beginObject()
+                    .field("saves", saver.getSaveCount())
+                    .field("failures", saver.getFailureCount())
+                    .field("lastSaveMs", saver.getLastSaveMillis(), 1)
+                    .field("lastPauseMs", saver.getLastPauseMillis(), 2)
+                    .field("unsavedChanges", saver.getUnsavedChanges())
+                    .field("lagMs", saver.getLagMillis())
+                    .endObject();
+            }
+            json.endObject();
+        });
+    }
+    
+    private void metrics(HttpExchange exchange) throws IOException {
+        StringBuilder text = new StringBuilder(16384);
+        tracker.getMetrics().writePrometheus(text);
+        byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+    
+    private static void error(HttpExchange exchange, int status, String message) {
+        // Too late for a status once the headers are out; the client sees a cut-off body
+        if (exchange.getResponseCode() != -1) return;
+        try {
+            respond(exchange, status, json -> json.beginObject().field("error", message).endObject());
+        } catch (IOException e) {
+            // The client has gone away
+        }
+    }
+    
+    private static void notAllowed(HttpExchange exchange, String allowed) {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        error(exchange, 405, "Method not allowed");
+    }
+    
+    private static String[] segments(String rawPath) {
+        String path = rawPath.substring("/api/".length());
+        if (path.endsWith("/")) path = path.substring(0, path.length() - 1);
+        if (path.isEmpty()) return new String[0];
+        String[] segments = path.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            // Percent-decoding only: a '+' in a path is a plus, not a space
+            segments[i] = URLDecoder.decode(segments[i].replace("+", "%2B"), StandardCharsets.UTF_8);
+        }
+        return segments;
+    }
+    
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) return parameters;
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return parameters;
+    }
+    
+    private static int intParameter(Map<String, String> query, String name, int defaultValue) {
+        String value = query.get(name);
+        if (value == null) return defaultValue;
+        int parsed = Integer.parseInt(value);
+        if (parsed < 0) throw new IllegalArgumentException(name + " must not be negative");
+        return parsed;
+    }
+    
+    private static String required(Map<String, String> body, String name) {
+        String value = body.get(name);
+        if (value == null || value.isEmpty()) throw new IllegalArgumentException("Missing field: " + name);
+        return value;
+    }
+    
+    private static Map<String, String> body(HttpExchange exchange) throws IOException {
+        byte[] bytes = exchange.getRequestBody().readNBytes(MAX_BODY + 1);
+        if (bytes.length > MAX_BODY) throw new IllegalArgumentException("Request body too large");
+        return parseObject(new String(bytes, StandardCharsets.UTF_8));
+    }
+    
+    // Request bodies are flat JSON objects; every value is kept as its text
+    static Map<String, String> parseObject(String text) {
+        Map<String, String> fields = new HashMap<>();
+        int[] position = {skipSpace(text, 0)};
+        expect(text, position, '{');
+        if (peek(text, position) == '}') {
+            position[0]++;
+            return fields;
+        }
+        while (true) {
+            String name = parseString(text, position);
+            expect(text, position, ':');
+            fields.put(name, parseValue(text, position));
+            char next = peek(text, position);
+            position[0]++;
+            if (next == '}') return fields;
+            if (next != ',') throw new IllegalArgumentException("Malformed JSON at offset " + (position[0] - 1));
+        }
+    }
+    
+    private static String parseValue(String text, int[] position) {
+        if (peek(text, position) == '"') return parseString(text, position);
+        int start = position[0];
+        while (position[0] < text.length() && ",}".indexOf(text.charAt(position[0])) < 0
+               && !Character.isWhitespace(text.charAt(position[0]))) {
+            position[0]++;
+        }
+        String literal = text.substring(start, position[0]);
+        if (literal.isEmpty() || literal.startsWith("{") || literal.startsWith("[")) {
+            throw new IllegalArgumentException("Expected a string or number at offset " + start);
+        }
+        return literal.equals("null") ? null : literal;
+    }
+    
+    private static String parseString(String text, int[] position) {
+        expect(text, position, '"');
+        StringBuilder value = new StringBuilder();
+        int i = position[0];
+        while (i < text.length()) {
+            char c = text.charAt(i++);
+            if (c == '"') {
+                position[0] = i;
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (i >= text.length()) break;
+            char escaped = text.charAt(i++);
+            switch (escaped) {
+                case 'n': value.append('\n'); break;
+                case 'r': value.append('\r'); break;
+                case 't': value.append('\t'); break;
+                case 'b': value.append('\b'); break;
+                case 'f': value.append('\f'); break;
+                case 'u':
+                    if (i + 4 > text.length()) throw new IllegalArgumentException("Malformed \\u escape");
+                    value.append((char) Integer.parseInt(text.substring(i, i + 4), 16));
+                    i += 4;
+                    break;
+                default: value.append(escaped);
+            }
+        }
+        throw new IllegalArgumentException("Unterminated string");
+    }
+    
+    private static void expect(String text, int[] position, char expected) {
+        if (peek(text, position) != expected) {
+            throw new IllegalArgumentException("Expected '" + expected + "' at offset " + position[0]);
+        }
+        position[0]++;
+    }
+    
+    // Skips whitespace and returns the next character, or 0 at the end
+    private static char peek(String text, int[] position) {
+        position[0] = skipSpace(text, position[0]);
+        return position[0] < text.length() ? text.charAt(position[0]) : 0;
+    }
+    
+    private static int skipSpace(String text, int i) {
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) i++;
+        return i;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,559 @@
+import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32C;
+
+// Binary snapshot of students, courses and enrollments.
+//
+// Layout (all numbers big-endian):
+//   header       magic, version (short), flags (short), journal sequence (long, v2+)
+//   students     one length-prefixed record per student
+//   courses      count, then one length-prefixed record per course
+//   enrollments  course count, then per course: code id, n, n index positions
+//   dictionary   count, then strings (course codes, categories, assignment names)
+//   keys         byte length, then the SR codes as length-prefixed UTF-8
+//   index        count, then (key position, record offset) sorted by SR code
+//   footer       offsets of the five trailing sections, magic
+//
+// Strings inside records are ids into the dictionary, except per-student
+// text (SR code, name, major) and course names which are written inline.
+public class GradeSnapshot {
+    public static final int MAGIC = 0x53475453; // "SGTS"
+    public static final short VERSION = 2;
+    static final int FOOTER_SIZE = 5 * Long.BYTES + Integer.BYTES;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    
+    private final Map<String, Student> students;
+    private final Map<String, Course> courses;
+    private final Map<String, Roster> courseEnrollments;
+    private long journalSequence;
+    
+    public GradeSnapshot(Map<String, Student> students, Map<String, Course> courses,
+                         Map<String, Roster> courseEnrollments) {
+        this.students = students;
+        this.courses = courses;
+        this.courseEnrollments = courseEnrollments;
+    }
+    
+    public Map<String, Student> getStudents() { return students; }
+    public Map<String, Course> getCourses() { return courses; }
+    public Map<String, Roster> getCourseEnrollments() { return courseEnrollments; }
+    
+    // Last journal record already reflected in this snapshot
+    public long getJournalSequence() { return journalSequence; }
+    public void setJournalSequence(long journalSequence) { this.journalSequence = journalSequence; }
+    
+    // Written to a temp file first, forced to disk and moved into place, so a
+    // failed save never truncates the old snapshot. Returns the CRC32C of the file.
+    public long write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        List<Student> sorted = new ArrayList<>(students.values());
+        sorted.sort(Comparator.comparing(Student::getSrCode));
+        
+        Encoder record = new Encoder();
+        long checksum;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChannelOutput out = new ChannelOutput(channel);
+            out.putInt(MAGIC);
+            out.putShort(VERSION);
+            out.putShort((short) 0);
+            out.putLong(journalSequence);
+            
+            // position + 1 of each student, by Symbols.STUDENTS id; 0 if not in this snapshot
+            int[] positions = new int[Symbols.STUDENTS.size()];
+            long[] offsets = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                Student student = sorted.get(i);
+                positions[student.getId()] = i + 1;
+                offsets[i] = out.position();
+                record.clear();
+                student.writeBinary(record);
+                out.putRecord(record);
+            }
+            
+            long coursesOffset = out.position();
+            out.putInt(courses.size());
+            for (Course course : courses.values()) {
+                record.clear();
+                course.writeBinary(record);
+                out.putRecord(record);
+            }
+            
+            long enrollmentsOffset = out.position();
+            out.putInt(courseEnrollments.size());
+            for (Map.Entry<String, Roster> entry : courseEnrollments.entrySet()) {
+                out.putInt(record.symbol(entry.getKey()));
+                int[] enrolled = entry.getValue().toArray();
+                int count = 0;
+                for (int studentId : enrolled) {
+                    if (studentId < positions.length && positions[studentId] > 0) count++;
+                }
+                out.putInt(count);
+                for (int studentId : enrolled) {
+                    if (studentId < positions.length && positions[studentId] > 0) out.putInt(positions[studentId] - 1);
+                }
+            }
+            
+            long dictionaryOffset = out.position();
+            out.putInt(record.dictionary.size());
+            for (int i = 0; i < record.dictionary.size(); i++) {
+                out.putString(record.dictionary.symbol(i));
+            }
+            
+            long keysOffset = out.position();
+            int[] keyPositions = new int[sorted.size()];
+            int keyBytes = 0;
+            for (int i = 0; i < sorted.size(); i++) {
+                keyPositions[i] = keyBytes;
+                keyBytes += Short.BYTES + utf8(sorted.get(i).getSrCode()).length;
+            }
+            out.putInt(keyBytes);
+            for (Student student : sorted) {
+                out.putString(student.getSrCode());
+            }
+            
+            long indexOffset = out.position();
+            out.putInt(sorted.size());
+            for (int i = 0; i < sorted.size(); i++) {
+                out.putInt(keyPositions[i]);
+                out.putLong(offsets[i]);
+            }
+            
+            out.putLong(coursesOffset);
+            out.putLong(enrollmentsOffset);
+            out.putLong(dictionaryOffset);
+            out.putLong(keysOffset);
+            out.putLong(indexOffset);
+            out.putInt(MAGIC);
+            out.flush();
+            channel.force(true);
+            checksum = out.checksum();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return checksum;
+    }
+    
+    public static GradeSnapshot read(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to read into memory: " + file);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) break;
+            }
+            buffer.flip();
+        }
+        return decode(buffer, file);
+    }
+    
+    // Maps the file and decodes only courses and enrollments up front; students
+    // are decoded on first access through the returned map
+    public static GradeSnapshot map(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + file);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return decodeLazily(buffer, file);
+    }
+    
+    static GradeSnapshot decodeLazily(ByteBuffer buffer, Path file) throws IOException {
+        Decoder in = Decoder.open(buffer, file);
+        GradeSnapshot snapshot = new GradeSnapshot(new LazyStudentMap(in), in.courses(), in.enrollments(null));
+        snapshot.journalSequence = in.journalSequence;
+        return snapshot;
+    }
+    
+    static GradeSnapshot decode(ByteBuffer buffer, Path file) throws IOException {
+        Decoder in = Decoder.open(buffer, file);
+        
+        Map<String, Student> students = new ConcurrentHashMap<>();
+        int[] studentIds = new int[in.studentCount];
+        for (int i = 0; i < in.studentCount; i++) {
+            Student student = in.student(i);
+            studentIds[i] = student.getId();
+            students.put(student.getSrCode(), student);
+        }
+        
+        GradeSnapshot snapshot = new GradeSnapshot(students, in.courses(), in.enrollments(studentIds));
+        snapshot.journalSequence = in.journalSequence;
+        return snapshot;
+    }
+    
+    static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+    
+    static String getString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    // Growable heap buffer that a single record is encoded into before it is written
+    public static class Encoder {
+        private ByteBuffer buffer = ByteBuffer.allocate(4096);
+        final SymbolTable dictionary = new SymbolTable();
+        // Process-wide Symbols ids -> this file's dictionary ids, -1 until first written
+        private int[] courseIds = new int[0];
+        private int[] categoryIds = new int[0];
+        private int[] assignmentNameIds = new int[0];
+        
+        void clear() {
+            buffer.clear();
+        }
+        
+        private void ensure(int bytes) {
+            if (buffer.remaining() < bytes) {
+                int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                ByteBuffer grown = ByteBuffer.allocate(capacity);
+                buffer.flip();
+                grown.put(buffer);
+                buffer = grown;
+            }
+        }
+        
+        public void putInt(int value) {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+        
+        public void putDouble(double value) {
+            ensure(Double.BYTES);
+            buffer.putDouble(value);
+        }
+        
+        public void putString(String value) {
+            byte[] bytes = utf8(value);
+            if (bytes.length > 0xFFFF) {
+                throw new IllegalArgumentException("String too long for snapshot: " + value.length() + " chars");
+            }
+            ensure(Short.BYTES + bytes.length);
+            buffer.putShort((short) bytes.length);
+            buffer.put(bytes);
+        }
+        
+        // Course codes and category names go through the dictionary
+        public int symbol(String value) {
+            return dictionary.intern(value);
+        }
+        
+        public void putSymbol(String value) {
+            putInt(symbol(value));
+        }
+        
+        public void putCourse(int courseId) {
+            courseIds = putMapped(courseIds, Symbols.COURSES, courseId);
+        }
+        
+        public void putCategory(int categoryId) {
+            categoryIds = putMapped(categoryIds, Symbols.CATEGORIES, categoryId);
+        }
+        
+        public void putAssignmentName(int nameId) {
+            assignmentNameIds = putMapped(assignmentNameIds, Symbols.ASSIGNMENT_NAMES, nameId);
+        }
+        
+        // Writes the dictionary id for a Symbols id, interning the string on first use
+        private int[] putMapped(int[] mapped, SymbolTable symbols, int id) {
+            if (id >= mapped.length) {
+                int old = mapped.length;
+                mapped = Arrays.copyOf(mapped, Math.max(id + 1, old * 2));
+                Arrays.fill(mapped, old, mapped.length, -1);
+            }
+            if (mapped[id] < 0) {
+                mapped[id] = dictionary.intern(symbols.symbol(id));
+            }
+            putInt(mapped[id]);
+            return mapped;
+        }
+    }
+    
+    // Reads the trailing sections of a snapshot and decodes records on request
+    public static class Decoder {
+        private final ByteBuffer buffer;
+        private final String[] dictionary;
+        // Dictionary ids -> Symbols ids, -1 until first read. Racing readers
+        // intern the same string and store the same id, so this needs no lock.
+        private final int[] courseIds;
+        private final int[] categoryIds;
+        private final int[] assignmentNameIds;
+        final int studentCount;
+        final long journalSequence;
+        private final int keysOffset;
+        private final int indexOffset;
+        private final int coursesOffset;
+        private final int enrollmentsOffset;
+        
+        private Decoder(ByteBuffer buffer, String[] dictionary, long journalSequence, int studentCount,
+                        int coursesOffset, int enrollmentsOffset, int keysOffset, int indexOffset) {
+            this.buffer = buffer;
+            this.dictionary = dictionary;
+            this.courseIds = unmapped(dictionary.length);
+            this.categoryIds = unmapped(dictionary.length);
+            this.assignmentNameIds = unmapped(dictionary.length);
+            this.journalSequence = journalSequence;
+            this.studentCount = studentCount;
+            this.coursesOffset = coursesOffset;
+            this.enrollmentsOffset = enrollmentsOffset;
+            this.keysOffset = keysOffset;
+            this.indexOffset = indexOffset;
+        }
+        
+        static Decoder open(ByteBuffer buffer, Path file) throws IOException {
+            if (buffer.limit() < 8 + FOOTER_SIZE || buffer.getInt(0) != MAGIC
+                    || buffer.getInt(buffer.limit() - Integer.BYTES) != MAGIC) {
+                throw new IOException("Not a grade snapshot: " + file);
+            }
+            short version = buffer.getShort(4);
+            if (version < 1 || version > VERSION) {
+                throw new IOException("Unsupported snapshot version " + version + ": " + file);
+            }
+            
+            int footer = buffer.limit() - FOOTER_SIZE;
+            int coursesOffset = (int) buffer.getLong(footer);
+            int enrollmentsOffset = (int) buffer.getLong(footer + 8);
+            int dictionaryOffset = (int) buffer.getLong(footer + 16);
+            int keysOffset = (int) buffer.getLong(footer + 24);
+            int indexOffset = (int) buffer.getLong(footer + 32);
+            
+            ByteBuffer in = buffer.duplicate();
+            in.position(dictionaryOffset);
+            String[] dictionary = new String[in.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = getString(in);
+            }
+            int studentCount = buffer.getInt(indexOffset);
+            long journalSequence = version >= 2 ? buffer.getLong(8) : 0;
+            return new Decoder(buffer, dictionary, journalSequence, studentCount, coursesOffset,
+                enrollmentsOffset, keysOffset + Integer.BYTES, indexOffset + Integer.BYTES);
+        }
+        
+        public String symbol(int id) {
+            return dictionary[id];
+        }
+        
+        public int courseId(int id) {
+            return mapped(courseIds, Symbols.COURSES, id);
+        }
+        
+        public int categoryId(int id) {
+            return mapped(categoryIds, Symbols.CATEGORIES, id);
+        }
+        
+        public int assignmentNameId(int id) {
+            return mapped(assignmentNameIds, Symbols.ASSIGNMENT_NAMES, id);
+        }
+        
+        private int mapped(int[] mapped, SymbolTable symbols, int id) {
+            int symbolId = mapped[id];
+            if (symbolId < 0) {
+                symbolId = symbols.intern(dictionary[id]);
+                mapped[id] = symbolId;
+            }
+            return symbolId;
+        }
+        
+        private static int[] unmapped(int length) {
+            int[] mapped = new int[length];
+            Arrays.fill(mapped, -1);
+            return mapped;
+        }
+        
+        // SR code of the i-th entry of the sorted index
+        String key(int position) {
+            ByteBuffer in = buffer.duplicate();
+            in.position(keysOffset + buffer.getInt(indexOffset + position * 12));
+            return getString(in);
+        }
+        
+        // Binary search of the sorted index; -1 if the SR code is not in the snapshot
+        int find(String srCode) {
+            int low = 0;
+            int high = studentCount - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = key(mid).compareTo(srCode);
+                if (cmp < 0) low = mid + 1;
+                else if (cmp > 0) high = mid - 1;
+                else return mid;
+            }
+            return -1;
+        }
+        
+        Student student(int position) {
+            ByteBuffer in = buffer.duplicate();
+            in.position((int) buffer.getLong(indexOffset + position * 12 + Integer.BYTES));
+            int length = in.getInt();
+            in.limit(in.position() + length);
+            return Student.readBinary(in.slice(), this);
+        }
+        
+        int gradeCount(int position) {
+            ByteBuffer in = buffer.duplicate();
+            in.position((int) buffer.getLong(indexOffset + position * 12 + Integer.BYTES) + Integer.BYTES);
+            return Student.countGrades(in);
+        }
+        
+        Map<String, Course> courses() {
+            ByteBuffer in = buffer.duplicate();
+            in.position(coursesOffset);
+            int count = in.getInt();
+            Map<String, Course> courses = new ConcurrentHashMap<>();
+            for (int i = 0; i < count; i++) {
+                int length = in.getInt();
+                ByteBuffer record = in.slice();
+                record.limit(length);
+                Course course = Course.readBinary(record, this);
+                courses.put(course.getCode(), course);
+                in.position(in.position() + length);
+            }
+            return courses;
+        }
+        
+        // studentIds maps index positions to Symbols.STUDENTS ids; with null the
+        // SR codes of each course are read and interned on first use of its roster
+        Map<String, Roster> enrollments(int[] studentIds) {
+            ByteBuffer in = buffer.duplicate();
+            in.position(enrollmentsOffset);
+            int count = in.getInt();
+            Map<String, Roster> enrollments = new ConcurrentHashMap<>();
+            for (int i = 0; i < count; i++) {
+                String courseCode = symbol(in.getInt());
+                int size = in.getInt();
+                if (studentIds == null) {
+                    enrollments.put(courseCode, new SnapshotRoster(this, in.position(), size));
+                    in.position(in.position() + size * Integer.BYTES);
+                    continue;
+                }
+                Roster roster = new Roster(size);
+                for (int j = 0; j < size; j++) {
+                    roster.add(studentIds[in.getInt()]);
+                }
+                enrollments.put(courseCode, roster);
+            }
+            return enrollments;
+        }
+        
+        int getInt(int offset) {
+            return buffer.getInt(offset);
+        }
+    }
+    
+    // Roster that knows its size from the snapshot and interns the SR codes when first read
+    private static class SnapshotRoster extends Roster {
+        private final Decoder snapshot;
+        private final int offset;
+        private final int snapshotSize;
+        private volatile boolean resolved;
+        
+        SnapshotRoster(Decoder snapshot, int offset, int snapshotSize) {
+            super(snapshotSize);
+            this.snapshot = snapshot;
+            this.offset = offset;
+            this.snapshotSize = snapshotSize;
+        }
+        
+        @Override
+        protected void resolve() {
+            if (resolved) return;
+            synchronized (this) {
+                if (resolved) return;
+                for (int i = 0; i < snapshotSize; i++) {
+                    String srCode = snapshot.key(snapshot.getInt(offset + i * Integer.BYTES));
+                    insert(Symbols.STUDENTS.intern(srCode));
+                }
+                resolved = true;
+            }
+        }
+        
+        @Override
+        public int size() {
+            return resolved ? super.size() : snapshotSize;
+        }
+    }
+    
+    // Buffered writer over a FileChannel
+    private static class ChannelOutput {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final CRC32C crc = new CRC32C();
+        private long written;
+        
+        ChannelOutput(FileChannel channel) {
+            this.channel = channel;
+        }
+        
+        long position() {
+            return written + buffer.position();
+        }
+        
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+        
+        void putShort(short value) throws IOException {
+            ensure(Short.BYTES);
+            buffer.putShort(value);
+        }
+        
+        void putInt(int value) throws IOException {
+            ensure(Integer.BYTES);
+            buffer.putInt(value);
+        }
+        
+        void putLong(long value) throws IOException {
+            ensure(Long.BYTES);
+            buffer.putLong(value);
+        }
+        
+        void putString(String value) throws IOException {
+            byte[] bytes = utf8(value);
+            putShort((short) bytes.length);
+            putBytes(ByteBuffer.wrap(bytes));
+        }
+        
+        void putRecord(Encoder record) throws IOException {
+            ByteBuffer bytes = record.buffer.duplicate();
+            bytes.flip();
+            putInt(bytes.remaining());
+            putBytes(bytes);
+        }
+        
+        private void putBytes(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                if (!buffer.hasRemaining()) flush();
+                int chunk = Math.min(bytes.remaining(), buffer.remaining());
+                ByteBuffer slice = bytes.duplicate();
+                slice.limit(slice.position() + chunk);
+                buffer.put(slice);
+                bytes.position(bytes.position() + chunk);
+            }
+        }
+        
+        long checksum() {
+            return crc.getValue();
+        }
+        
+        void flush() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
\ No newline at end of file
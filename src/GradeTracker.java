@@ -1,55 +1,649 @@
 import java.util.*;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 public class GradeTracker {
-    private Map<String, Student> students;
-    private Map<String, Course> courses;
-    private Map<String, List<String>> courseEnrollments;
+    // Single-file snapshot written before the segmented store; migrated on first save
+    private static final String SNAPSHOT_FILE = "grades.snapshot";
+    private static final String STORE_DIR = "store";
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final long JOURNAL_COMPACT_BYTES = 8L * 1024 * 1024;
+    // Grades applied per round of stripe locks in addGrades
+    private static final int BATCH_LOCK_CHUNK = 256;
+    
+    // The top-level maps stay keyed by SR-code and course code: the store's
+    // shards, LazyStudentMap's mapped index and the journal all find records
+    // by those strings. Symbol ids take over below this level (course records,
+    // rosters, grade columns), so one operation pays one string lookup per key
+    // here besides the interning.
+    private volatile Map<String, Student> students;
+    private volatile Map<String, Course> courses;
+    // Course -> enrolled student ids (Symbols.STUDENTS) in enrollment order; the
+    // student -> course side of the index is each Student's own course records
+    private volatile Map<String, Roster> courseEnrollments;
+    private boolean lazyLoading = true;
+    // Built on the first search and kept current by addStudent/addCourse; dropped on load
+    private volatile SearchIndex<Student> studentIndex;
+    private volatile SearchIndex<Course> courseIndex;
+    private volatile GradeJournal journal;
+    // Also tracks which segments changed since the last save
+    private final SegmentedStore store = new SegmentedStore(Paths.get("data", STORE_DIR));
+    
+    // Grade entry and enrollment only lock the stripes of the student/course they
+    // touch; saving and loading lock every stripe to see a consistent state
+    private final LockStripes studentLocks = new LockStripes(64);
+    private final LockStripes courseLocks = new LockStripes(16);
+    // One save or load at a time; taken before the stripes. A save holds the
+    // stripes only while it copies what changed, and writes after releasing them.
+    private final ReentrantLock saveLock = new ReentrantLock();
+    // Mutations so far, and how many of them the store had at the last save
+    private final LongAdder changes = new LongAdder();
+    // Grades across every student, counted once on load and kept current by
+    // each add, so the gauge reads it without walking the students
+    private final LongAdder gradeCount = new LongAdder();
+    private volatile long savedChanges;
+    // System.nanoTime() of the first change not in the store yet, 0 when none
+    private volatile long oldestChange;
+    private volatile long lastSavePauseNanos;
+    // Journal position the store's current generation covers (0 when the state
+    // did not come from the store). Written under saveLock. A save keeps the records
+    // after it, so if the new generation later fails verification, load falls
+    // back to this one and the journal still replays everything since.
+    private volatile long storedJournalPosition;
+    private final List<GradeListener> listeners = new CopyOnWriteArrayList<>();
+    
+    // One timer per public operation, named after the method. Lookups and
+    // getters are not timed: the clock reads would cost more than they do.
+    private final Metrics metrics = new Metrics();
+    private final Metrics.Timer addStudentTimer = metrics.timer("addStudent");
+    private final Metrics.Timer addCourseTimer = metrics.timer("addCourse");
+    private final Metrics.Timer setCourseWeightsTimer = metrics.timer("setCourseWeights");
+    private final Metrics.Timer setCourseTermTimer = metrics.timer("setCourseTerm");
+    private final Metrics.Timer enrollStudentTimer = metrics.timer("enrollStudent");
+    private final Metrics.Timer addGradeTimer = metrics.timer("addGrade");
+    private final Metrics.Timer addGradesTimer = metrics.timer("addGrades");
+    private final Metrics.Timer addImportedGradesTimer = metrics.timer("addImportedGrades");
+    private final Metrics.Timer readStudentTimer = metrics.timer("readStudent");
+    private final Metrics.Timer writeStudentReportTimer = metrics.timer("writeStudentReport");
+    private final Metrics.Timer writeCourseReportTimer = metrics.timer("writeCourseReport");
+    private final Metrics.Timer appendCourseReportTimer = metrics.timer("appendCourseReport");
+    private final Metrics.Timer getCourseStatisticsTimer = metrics.timer("getCourseStatistics");
+    private final Metrics.Timer getAllCourseStatisticsTimer = metrics.timer("getAllCourseStatistics");
+    private final Metrics.Timer writeCurrentGradeTimer = metrics.timer("writeCurrentGrade");
+    private final Metrics.Timer writeGradePredictionTimer = metrics.timer("writeGradePrediction");
+    private final Metrics.Timer predictCourseTimer = metrics.timer("predictCourse");
+    private final Metrics.Timer writeCoursePredictionTimer = metrics.timer("writeCoursePrediction");
+    private final Metrics.Timer writeAllCoursesTimer = metrics.timer("writeAllCourses");
+    private final Metrics.Timer writeAllStudentsTimer = metrics.timer("writeAllStudents");
+    private final Metrics.Timer writeDatabaseOverviewTimer = metrics.timer("writeDatabaseOverview");
+    private final Metrics.Timer findCoursesTimer = metrics.timer("findCourses");
+    private final Metrics.Timer findStudentsTimer = metrics.timer("findStudents");
+    private final Metrics.Timer saveAllDataTimer = metrics.timer("saveAllData");
+    private final Metrics.Timer loadAllDataTimer = metrics.timer("loadAllData");
+    private final Metrics.Timer exportCsvTimer = metrics.timer("exportCsv");
+    private final Metrics.Timer exportGradeColumnsTimer = metrics.timer("exportGradeColumns");
+    private final Metrics.Timer writeStudentReportFileTimer = metrics.timer("writeStudentReportFile");
+    private final Metrics.Timer appendStudentReportFileTimer = metrics.timer("appendStudentReportFile");
+    // The failures that are otherwise only an ERROR line on the console
+    private final Metrics.Counter journalErrors = metrics.counter("journal_errors", "Journal writes or syncs that failed");
+    private final Metrics.Counter saveErrors = metrics.counter("save_errors", "Saves and journal compactions that failed");
+    private final Metrics.Counter loadErrors = metrics.counter("load_errors", "Loads that failed");
     
     public GradeTracker() {
-        this.students = new HashMap<>();
-        this.courses = new HashMap<>();
-        this.courseEnrollments = new HashMap<>();
+        this.students = new ShardedStudentMap(SegmentedStore.SHARDS);
+        this.courses = new ConcurrentHashMap<>();
+        this.courseEnrollments = new ConcurrentHashMap<>();
+        
+        metrics.gauge("students", "Students in the tracker", this::getStudentCount);
+        metrics.gauge("courses", "Courses in the tracker", this::getCourseCount);
+        metrics.gauge("enrollments", "Enrollments across every course", this::getTotalEnrollments);
+        metrics.gauge("grades", "Grades across every student", gradeCount::sum);
+        metrics.gauge("heap_used_bytes", "Java heap in use", GradeTracker::heapUsed);
+        metrics.gauge("heap_bytes_per_student", "Java heap in use divided by the student count",
+            () -> heapUsed() / Math.max(1, getStudentCount()));
+        metrics.gauge("unsaved_changes", "Changes in the journal but not yet in the store", this::getUnsavedChanges);
+        metrics.gauge("unsaved_age_seconds", "Age of the oldest unsaved change", () -> getUnsavedMillis() / 1e3);
+        metrics.gauge("last_save_pause_seconds", "How long the last save blocked grade entry",
+            () -> getLastSavePauseNanos() / 1e9);
+        metrics.gauge("journal_bytes", "Size of the journal", () -> {
+            GradeJournal log = journal;
+            return log != null ? log.size() : 0;
+        });
+    }
+    
+    public Metrics getMetrics() {
+        return metrics;
+    }
+    
+    private static double heapUsed() {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
     }
     
     public boolean addStudent(String srCode, String name, String major) {
-        if(students.containsKey(srCode)) {
-            return false;
+        long start = System.nanoTime();
+        try {
+            GradeJournal log = journal;
+            long journalPosition = 0;
+            Lock lock = studentLocks.forKey(srCode).writeLock();
+            lock.lock();
+            try {
+                if(students.containsKey(srCode)) {
+                    return false;
+                }
+                Student student = new Student(srCode, name, major);
+                students.put(srCode, student);
+                store.studentChanged(srCode);
+                changed();
+                SearchIndex<Student> index = studentIndex;
+                if (index != null) index.add(srCode, student, srCode, name, major);
+                if (log != null) journalPosition = log.appendStudent(srCode, name, major);
+            } catch (IOException e) {
+                journalFailed(e);
+            } finally {
+                lock.unlock();
+            }
+            awaitJournal(log, journalPosition);
+            return true;
+        } finally {
+            addStudentTimer.recordSince(start);
         }
-        students.put(srCode, new Student(srCode, name, major));
-        return true;
     }
     
     public void addCourse(String code, String name, int credits, int weightScheme) {
-        courses.put(code, new Course(code, name, credits, weightScheme));
-        courseEnrollments.putIfAbsent(code, new ArrayList<>());
+        putCourse(code, name, credits, weightScheme, true);
     }
     
-    public boolean enrollStudent(String studentId, String courseCode) {
-        if(!students.containsKey(studentId) || !courses.containsKey(courseCode)) {
-            return false;
+    // Adds the course unless one with the code exists; the check and the add
+    // happen under the course's lock, so of two concurrent adds only one wins
+    public boolean addCourseIfAbsent(String code, String name, int credits, int weightScheme) {
+        return putCourse(code, name, credits, weightScheme, false);
+    }
+    
+    private boolean putCourse(String code, String name, int credits, int weightScheme, boolean replace) {
+        long start = System.nanoTime();
+        try {
+            GradeJournal log = journal;
+            long journalPosition = 0;
+            Lock lock = courseLocks.forKey(code).writeLock();
+            lock.lock();
+            try {
+                if (!replace && courses.containsKey(code)) return false;
+                Course course = new Course(code, name, credits, weightScheme);
+                courses.put(code, course);
+                SearchIndex<Course> index = courseIndex;
+                if (index != null) index.add(code, course, code, name);
+                if (courseEnrollments.putIfAbsent(code, new Roster()) == null) store.enrollmentsChanged();
+                store.coursesChanged();
+                changed();
+                if (log != null) journalPosition = log.appendCourse(code, name, credits, weightScheme);
+            } catch (IOException e) {
+                journalFailed(e);
+            } finally {
+                lock.unlock();
+            }
+            awaitJournal(log, journalPosition);
+            return true;
+        } finally {
+            addCourseTimer.recordSince(start);
         }
-        
-        students.get(studentId).enrollInCourse(courseCode);
-        if(!courseEnrollments.get(courseCode).contains(studentId)) {
-            courseEnrollments.get(courseCode).add(studentId);
+    }
+    
+    // Defines the course's weight scheme, e.g. for a course created with the
+    // custom scheme (3). Grades cached under the old scheme are recomputed on next read.
+    public boolean setCourseWeights(String courseCode, Map<String, Double> weights) {
+        long start = System.nanoTime();
+        try {
+            if (weights.isEmpty()) {
+                System.out.println("ERROR: A weight scheme needs at least one category!");
+                return false;
+            }
+            double total = 0.0;
+            for (double weight : weights.values()) {
+                if (!(weight >= 0) || Double.isInfinite(weight)) {
+                    System.out.println("ERROR: Weights must be zero or positive numbers!");
+                    return false;
+                }
+                total += weight;
+            }
+            if (total <= 0) {
+                System.out.println("ERROR: At least one weight must be positive!");
+                return false;
+            }
+            
+            GradeJournal log = journal;
+            long journalPosition = 0;
+            Lock lock = courseLocks.forKey(courseCode).writeLock();
+            lock.lock();
+            try {
+                Course course = courses.get(courseCode);
+                if (course == null) {
+                    return false;
+                }
+                course.setWeights(weights);
+                store.coursesChanged();
+                changed();
+                if (log != null) journalPosition = log.appendWeights(courseCode, course.getWeights());
+            } catch (IOException e) {
+                journalFailed(e);
+            } finally {
+                lock.unlock();
+            }
+            awaitJournal(log, journalPosition);
+            publishCourseChange(courseCode, GradeEvent.Type.WEIGHTS_CHANGED);
+            return true;
+        } finally {
+            setCourseWeightsTimer.recordSince(start);
+        }
+    }
+    
+    public boolean setCourseTerm(String courseCode, String term) {
+        long start = System.nanoTime();
+        try {
+            GradeJournal log = journal;
+            long journalPosition = 0;
+            Lock lock = courseLocks.forKey(courseCode).writeLock();
+            lock.lock();
+            try {
+                Course course = courses.get(courseCode);
+                if (course == null) {
+                    return false;
+                }
+                course.setTerm(term);
+                store.coursesChanged();
+                changed();
+                if (log != null) journalPosition = log.appendTerm(courseCode, term);
+            } catch (IOException e) {
+                journalFailed(e);
+            } finally {
+                lock.unlock();
+            }
+            awaitJournal(log, journalPosition);
+            publishCourseChange(courseCode, GradeEvent.Type.TERM_CHANGED);
+            return true;
+        } finally {
+            setCourseTermTimer.recordSince(start);
+        }
+    }
+    
+    // One event per enrolled student. Student locks are taken after the course
+    // lock is released, in the same order as enrollStudent.
+    private void publishCourseChange(String courseCode, GradeEvent.Type type) {
+        Course course = courses.get(courseCode);
+        if (listeners.isEmpty() || course == null) return;
+        for (String studentId : enrolledIn(courseCode)) {
+            Lock studentLock = studentLocks.forKey(studentId).readLock();
+            studentLock.lock();
+            try {
+                Student student = students.get(studentId);
+                if (student != null) publish(type, student, course);
+            } finally {
+                studentLock.unlock();
+            }
+        }
+    }
+    
+    // Subscribes the listener and sends it the current state as REPLAYED
+    // events. Events are idempotent, so a change racing the replay at worst
+    // arrives twice.
+    public void addListener(GradeListener listener) {
+        listeners.add(listener);
+        replayState(listener);
+    }
+    
+    public void removeListener(GradeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    private void replayState(GradeListener listener) {
+        for (Student student : students.values()) {
+            Lock lock = studentLocks.forKey(student.getSrCode()).readLock();
+            lock.lock();
+            try {
+                for (int k = 0; k < student.getEnrolledCount(); k++) {
+                    Course course = courses.get(Symbols.COURSES.symbol(student.getEnrolledCourseId(k)));
+                    if (course != null) notify(listener, gradeEvent(GradeEvent.Type.REPLAYED, student, course));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+    
+    // Called with the student's lock held
+    private void publish(GradeEvent.Type type, Student student, Course course) {
+        if (listeners.isEmpty()) return;
+        GradeEvent event = gradeEvent(type, student, course);
+        for (GradeListener listener : listeners) {
+            notify(listener, event);
+        }
+    }
+    
+    private static GradeEvent gradeEvent(GradeEvent.Type type, Student student, Course course) {
+        double grade = student.hasGrades(course) ? student.getCourseGrade(course) : Double.NaN;
+        return new GradeEvent(type, student.getSrCode(), course.getCode(), course.getCredits(), grade);
+    }
+    
+    // A failing listener must not undo or block the change that was already made
+    private static void notify(GradeListener listener, GradeEvent event) {
+        try {
+            listener.gradeChanged(event);
+        } catch (RuntimeException e) {
+            System.out.println("ERROR: Grade listener failed: " + e);
+        }
+    }
+    
+    public boolean enrollStudent(String studentId, String courseCode) {
+        long start = System.nanoTime();
+        try {
+            GradeJournal log = journal;
+            long journalPosition = 0;
+            Lock studentLock = studentLocks.forKey(studentId).writeLock();
+            Lock courseLock = courseLocks.forKey(courseCode).writeLock();
+            studentLock.lock();
+            courseLock.lock();
+            try {
+                Student student = students.get(studentId);
+                Course course = courses.get(courseCode);
+                if(student == null || course == null) {
+                    return false;
+                }
+                
+                student.enrollInCourse(course.getId());
+                if (courseEnrollments.get(courseCode).add(student.getId())) store.enrollmentsChanged();
+                store.studentChanged(studentId);
+                changed();
+                publish(GradeEvent.Type.ENROLLED, student, course);
+                if (log != null) journalPosition = log.appendEnrollment(studentId, courseCode);
+            } catch (IOException e) {
+                journalFailed(e);
+            } finally {
+                courseLock.unlock();
+                studentLock.unlock();
+            }
+            awaitJournal(log, journalPosition);
+            return true;
+        } finally {
+            enrollStudentTimer.recordSince(start);
         }
-        return true;
     }
     
     public boolean addGrade(String studentId, String courseCode, String assignmentType, 
                            String assignmentName, double grade) {
-        if(!students.containsKey(studentId) || !courses.containsKey(courseCode)) {
-            return false;
+        long start = System.nanoTime();
+        try {
+            Course course = courses.get(courseCode);
+            if(course == null) {
+                return false;
+            }
+            
+            if(!(grade >= 0 && grade <= 100)) {
+                System.out.println("ERROR: Grade must be between 0 and 100!");
+                return false;
+            }
+            
+            GradeJournal log = journal;
+            long journalPosition = 0;
+            Lock lock = studentLocks.forKey(studentId).writeLock();
+            lock.lock();
+            try {
+                Student student = students.get(studentId);
+                if (student == null || !student.isEnrolledIn(course.getId())) {
+                    return false;
+                }
+                // Interned only for a grade that lands, so rejects never add symbols
+                student.addGrade(course.getId(), Symbols.CATEGORIES.intern(assignmentType),
+                    Symbols.ASSIGNMENT_NAMES.intern(assignmentName), grade);
+                gradeCount.increment();
+                store.studentChanged(studentId);
+                changed();
+                publish(GradeEvent.Type.GRADE_ADDED, student, course);
+                if (log != null) {
+                    journalPosition = log.appendGrade(studentId, courseCode, assignmentType, assignmentName, grade);
+                }
+            } catch (IOException e) {
+                journalFailed(e);
+            } finally {
+                lock.unlock();
+            }
+            awaitJournal(log, journalPosition);
+            return true;
+        } finally {
+            addGradeTimer.recordSince(start);
         }
-        
-        if(grade < 0 || grade > 100) {
-            System.out.println("ERROR: Grade must be between 0 and 100!");
-            return false;
+    }
+    
+    // Enters one assignment for many students. The course, its weights and the
+    // assignment name are resolved once and grades are range-checked in a
+    // single pass. Entries are then applied in batch order, a chunk at a time:
+    // the stripes a chunk touches are locked once each, in stripe order like
+    // lockAll, instead of one lock round trip per grade. The journal is synced
+    // once for the whole batch.
+    public GradeBatch.Result addGrades(GradeBatch batch) {
+        long start = System.nanoTime();
+        try {
+            int size = batch.size();
+            GradeBatch.Result result = new GradeBatch.Result(size);
+            Course course = courses.get(batch.getCourseCode());
+            GradeBatch.Reason rejected = null;
+            if (course == null) {
+                rejected = GradeBatch.Reason.UNKNOWN_COURSE;
+            } else if (!course.hasAssignmentType(batch.getAssignmentType())) {
+                rejected = GradeBatch.Reason.UNKNOWN_ASSIGNMENT_TYPE;
+            }
+            if (rejected != null) {
+                for (int i = 0; i < size; i++) {
+                    result.failed(batch, i, rejected);
+                }
+                return result;
+            }
+            
+            int[] stripeOf = new int[size];
+            for (int i = 0; i < size; i++) {
+                double grade = batch.grade(i);
+                if (grade >= 0 && grade <= 100) {
+                    stripeOf[i] = studentLocks.indexFor(batch.studentId(i));
+                } else {
+                    result.failed(batch, i, GradeBatch.Reason.GRADE_OUT_OF_RANGE);
+                    stripeOf[i] = -1;
+                }
+            }
+            
+            GradeJournal log = journal;
+            String courseCode = batch.getCourseCode();
+            String assignmentType = batch.getAssignmentType();
+            String assignmentName = batch.getAssignmentName();
+            int courseId = course.getId();
+            // Interned on the first grade that lands, not for a batch that is all rejects
+            int categoryId = -1;
+            int assignmentNameId = -1;
+            boolean[] locked = new boolean[studentLocks.size()];
+            for (int from = 0; from < size; from += BATCH_LOCK_CHUNK) {
+                int to = Math.min(from + BATCH_LOCK_CHUNK, size);
+                for (int i = from; i < to; i++) {
+                    if (stripeOf[i] >= 0) locked[stripeOf[i]] = true;
+                }
+                for (int stripe = 0; stripe < locked.length; stripe++) {
+                    if (locked[stripe]) studentLocks.get(stripe).writeLock().lock();
+                }
+                try {
+                    for (int i = from; i < to; i++) {
+                        if (stripeOf[i] < 0) continue;
+                        Student student = students.get(batch.studentId(i));
+                        if (student == null) {
+                            result.failed(batch, i, GradeBatch.Reason.UNKNOWN_STUDENT);
+                            continue;
+                        }
+                        if (!student.isEnrolledIn(courseId)) {
+                            result.failed(batch, i, GradeBatch.Reason.NOT_ENROLLED);
+                            continue;
+                        }
+                        if (categoryId < 0) {
+                            categoryId = Symbols.CATEGORIES.intern(assignmentType);
+                            assignmentNameId = Symbols.ASSIGNMENT_NAMES.intern(assignmentName);
+                        }
+                        student.addGrade(courseId, categoryId, assignmentNameId, batch.grade(i));
+                        gradeCount.increment();
+                        result.applied();
+                        store.studentChanged(batch.studentId(i));
+                        changed();
+                        publish(GradeEvent.Type.GRADE_ADDED, student, course);
+                        if (log != null) {
+                            try {
+                                log.appendGrade(batch.studentId(i), courseCode, assignmentType, assignmentName, batch.grade(i));
+                            } catch (IOException e) {
+                                journalFailed(e);
+                            }
+                        }
+                    }
+                } finally {
+                    for (int stripe = locked.length - 1; stripe >= 0; stripe--) {
+                        if (locked[stripe]) studentLocks.get(stripe).writeLock().unlock();
+                        locked[stripe] = false;
+                    }
+                }
+            }
+            result.sortFailures();
+            
+            if (log != null && result.getApplied() > 0) {
+                try {
+                    log.sync();
+                } catch (IOException e) {
+                    journalFailed(e);
+                }
+                compactJournalIfNeeded();
+            }
+            return result;
+        } finally {
+            addGradesTimer.recordSince(start);
+        }
+    }
+    
+    // Validates and applies one parsed import chunk; the journal is synced once per chunk
+    void addImportedGrades(List<GradeImporter.Row> rows, GradeImporter.Result result) {
+        long start = System.nanoTime();
+        try {
+            GradeJournal log = journal;
+            // A chunk repeats a handful of course codes thousands of times
+            Map<String, Course> chunkCourses = new HashMap<>();
+            for (GradeImporter.Row row : rows) {
+                if (row.error != null) {
+                    result.rejected(row, row.error);
+                    continue;
+                }
+                
+                Course course = chunkCourses.get(row.courseCode);
+                if (course == null) {
+                    course = courses.get(row.courseCode);
+                    if (course != null) chunkCourses.put(row.courseCode, course);
+                }
+                if (course == null) {
+                    result.rejected(row, "Course " + row.courseCode + " does not exist");
+                    continue;
+                }
+                if (!course.hasAssignmentType(row.assignmentType)) {
+                    result.rejected(row, "Assignment type " + row.assignmentType + " does not exist for this course");
+                    continue;
+                }
+                
+                Lock lock = studentLocks.forKey(row.studentId).writeLock();
+                lock.lock();
+                try {
+                    Student student = students.get(row.studentId);
+                    if (student == null) {
+                        result.rejected(row, "Student " + row.studentId + " does not exist");
+                        continue;
+                    }
+                    if (!student.addGrade(row.courseCode, row.assignmentType, row.assignmentName, row.grade)) {
+                        result.rejected(row, "Student " + row.studentId + " is not enrolled in course " + row.courseCode);
+                        continue;
+                    }
+                    gradeCount.increment();
+                    result.imported();
+                    store.studentChanged(row.studentId);
+                    changed();
+                    publish(GradeEvent.Type.GRADE_ADDED, student, course);
+                    if (log != null) {
+                        log.appendGrade(row.studentId, row.courseCode, row.assignmentType, row.assignmentName, row.grade);
+                    }
+                } catch (IOException e) {
+                    journalFailed(e);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            
+            if (log != null) {
+                try {
+                    log.sync();
+                } catch (IOException e) {
+                    journalFailed(e);
+                }
+                compactJournalIfNeeded();
+            }
+        } finally {
+            addImportedGradesTimer.recordSince(start);
+        }
+    }
+    
+    // Waits for the journal record outside any stripe lock, so one fsync can
+    // release many writers (group commit)
+    private void awaitJournal(GradeJournal log, long journalPosition) {
+        if (log == null || journalPosition == 0) return;
+        try {
+            log.awaitDurable(journalPosition);
+        } catch (IOException e) {
+            journalFailed(e);
+        }
+        compactJournalIfNeeded();
+    }
+    
+    // Counts a mutation for getUnsavedChanges; called under the lock of what changed
+    private void changed() {
+        changes.increment();
+        if (oldestChange == 0) oldestChange = System.nanoTime();
+    }
+    
+    // The change is applied in memory but may not survive a crash until the next save
+    private void journalFailed(IOException e) {
+        journalErrors.increment();
+        System.out.println("ERROR writing journal: " + e.getMessage());
+    }
+    
+    // Folds the journal into the store once the threshold has been appended
+    // since the last store write. The file also holds the records back to the
+    // fallback generation, so its size would re-trigger right after a save.
+    // A save already running trims the journal itself, so this one is skipped.
+    private void compactJournalIfNeeded() {
+        GradeJournal log = journal;
+        if (log == null || log.getPosition() - storedJournalPosition < JOURNAL_COMPACT_BYTES) return;
+        if (!saveLock.tryLock()) return;
+        try {
+            if (log.getPosition() - storedJournalPosition >= JOURNAL_COMPACT_BYTES) writeStore(false);
+        } catch (IOException e) {
+            saveErrors.increment();
+            System.out.println("ERROR compacting journal: " + e.getMessage());
+        } finally {
+            saveLock.unlock();
         }
-        
-        return students.get(studentId).addGrade(courseCode, assignmentType, assignmentName, grade);
+    }
+    
+    public Student getStudent(String studentId) {
+        return students.get(studentId);
+    }
+    
+    public Course getCourse(String courseCode) {
+        return courses.get(courseCode);
     }
     
     public List<String> getAssignmentTypes(String courseCode) {
@@ -59,336 +653,907 @@ public class GradeTracker {
         return new ArrayList<>();
     }
     
-    public void displayStudentReport(String studentId) {
-        if(!students.containsKey(studentId)) {
-            System.out.println("ERROR: Student not found!");
-            return;
+    public int getStudentCount() {
+        return students.size();
+    }
+    
+    public int getCourseCount() {
+        return courses.size();
+    }
+    
+    public List<String> getStudentIds() {
+        return new ArrayList<>(students.keySet());
+    }
+    
+    public List<String> getCourseCodes() {
+        return new ArrayList<>(courses.keySet());
+    }
+    
+    // One page of keys in map order, without copying the whole key set
+    public List<String> getStudentIds(int offset, int limit) {
+        return page(students.keySet(), offset, limit);
+    }
+    
+    public List<String> getCourseCodes(int offset, int limit) {
+        return page(courses.keySet(), offset, limit);
+    }
+    
+    private static List<String> page(Set<String> keys, int offset, int limit) {
+        List<String> page = new ArrayList<>(Math.min(Math.max(limit, 0), 1024));
+        Iterator<String> iterator = keys.iterator();
+        for (int skipped = 0; skipped < offset && iterator.hasNext(); skipped++) {
+            iterator.next();
         }
-        
-        Student student = students.get(studentId);
-        System.out.println("\nSTUDENT REPORT: " + student.getName() + " (" + student.getSrCode() + ")");
-        System.out.println("Major: " + student.getMajor());
-        System.out.println("=" .repeat(50));
-        
-        List<String> enrolledCourses = student.getEnrolledCourses();
-        if(enrolledCourses.isEmpty()) {
-            System.out.println("No courses enrolled.");
-            return;
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
         }
-        
-        for(String courseCode : enrolledCourses) {
-            Course course = courses.get(courseCode);
-            if(course != null) {
-                double grade = student.getCourseGrade(courseCode, course.getWeights());
-                String letterGrade = student.getGradeLetter(grade);
-                
-                System.out.printf("\n%s - %s (%.2f%% %s)%n", 
-                    courseCode, course.getName(), grade, letterGrade);
-                
-                Map<String, List<Double>> assignments = student.getCourseGrades().get(courseCode);
-                for(String assignmentType : assignments.keySet()) {
-                    List<Double> grades = assignments.get(assignmentType);
-                    double avg = grades.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-                    System.out.printf("   %s: %.2f%% (%d assignments)%n", 
-                        assignmentType, avg, grades.size());
+        return page;
+    }
+    
+    public List<String> getEnrolledStudents(String courseCode) {
+        return enrolledIn(courseCode);
+    }
+    
+    public int getEnrollmentCount(String courseCode) {
+        return enrollmentCount(courseCode);
+    }
+    
+    // Runs reader with the student's read lock held, so it sees no half-applied
+    // grade; false if there is no such student
+    public boolean readStudent(String studentId, Consumer<Student> reader) {
+        long start = System.nanoTime();
+        try {
+            Lock lock = studentLocks.forKey(studentId).readLock();
+            lock.lock();
+            try {
+                Student student = students.get(studentId);
+                if (student == null) return false;
+                reader.accept(student);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            readStudentTimer.recordSince(start);
+        }
+    }
+    
+    // Each display method renders to a buffered console writer; the write
+    // methods take any renderer so reports can go to files or batch output
+    public void displayStudentReport(String studentId) {
+        ReportRenderer out = ReportRenderer.console();
+        writeStudentReport(studentId, out);
+        out.flush();
+    }
+    
+    public boolean writeStudentReport(String studentId, ReportRenderer out) {
+        long start = System.nanoTime();
+        try {
+            Lock lock = studentLocks.forKey(studentId).readLock();
+            lock.lock();
+            try {
+                Student student = students.get(studentId);
+                if(student == null) {
+                    out.error("Student not found!");
+                    return false;
                 }
+                out.studentReport(student, courses);
+                return true;
+            } finally {
+                lock.unlock();
             }
+        } finally {
+            writeStudentReportTimer.recordSince(start);
         }
     }
     
     public void displayCourseReport(String courseCode) {
-        if(!courses.containsKey(courseCode)) {
-            System.out.println("ERROR: Course not found!");
-            return;
+        ReportRenderer out = ReportRenderer.console();
+        writeCourseReport(courseCode, out);
+        out.flush();
+    }
+    
+    public boolean writeCourseReport(String courseCode, ReportRenderer out) {
+        long start = System.nanoTime();
+        try {
+            StringBuilder report = new StringBuilder();
+            if (!renderCourseReport(courseCode, report)) {
+                out.error("Course not found!");
+                return false;
+            }
+            out.writer().append(report);
+            return true;
+        } finally {
+            writeCourseReportTimer.recordSince(start);
         }
-        
+    }
+    
+    public boolean appendCourseReport(String courseCode, StringBuilder out) {
+        long start = System.nanoTime();
+        try {
+            return renderCourseReport(courseCode, out);
+        } finally {
+            appendCourseReportTimer.recordSince(start);
+        }
+    }
+    
+    // Untimed, so writeCourseReport records one report once
+    private boolean renderCourseReport(String courseCode, StringBuilder out) {
         Course course = courses.get(courseCode);
-        System.out.println("\nCOURSE REPORT: " + course.getCode() + " - " + course.getName());
-        System.out.println("Credits: " + course.getCredits());
-        System.out.println("Enrolled Students: " + courseEnrollments.get(courseCode).size());
-        System.out.println("=" .repeat(50));
+        if(course == null) return false;
         
-        List<Double> allGrades = new ArrayList<>();
-        for(String studentId : courseEnrollments.get(courseCode)) {
+        List<String> enrolled = enrolledIn(courseCode);
+        ReportRenderer.appendCourseReportHeader(out, course, enrolled.size());
+        
+        double[] grades = new double[enrolled.size()];
+        int count = 0;
+        for(String studentId : enrolled) {
             Student student = students.get(studentId);
-            double grade = student.getCourseGrade(courseCode, course.getWeights());
-            allGrades.add(grade);
-            
-            System.out.printf("%s - %s: %.2f%% (%s)%n", 
-                student.getSrCode(), student.getName(), grade, student.getGradeLetter(grade));
+            if (student == null) continue;
+            double grade = courseGrade(student, course);
+            grades[count++] = grade;
+            ReportRenderer.appendCourseReportRow(out, student, grade);
         }
         
-        if(!allGrades.isEmpty()) {
-            double average = allGrades.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-            double max = allGrades.stream().mapToDouble(Double::doubleValue).max().orElse(0.0);
-            double min = allGrades.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
+        if(count > 0) {
+            ReportRenderer.appendCourseStatistics(out, CourseStatistics.of(courseCode, grades, count));
+        }
+        return true;
+    }
+    
+    public CourseStatistics getCourseStatistics(String courseCode) {
+        long start = System.nanoTime();
+        try {
+            Course course = courses.get(courseCode);
+            if (course == null) return null;
             
-            System.out.println("\nCOURSE STATISTICS:");
-            System.out.printf("Average: %.2f%% | Highest: %.2f%% | Lowest: %.2f%%%n", average, max, min);
+            CourseStatistics.Accumulator grades = new CourseStatistics.Accumulator();
+            for (String studentId : enrolledIn(courseCode)) {
+                Student student = students.get(studentId);
+                if (student != null) grades.add(courseGrade(student, course));
+            }
+            return grades.toStatistics(courseCode);
+        } finally {
+            getCourseStatisticsTimer.recordSince(start);
         }
     }
     
-    public void showGradePredictor(String studentId, String courseCode) {
-        if(!students.containsKey(studentId) || !courses.containsKey(courseCode)) {
-            System.out.println("ERROR: Student or course not found!");
-            return;
+    // Statistics for every course. Rosters point at students scattered across
+    // the heap, so grades are gathered in one pass over the students instead:
+    // student ranges are forked, their per-course buffers (indexed by course
+    // id) merged, and each course's statistics are then computed as a task of its own
+    public Map<String, CourseStatistics> getAllCourseStatistics() {
+        long start = System.nanoTime();
+        try {
+            List<Student> all = new ArrayList<>(students.values());
+            Course[] byId = new Course[Symbols.COURSES.size()];
+            for (Course course : courses.values()) {
+                if (course.getId() < byId.length) byId[course.getId()] = course;
+            }
+            CourseStatistics.Accumulator[] grades =
+                ForkJoinPool.commonPool().invoke(new GradeGatherTask(all, byId, 0, all.size()));
+            
+            List<String> codes = new ArrayList<>(courses.keySet());
+            List<RecursiveTask<CourseStatistics>> tasks = new ArrayList<>(codes.size());
+            for (String code : codes) {
+                Course course = courses.get(code);
+                CourseStatistics.Accumulator collected = course != null && course.getId() < grades.length
+                    ? grades[course.getId()] : null;
+                CourseStatistics.Accumulator courseGrades = collected != null ? collected : new CourseStatistics.Accumulator();
+                tasks.add(new RecursiveTask<CourseStatistics>() {
+                    @Override
+                    protected CourseStatistics compute() {
+                        return courseGrades.toStatistics(code);
+                    }
+                });
+            }
+            ForkJoinTask.invokeAll(tasks);
+            
+            Map<String, CourseStatistics> result = new LinkedHashMap<>();
+            for (int i = 0; i < codes.size(); i++) {
+                result.put(codes.get(i), tasks.get(i).join());
+            }
+            return result;
+        } finally {
+            getAllCourseStatisticsTimer.recordSince(start);
         }
+    }
+    
+    private class GradeGatherTask extends RecursiveTask<CourseStatistics.Accumulator[]> {
+        private static final long serialVersionUID = 1L;
+        private static final int THRESHOLD = 2048;
+        private final List<Student> students;
+        private final Course[] courses;
+        private final int from;
+        private final int to;
         
-        Student student = students.get(studentId);
-        Course course = courses.get(courseCode);
-        double currentGrade = student.getCourseGrade(courseCode, course.getWeights());
-        
-        System.out.println("\nGRADE PREDICTOR");
-        System.out.printf("Current Grade: %.2f%% (%s)%n", currentGrade, student.getGradeLetter(currentGrade));
-        
-        System.out.print("Enter final exam weight (as decimal, e.g., 0.3 for 30%): ");
-        Scanner sc = new Scanner(System.in);
-        double finalWeight = sc.nextDouble();
-        
-        System.out.print("Enter desired final course grade: ");
-        double desiredGrade = sc.nextDouble();
-        
-        double neededGrade = (desiredGrade - (currentGrade * (1 - finalWeight))) / finalWeight;
-        
-        System.out.printf("\nTo get %.1f%% in the course, you need: %.1f%% on the final%n", 
-            desiredGrade, neededGrade);
+        GradeGatherTask(List<Student> students, Course[] courses, int from, int to) {
+            this.students = students;
+            this.courses = courses;
+            this.from = from;
+            this.to = to;
+        }
         
-        if(neededGrade > 100) {
-            System.out.println("WARNING: This target may not be achievable!");
-        } else if(neededGrade < 0) {
-            System.out.println("SUCCESS: You've already achieved this grade!");
+        @Override
+        protected CourseStatistics.Accumulator[] compute() {
+            if (to - from > THRESHOLD) {
+                int mid = (from + to) >>> 1;
+                GradeGatherTask right = new GradeGatherTask(students, courses, mid, to);
+                right.fork();
+                CourseStatistics.Accumulator[] merged =
+                    new GradeGatherTask(students, courses, from, mid).compute();
+                CourseStatistics.Accumulator[] other = right.join();
+                for (int id = 0; id < merged.length; id++) {
+                    if (other[id] == null) continue;
+                    if (merged[id] == null) merged[id] = other[id];
+                    else merged[id].addAll(other[id]);
+                }
+                return merged;
+            }
+            
+            CourseStatistics.Accumulator[] grades = new CourseStatistics.Accumulator[courses.length];
+            for (int i = from; i < to; i++) {
+                Student student = students.get(i);
+                Lock lock = studentLocks.forKey(student.getSrCode()).readLock();
+                lock.lock();
+                try {
+                    for (int k = 0; k < student.getEnrolledCount(); k++) {
+                        int id = student.getEnrolledCourseId(k);
+                        Course course = id < courses.length ? courses[id] : null;
+                        if (course != null) {
+                            if (grades[id] == null) grades[id] = new CourseStatistics.Accumulator();
+                            grades[id].add(student.getCourseGrade(course));
+                        }
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return grades;
+        }
+    }
+    
+    // The grade predictor in two steps, so the caller can ask for the final
+    // exam weight and target after showing the current grade
+    public boolean writeCurrentGrade(String studentId, String courseCode, ReportRenderer out) {
+        long start = System.nanoTime();
+        try {
+            Student student = students.get(studentId);
+            Course course = courses.get(courseCode);
+            if(student == null || course == null) {
+                out.error("Student or course not found!");
+                return false;
+            }
+            out.currentGrade(student, courseGrade(student, course));
+            return true;
+        } finally {
+            writeCurrentGradeTimer.recordSince(start);
+        }
+    }
+    
+    public boolean writeGradePrediction(String studentId, String courseCode, double finalWeight,
+                                        double desiredGrade, ReportRenderer out) {
+        long start = System.nanoTime();
+        try {
+            Student student = students.get(studentId);
+            Course course = courses.get(courseCode);
+            if(student == null || course == null) {
+                out.error("Student or course not found!");
+                return false;
+            }
+            
+            double currentGrade = courseGrade(student, course);
+            double neededGrade = CoursePrediction.requiredFinal(currentGrade, finalWeight, desiredGrade);
+            out.gradePrediction(desiredGrade, neededGrade);
+            return true;
+        } finally {
+            writeGradePredictionTimer.recordSince(start);
+        }
+    }
+    
+    // The predictor for everyone enrolled in a course and every cut-off of the
+    // scale at once, from the cached course grades; null if there is no such course
+    public CoursePrediction predictCourse(String courseCode, double finalWeight, GradeScale scale) {
+        long start = System.nanoTime();
+        try {
+            Course course = courses.get(courseCode);
+            if (course == null) return null;
+            
+            List<String> enrolled = enrolledIn(courseCode);
+            String[] ids = new String[enrolled.size()];
+            String[] names = new String[ids.length];
+            double[] current = new double[ids.length];
+            int count = 0;
+            for (String studentId : enrolled) {
+                Student student = students.get(studentId);
+                if (student == null) continue;
+                ids[count] = studentId;
+                names[count] = student.getName();
+                current[count++] = courseGrade(student, course);
+            }
+            return new CoursePrediction(courseCode, finalWeight, scale, ids, names, current, count);
+        } finally {
+            predictCourseTimer.recordSince(start);
+        }
+    }
+    
+    public boolean writeCoursePrediction(String courseCode, double finalWeight, GradeScale scale, ReportRenderer out) {
+        long start = System.nanoTime();
+        try {
+            CoursePrediction prediction = predictCourse(courseCode, finalWeight, scale);
+            if (prediction == null) {
+                out.error("Course not found!");
+                return false;
+            }
+            out.coursePrediction(prediction);
+            return true;
+        } finally {
+            writeCoursePredictionTimer.recordSince(start);
         }
     }
     
     // Database viewing methods
     public void displayAllCourses() {
-        System.out.println("\n=== ALL COURSES IN DATABASE ===");
-        
-        if (courses.isEmpty()) {
-            System.out.println("No courses found in database.");
-            return;
+        ReportRenderer out = ReportRenderer.console();
+        writeAllCourses(out, false);
+        out.flush();
+    }
+    
+    public void displayAllCourseDetails() {
+        ReportRenderer out = ReportRenderer.console();
+        writeCourseDetails(out);
+        out.flush();
+    }
+    
+    public void writeAllCourses(ReportRenderer out, boolean details) {
+        long start = System.nanoTime();
+        try {
+            out.courseTableHeader();
+            if (courses.isEmpty()) {
+                out.writer().println("No courses found in database.");
+                return;
+            }
+            
+            out.courseTableColumns();
+            for (Course course : courses.values()) {
+                out.courseTableRow(course, enrollmentCount(course.getCode()));
+            }
+            if (details) writeCourseDetails(out);
+        } finally {
+            writeAllCoursesTimer.recordSince(start);
         }
-        
-        System.out.printf("%-12s %-25s %-8s %-15s%n", 
-            "Course Code", "Course Name", "Credits", "Enrolled Students");
-        System.out.println("-".repeat(65));
-        
+    }
+    
+    private void writeCourseDetails(ReportRenderer out) {
         for (Course course : courses.values()) {
-            int enrolledCount = courseEnrollments.getOrDefault(course.getCode(), new ArrayList<>()).size();
-            System.out.printf("%-12s %-25s %-8d %-15d%n",
-                course.getCode(), course.getName(), course.getCredits(), enrolledCount);
-        }
-        
-        System.out.print("\nShow detailed course information? (y/n): ");
-        Scanner sc = new Scanner(System.in);
-        if (sc.nextLine().equalsIgnoreCase("y")) {
-            for (Course course : courses.values()) {
-                displayCourseDetails(course);
+            List<Student> enrolledStudents = new ArrayList<>();
+            for (String studentId : enrolledIn(course.getCode())) {
+                Student student = students.get(studentId);
+                if (student != null) enrolledStudents.add(student);
             }
+            out.courseDetails(course, enrolledStudents);
         }
     }
     
     public void displayAllStudents() {
-        System.out.println("\n=== ALL STUDENTS IN DATABASE ===");
-        
-        if (students.isEmpty()) {
-            System.out.println("No students found in database.");
-            return;
+        ReportRenderer out = ReportRenderer.console();
+        writeAllStudents(out, false);
+        out.flush();
+    }
+    
+    public void displayAllStudentSummaries() {
+        ReportRenderer out = ReportRenderer.console();
+        writeStudentSummaries(out);
+        out.flush();
+    }
+    
+    public void writeAllStudents(ReportRenderer out, boolean details) {
+        long start = System.nanoTime();
+        try {
+            out.studentTableHeader();
+            if (students.isEmpty()) {
+                out.writer().println("No students found in database.");
+                return;
+            }
+            
+            out.studentTableColumns();
+            for (Student student : students.values()) {
+                out.studentTableRow(student, enrolledCourseCount(student));
+            }
+            if (details) writeStudentSummaries(out);
+        } finally {
+            writeAllStudentsTimer.recordSince(start);
         }
-        
-        System.out.printf("%-10s %-20s %-15s %-15s%n", 
-            "SR Code", "Name", "Major", "Enrolled Courses");
-        System.out.println("-".repeat(65));
-        
+    }
+    
+    private void writeStudentSummaries(ReportRenderer out) {
         for (Student student : students.values()) {
-            int courseCount = student.getEnrolledCourses().size();
-            System.out.printf("%-10s %-20s %-15s %-15d%n",
-                student.getSrCode(), student.getName(), student.getMajor(), courseCount);
-        }
-        
-        System.out.print("\nShow detailed student information? (y/n): ");
-        Scanner sc = new Scanner(System.in);
-        if (sc.nextLine().equalsIgnoreCase("y")) {
-            for (Student student : students.values()) {
-                displayStudentSummary(student);
+            Lock lock = studentLocks.forKey(student.getSrCode()).readLock();
+            lock.lock();
+            try {
+                out.studentSummary(student, courses);
+            } finally {
+                lock.unlock();
             }
         }
     }
     
     public void displayDatabaseOverview() {
-        System.out.println("\n=== DATABASE OVERVIEW ===");
-        System.out.println("Statistics:");
-        System.out.printf("  Total Students: %d%n", students.size());
-        System.out.printf("  Total Courses: %d%n", courses.size());
-        
-        int totalEnrollments = courseEnrollments.values().stream()
-            .mapToInt(List::size).sum();
-        System.out.printf("  Total Course Enrollments: %d%n", totalEnrollments);
-        
-        double avgCourses = students.isEmpty() ? 0 : (double) totalEnrollments / students.size();
-        System.out.printf("  Average Courses per Student: %.1f%n", avgCourses);
-        
-        System.out.println("\nMost Popular Courses:");
-        if (!courseEnrollments.isEmpty()) {
-            courseEnrollments.entrySet().stream()
-                .sorted((a, b) -> Integer.compare(b.getValue().size(), a.getValue().size()))
-                .limit(3)
-                .forEach(entry -> {
-                    Course course = courses.get(entry.getKey());
-                    if (course != null) {
-                        System.out.printf("  %s - %s (%d students)%n",
-                            course.getCode(), course.getName(), entry.getValue().size());
-                    }
-                });
+        ReportRenderer out = ReportRenderer.console();
+        writeDatabaseOverview(out);
+        out.flush();
+    }
+    
+    public void writeDatabaseOverview(ReportRenderer out) {
+        long start = System.nanoTime();
+        try {
+            Map<String, Integer> enrollmentCounts = new HashMap<>();
+            for (String courseCode : courseEnrollments.keySet()) {
+                enrollmentCounts.put(courseCode, enrollmentCount(courseCode));
+            }
+            out.databaseOverview(students.size(), courses, enrollmentCounts, getAllCourseStatistics());
+        } finally {
+            writeDatabaseOverviewTimer.recordSince(start);
         }
     }
     
-    private void displayCourseDetails(Course course) {
-        System.out.println("\n" + course.getCode() + " - " + course.getName());
-        System.out.println("  Credits: " + course.getCredits());
-        System.out.println("  Enrollment: " + 
-            courseEnrollments.getOrDefault(course.getCode(), new ArrayList<>()).size() + " students");
-        
-        System.out.println("  Grading Weights:");
-        for (Map.Entry<String, Double> weight : course.getWeights().entrySet()) {
-            System.out.printf("    %s: %.0f%%%n", weight.getKey(), weight.getValue() * 100);
+    // SR codes of a course's enrollment list, copied under the course's read lock
+    private List<String> enrolledIn(String courseCode) {
+        int[] ids;
+        Lock lock = courseLocks.forKey(courseCode).readLock();
+        lock.lock();
+        try {
+            Roster enrolled = courseEnrollments.get(courseCode);
+            if (enrolled == null) return new ArrayList<>();
+            ids = enrolled.toArray();
+        } finally {
+            lock.unlock();
         }
-        
-        List<String> enrolledStudents = courseEnrollments.get(course.getCode());
-        if (enrolledStudents != null && !enrolledStudents.isEmpty()) {
-            System.out.println("  Enrolled Students:");
-            for (String studentId : enrolledStudents) {
-                Student student = students.get(studentId);
-                if (student != null) {
-                    System.out.printf("    %s - %s%n", student.getSrCode(), student.getName());
-                }
-            }
+        List<String> studentIds = new ArrayList<>(ids.length);
+        for (int id : ids) {
+            studentIds.add(Symbols.STUDENTS.symbol(id));
         }
+        return studentIds;
     }
     
-    private void displayStudentSummary(Student student) {
-        System.out.println("\n" + student.getSrCode() + " - " + student.getName());
-        System.out.println("  Major: " + student.getMajor());
-        System.out.println("  Enrolled in " + student.getEnrolledCourses().size() + " courses:");
-        
-        for (String courseCode : student.getEnrolledCourses()) {
-            Course course = courses.get(courseCode);
-            if (course != null) {
-                double grade = student.getCourseGrade(courseCode, course.getWeights());
-                String letterGrade = student.getGradeLetter(grade);
-                System.out.printf("    %s: %.2f%% (%s)%n", 
-                    courseCode, grade, letterGrade);
-            }
+    private int enrollmentCount(String courseCode) {
+        Lock lock = courseLocks.forKey(courseCode).readLock();
+        lock.lock();
+        try {
+            Roster enrolled = courseEnrollments.get(courseCode);
+            return enrolled != null ? enrolled.size() : 0;
+        } finally {
+            lock.unlock();
         }
     }
     
-    public void searchDatabase() {
-        System.out.println("\n=== SEARCH DATABASE ===");
-        System.out.println("1. Search Courses");
-        System.out.println("2. Search Students");
-        System.out.print("Choose: ");
-        
-        Scanner sc = new Scanner(System.in);
-        int choice = sc.nextInt();
-        sc.nextLine();
-        
-        System.out.print("Enter search term: ");
-        String searchTerm = sc.nextLine().toLowerCase();
-        
-        switch (choice) {
-            case 1: searchCourses(searchTerm); break;
-            case 2: searchStudents(searchTerm); break;
-            default: System.out.println("ERROR: Invalid choice!");
+    private int getTotalEnrollments() {
+        int enrollments = 0;
+        for (String courseCode : courseEnrollments.keySet()) {
+            enrollments += enrollmentCount(courseCode);
+        }
+        return enrollments;
+    }
+    
+    // Called by load with every stripe held. Lazily loaded students are counted
+    // from their records, so loading does not decode the whole store.
+    private long countGrades() {
+        Map<String, Student> current = students;
+        if (!(current instanceof ShardedStudentMap)) return countGrades(current);
+        ShardedStudentMap sharded = (ShardedStudentMap) current;
+        long count = 0;
+        for (int s = 0; s < sharded.shardCount(); s++) {
+            Map<String, Student> shard = sharded.shard(s);
+            count += shard instanceof LazyStudentMap
+                ? ((LazyStudentMap) shard).countGrades(Student::getGradeCount)
+                : countGrades(shard);
+        }
+        return count;
+    }
+    
+    private long countGrades(Map<String, Student> shard) {
+        long count = 0;
+        for (Student student : shard.values()) {
+            count += student.getGradeCount();
         }
+        return count;
     }
     
-    private void searchCourses(String searchTerm) {
-        System.out.println("\nSEARCH RESULTS FOR COURSES:");
-        boolean found = false;
+    private int enrolledCourseCount(Student student) {
+        Lock lock = studentLocks.forKey(student.getSrCode()).readLock();
+        lock.lock();
+        try {
+            return student.getEnrolledCourses().size();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private double courseGrade(Student student, Course course) {
+        Lock lock = studentLocks.forKey(student.getSrCode()).readLock();
+        lock.lock();
+        try {
+            return student.getCourseGrade(course);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public SearchIndex.Page<Course> findCourses(String query, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return courseIndex().search(query, offset, limit);
+        } finally {
+            findCoursesTimer.recordSince(start);
+        }
+    }
+    
+    public SearchIndex.Page<Student> findStudents(String query, int offset, int limit) {
+        long start = System.nanoTime();
+        try {
+            return studentIndex().search(query, offset, limit);
+        } finally {
+            findStudentsTimer.recordSince(start);
+        }
+    }
+    
+    // Publishes the index before topping it up from the map once more, so a
+    // record added while the index was being built is not missed
+    private synchronized SearchIndex<Student> studentIndex() {
+        SearchIndex<Student> index = studentIndex;
+        if (index != null) return index;
         
-        for (Course course : courses.values()) {
-            if (course.getCode().toLowerCase().contains(searchTerm) || 
-                course.getName().toLowerCase().contains(searchTerm)) {
-                System.out.printf("  %s - %s (%d credits)%n",
-                    course.getCode(), course.getName(), course.getCredits());
-                found = true;
+        Map<String, Student> source = students;
+        index = new SearchIndex<>();
+        indexStudents(source, index);
+        // A load that swapped the map meanwhile must not get this index
+        if (students == source) studentIndex = index;
+        indexStudents(source, index);
+        return index;
+    }
+    
+    private void indexStudents(Map<String, Student> source, SearchIndex<Student> index) {
+        for (Student student : source.values()) {
+            if (!index.contains(student.getSrCode())) {
+                index.add(student.getSrCode(), student, student.getSrCode(), student.getName(), student.getMajor());
             }
         }
-        
-        if (!found) System.out.println("No courses found matching: " + searchTerm);
     }
     
-    private void searchStudents(String searchTerm) {
-        System.out.println("\nSEARCH RESULTS FOR STUDENTS:");
-        boolean found = false;
+    private synchronized SearchIndex<Course> courseIndex() {
+        SearchIndex<Course> index = courseIndex;
+        if (index != null) return index;
         
-        for (Student student : students.values()) {
-            if (student.getSrCode().toLowerCase().contains(searchTerm) || 
-                student.getName().toLowerCase().contains(searchTerm) ||
-                student.getMajor().toLowerCase().contains(searchTerm)) {
-                System.out.printf("  %s - %s (%s) - %d courses%n",
-                    student.getSrCode(), student.getName(), student.getMajor(),
-                    student.getEnrolledCourses().size());
-                found = true;
+        Map<String, Course> source = courses;
+        index = new SearchIndex<>();
+        indexCourses(source, index);
+        // A load that swapped the map meanwhile must not get this index
+        if (courses == source) courseIndex = index;
+        indexCourses(source, index);
+        return index;
+    }
+    
+    private void indexCourses(Map<String, Course> source, SearchIndex<Course> index) {
+        for (Course course : source.values()) {
+            if (!index.contains(course.getCode())) {
+                index.add(course.getCode(), course, course.getCode(), course.getName());
             }
         }
-        
-        if (!found) System.out.println("No students found matching: " + searchTerm);
+    }
+    
+    // Renders one page of results and returns it, so callers can ask for the next one
+    public SearchIndex.Page<Course> writeCourseSearch(String query, int offset, int limit, ReportRenderer out) {
+        SearchIndex.Page<Course> page = findCourses(query, offset, limit);
+        if (offset == 0) out.courseSearchHeader();
+        if (page.getTotal() == 0) {
+            out.noSearchResults("courses", query);
+            return page;
+        }
+        for (Course course : page.getResults()) {
+            out.courseSearchRow(course);
+        }
+        out.searchPageFooter(page);
+        return page;
+    }
+    
+    public SearchIndex.Page<Student> writeStudentSearch(String query, int offset, int limit, ReportRenderer out) {
+        SearchIndex.Page<Student> page = findStudents(query, offset, limit);
+        if (offset == 0) out.studentSearchHeader();
+        if (page.getTotal() == 0) {
+            out.noSearchResults("students", query);
+            return page;
+        }
+        for (Student student : page.getResults()) {
+            out.studentSearchRow(student, enrolledCourseCount(student));
+        }
+        out.searchPageFooter(page);
+        return page;
     }
     
     // Save and load methods
+    
+    // When enabled, loadAllData maps the segments and decodes students on first access
+    public void setLazyLoading(boolean lazyLoading) {
+        this.lazyLoading = lazyLoading;
+    }
+    
     public boolean saveAllData() {
-        String baseDir = "data";
-        createDirectoryIfNotExists(baseDir);
-        
+        return saveAllData(false);
+    }
+    
+    // Writes the store segments changed since the last save or load, or every
+    // segment with full; nothing at all when nothing changed. Grade entry only
+    // waits while the changed students are copied, not for the writes.
+    public boolean saveAllData(boolean full) {
+        long start = System.nanoTime();
         try {
-            saveStudentsToFile(baseDir + "/students.dat");
-            saveCoursesToFile(baseDir + "/courses.dat");
-            saveEnrollmentsToFile(baseDir + "/enrollments.csv");
-            saveGradesToCSV(baseDir + "/grades.csv");
-            saveCoursesToCSV(baseDir + "/courses.csv");
-            return true;
-        } catch (IOException e) {
-            System.out.println("ERROR saving data: " + e.getMessage());
-            return false;
+            saveLock.lock();
+            try {
+                writeStore(full);
+                return true;
+            } catch (IOException e) {
+                saveErrors.increment();
+                System.out.println("ERROR saving data: " + e.getMessage());
+                return false;
+            } finally {
+                saveLock.unlock();
+            }
+        } finally {
+            saveAllDataTimer.recordSince(start);
         }
     }
     
+    // Changes made since the last save; they are in the journal, not yet in the store
+    public long getUnsavedChanges() {
+        return changes.sum() - savedChanges;
+    }
+    
+    // How long the oldest unsaved change has waited for a save, 0 when there is none
+    public long getUnsavedMillis() {
+        long oldest = oldestChange;
+        return oldest != 0 ? (System.nanoTime() - oldest) / 1_000_000 : 0;
+    }
+    
+    // How long the last save held the stripe locks
+    public long getLastSavePauseNanos() {
+        return lastSavePauseNanos;
+    }
+    
+    // enrollments.csv, grades.csv and courses.csv, from one consistent state
+    public void exportCsv(Path directory) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            studentLocks.lockAll();
+            courseLocks.lockAll();
+            try {
+                saveEnrollmentsToFile(directory.resolve("enrollments.csv").toString());
+                saveGradesToCSV(directory.resolve("grades.csv").toString());
+                saveCoursesToCSV(directory.resolve("courses.csv").toString());
+            } finally {
+                courseLocks.unlockAll();
+                studentLocks.unlockAll();
+            }
+        } finally {
+            exportCsvTimer.recordSince(start);
+        }
+    }
+    
+    // Listeners are reset and sent the loaded state once the locks are released
     public boolean loadAllData() {
+        long start = System.nanoTime();
+        try {
+            boolean loaded = loadData();
+            for (GradeListener listener : listeners) {
+                listener.reset();
+                replayState(listener);
+            }
+            return loaded;
+        } finally {
+            loadAllDataTimer.recordSince(start);
+        }
+    }
+    
+    private boolean loadData() {
         String baseDir = "data";
         
+        saveLock.lock();
+        studentLocks.lockAll();
+        courseLocks.lockAll();
         try {
-            if (Files.exists(Paths.get(baseDir + "/students.dat"))) {
-                loadStudentsFromFile(baseDir + "/students.dat");
-                loadCoursesFromFile(baseDir + "/courses.dat");
-                loadEnrollmentsFromFile(baseDir + "/enrollments.csv");
-                return true;
+            closeJournal();
+            boolean loaded;
+            long journalSequence = 0;
+            Path snapshot = Paths.get(baseDir, SNAPSHOT_FILE);
+            if (store.exists() || Files.exists(snapshot)) {
+                GradeSnapshot data;
+                if (store.exists()) {
+                    data = store.load(lazyLoading);
+                } else {
+                    // Written by an older version; the next save moves it into the store
+                    data = lazyLoading ? GradeSnapshot.map(snapshot) : GradeSnapshot.read(snapshot);
+                    store.reset();
+                }
+                students = data.getStudents();
+                courses = data.getCourses();
+                courseEnrollments = data.getCourseEnrollments();
+                journalSequence = data.getJournalSequence();
+                loaded = true;
+            } else if (Files.exists(Paths.get(baseDir + "/students.dat"))) {
+                migrateLegacyData(baseDir);
+                loaded = true;
             } else {
+                students = new ShardedStudentMap(SegmentedStore.SHARDS);
+                courses = new ConcurrentHashMap<>();
+                courseEnrollments = new ConcurrentHashMap<>();
+                store.reset();
+                loaded = false;
+            }
+            studentIndex = null;
+            courseIndex = null;
+            // Journal replay below adds its grades through addGrade
+            gradeCount.reset();
+            gradeCount.add(countGrades());
+            // Replayed journal records count as changes again, as the store lacks them
+            savedChanges = changes.sum();
+            oldestChange = 0;
+            
+            // Replay changes made after the snapshot was written; the journal stays
+            // detached while replaying so the records are not written twice
+            createDirectoryIfNotExists(baseDir);
+            Path journalFile = Paths.get(baseDir, JOURNAL_FILE);
+            boolean hasJournal = Files.exists(journalFile) && Files.size(journalFile) > 0;
+            journal = GradeJournal.open(journalFile, journalSequence, new JournalReplay());
+            storedJournalPosition = store.getGeneration() > 0 ? journal.getSnapshotPosition() : 0;
+            if (journal.getSkippedRecords() > 0) {
+                System.out.println("ERROR: The journal does not reach back to the loaded data; "
+                    + journal.getSkippedRecords() + " later changes were not replayed");
+            }
+            
+            if (!loaded && !hasJournal) {
                 System.out.println("No existing data found. Starting fresh.");
-                return false;
             }
+            return loaded || hasJournal;
         } catch (IOException | ClassNotFoundException e) {
+            loadErrors.increment();
             System.out.println("ERROR loading data: " + e.getMessage());
             return false;
+        } finally {
+            courseLocks.unlockAll();
+            studentLocks.unlockAll();
+            saveLock.unlock();
+        }
+    }
+    
+    // Called with saveLock held. Copies what changed with every stripe locked,
+    // then writes it with the stripes released; once the new manifest is in
+    // place the journal drops the records the previous generation covers, which
+    // is now the fallback, and keeps the rest.
+    private void writeStore(boolean full) throws IOException {
+        GradeJournal log;
+        SegmentedStore.Capture capture;
+        long journalPosition;
+        long captured;
+        long oldest;
+        Map<String, Student> current = students;
+        if (current instanceof ShardedStudentMap) store.prepare((ShardedStudentMap) current, full);
+        long start = System.nanoTime();
+        studentLocks.lockAll();
+        courseLocks.lockAll();
+        try {
+            if (!(students instanceof ShardedStudentMap)) {
+                // Loaded from grades.snapshot or .dat files: every segment is written anyway
+                students = new ShardedStudentMap(students, SegmentedStore.SHARDS);
+                full = true;
+            }
+            log = journal;
+            capture = store.capture((ShardedStudentMap) students, courses, courseEnrollments,
+                log != null ? log.getSequence() : 0, full);
+            journalPosition = log != null ? log.getPosition() : 0;
+            captured = changes.sum();
+            oldest = oldestChange;
+            oldestChange = 0;
+        } finally {
+            courseLocks.unlockAll();
+            studentLocks.unlockAll();
+            lastSavePauseNanos = System.nanoTime() - start;
+        }
+        
+        if (capture != null) {
+            try {
+                store.write(capture);
+            } catch (IOException e) {
+                store.restore(capture);
+                long newer = oldestChange;
+                if (oldest != 0 && (newer == 0 || oldest - newer < 0)) oldestChange = oldest;
+                throw e;
+            }
+            if (log != null) log.discardThrough(storedJournalPosition);
+            storedJournalPosition = journalPosition;
+        }
+        savedChanges = captured;
+        Files.deleteIfExists(store.getDirectory().resolveSibling(SNAPSHOT_FILE));
+    }
+    
+    public void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("ERROR closing journal: " + e.getMessage());
+        }
+        journal = null;
+    }
+    
+    private class JournalReplay implements GradeJournal.Replay {
+        @Override
+        public void addStudent(String srCode, String name, String major) {
+            GradeTracker.this.addStudent(srCode, name, major);
+        }
+        
+        @Override
+        public void addCourse(String code, String name, int credits, int weightScheme) {
+            GradeTracker.this.addCourse(code, name, credits, weightScheme);
+        }
+        
+        @Override
+        public void setCourseWeights(String courseCode, Map<String, Double> weights) {
+            GradeTracker.this.setCourseWeights(courseCode, weights);
+        }
+        
+        @Override
+        public void setCourseTerm(String courseCode, String term) {
+            GradeTracker.this.setCourseTerm(courseCode, term);
+        }
+        
+        @Override
+        public void enrollStudent(String studentId, String courseCode) {
+            GradeTracker.this.enrollStudent(studentId, courseCode);
+        }
+        
+        @Override
+        public void addGrade(String studentId, String courseCode, String assignmentType,
+                             String assignmentName, double grade) {
+            GradeTracker.this.addGrade(studentId, courseCode, assignmentType, assignmentName, grade);
+        }
+    }
+    
+    // One-shot conversion of the old serialized .dat files into the store
+    private void migrateLegacyData(String baseDir) throws IOException, ClassNotFoundException {
+        loadStudentsFromFile(baseDir + "/students.dat");
+        if (Files.exists(Paths.get(baseDir + "/courses.dat"))) {
+            loadCoursesFromFile(baseDir + "/courses.dat");
+        } else {
+            courses = new ConcurrentHashMap<>();
+        }
+        loadEnrollmentsFromFile(baseDir + "/enrollments.csv");
+        
+        writeStore(true);
+        for (String legacyFile : new String[] {"students.dat", "courses.dat"}) {
+            Path path = Paths.get(baseDir, legacyFile);
+            if (Files.exists(path)) {
+                Files.move(path, Paths.get(baseDir, legacyFile + ".migrated"), StandardCopyOption.REPLACE_EXISTING);
+            }
         }
+        System.out.println("Migrated legacy data files to " + store.getDirectory());
     }
     
     @SuppressWarnings("unchecked")
     private void loadStudentsFromFile(String filename) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            students = (Map<String, Student>) ois.readObject();
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            students = new ConcurrentHashMap<>((Map<String, Student>) ois.readObject());
         }
     }
     
     @SuppressWarnings("unchecked")
     private void loadCoursesFromFile(String filename) throws IOException, ClassNotFoundException {
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(filename))) {
-            courses = (Map<String, Course>) ois.readObject();
+        try (ObjectInputStream ois = new ObjectInputStream(new BufferedInputStream(new FileInputStream(filename)))) {
+            courses = new ConcurrentHashMap<>((Map<String, Course>) ois.readObject());
         }
     }
     
     private void loadEnrollmentsFromFile(String filename) throws IOException {
-        courseEnrollments = new HashMap<>();
+        courseEnrollments = new ConcurrentHashMap<>();
         if (!Files.exists(Paths.get(filename))) return;
         
         List<String> lines = Files.readAllLines(Paths.get(filename));
@@ -396,10 +1561,8 @@ public class GradeTracker {
             String[] parts = lines.get(i).split(",");
             if (parts.length == 2) {
                 String studentId = parts[0], courseCode = parts[1];
-                courseEnrollments.putIfAbsent(courseCode, new ArrayList<>());
-                if (!courseEnrollments.get(courseCode).contains(studentId)) {
-                    courseEnrollments.get(courseCode).add(studentId);
-                }
+                courseEnrollments.computeIfAbsent(courseCode, code -> new Roster())
+                    .add(Symbols.STUDENTS.intern(studentId));
                 if (students.containsKey(studentId)) {
                     students.get(studentId).enrollInCourse(courseCode);
                 }
@@ -407,43 +1570,72 @@ public class GradeTracker {
         }
     }
     
-    private void saveStudentsToFile(String filename) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(students);
-        }
-    }
-    
-    private void saveCoursesToFile(String filename) throws IOException {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream(filename))) {
-            oos.writeObject(courses);
-        }
-    }
-    
     private void saveEnrollmentsToFile(String filename) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
             writer.println("StudentID,CourseCode");
             for (String courseCode : courseEnrollments.keySet()) {
-                for (String studentId : courseEnrollments.get(courseCode)) {
-                    writer.println(studentId + "," + courseCode);
+                for (int studentId : courseEnrollments.get(courseCode).toArray()) {
+                    writer.println(Symbols.STUDENTS.symbol(studentId) + "," + courseCode);
                 }
             }
         }
     }
     
+    // Streams each grade into one reused line buffer instead of a String per grade
     private void saveGradesToCSV(String filename) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println("StudentID,CourseCode,AssignmentType,AssignmentName,Grade");
+        try (Writer writer = new BufferedWriter(new FileWriter(filename), 1 << 16)) {
+            writer.write("StudentID,CourseCode,AssignmentType,AssignmentName,Grade" + System.lineSeparator());
+            StringBuilder line = new StringBuilder(96);
             for (Student student : students.values()) {
-                for (String line : student.getGradesCSV()) {
-                    writer.println(line);
+                String srCode = student.getSrCode();
+                student.forEachGrade((courseId, categoryId, nameId, score) -> {
+                    line.setLength(0);
+                    line.append(srCode).append(',').append(Symbols.COURSES.symbol(courseId))
+                        .append(',').append(Symbols.CATEGORIES.symbol(categoryId))
+                        .append(',').append(Symbols.ASSIGNMENT_NAMES.symbol(nameId)).append(',');
+                    DecimalText.append(line, score, 2).append(System.lineSeparator());
+                    writer.append(line);
+                });
+            }
+        }
+    }
+    
+    // The grades fact table in ColumnarGrades format, one student at a time
+    // under its read lock; returns the number of rows written
+    public long exportGradeColumns(Path file) throws IOException {
+        long start = System.nanoTime();
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            // Closing without finish() deletes the temp file, so an exception
+            // anywhere in the loop leaves no truncated export behind
+            try (ColumnarGrades.Writer writer = new ColumnarGrades.Writer(file)) {
+                for (String studentId : students.keySet()) {
+                    Lock lock = studentLocks.forKey(studentId).readLock();
+                    lock.lock();
+                    try {
+                        Student student = students.get(studentId);
+                        if (student == null) continue;
+                        int id = student.getId();
+                        student.forEachGrade((courseId, categoryId, nameId, score) ->
+                            writer.add(id, courseId, categoryId, nameId, score));
+                    } finally {
+                        lock.unlock();
+                    }
+                    // Compression and file writes happen between students, outside the lock
+                    writer.flushIfFull();
                 }
+                writer.finish();
+                return writer.getRowCount();
             }
+        } finally {
+            exportGradeColumnsTimer.recordSince(start);
         }
     }
     
     private void saveCoursesToCSV(String filename) throws IOException {
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            writer.println("CourseCode,CourseName,Credits,Weights");
+            writer.println("CourseCode,CourseName,Credits,Weights,Term");
             for (Course course : courses.values()) {
                 writer.println(course.toCSV());
             }
@@ -456,43 +1648,46 @@ public class GradeTracker {
     }
     
     public void exportStudentReport(String studentId, String filename) {
-        if (!students.containsKey(studentId)) {
-            System.out.println("ERROR: Student not found!");
-            return;
+        if (writeStudentReportFile(studentId, Paths.get(filename))) {
+            System.out.println("SUCCESS: Report exported to: " + filename);
         }
-        
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            Student student = students.get(studentId);
-            writer.println("STUDENT REPORT");
-            writer.println("==============");
-            writer.println("Name: " + student.getName());
-            writer.println("SR Code: " + student.getSrCode());
-            writer.println("Major: " + student.getMajor());
-            writer.println();
-            writer.println("COURSES AND GRADES:");
-            writer.println("===================");
-            
-            for (String courseCode : student.getEnrolledCourses()) {
-                Course course = courses.get(courseCode);
-                if (course != null) {
-                    double grade = student.getCourseGrade(courseCode, course.getWeights());
-                    String letterGrade = student.getGradeLetter(grade);
-                    writer.printf("%s - %s: %.2f%% (%s)%n", 
-                        courseCode, course.getName(), grade, letterGrade);
-                    
-                    Map<String, List<Double>> assignments = student.getCourseGrades().get(courseCode);
-                    for (String assignmentType : assignments.keySet()) {
-                        List<Double> grades = assignments.get(assignmentType);
-                        double avg = grades.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-                        writer.printf("  %s: %.2f%% (%d assignments)%n", 
-                            assignmentType, avg, grades.size());
-                    }
-                    writer.println();
-                }
+    }
+    
+    public boolean writeStudentReportFile(String studentId, Path file) {
+        long start = System.nanoTime();
+        try {
+            StringBuilder report = new StringBuilder();
+            if (!appendStudentReportFile(studentId, report)) {
+                System.out.println("ERROR: Student not found!");
+                return false;
             }
-            System.out.println("SUCCESS: Report exported to: " + filename);
-        } catch (IOException e) {
-            System.out.println("ERROR exporting report: " + e.getMessage());
+            try {
+                Files.write(file, report.toString().getBytes(StandardCharsets.UTF_8));
+                return true;
+            } catch (IOException e) {
+                System.out.println("ERROR exporting report: " + e.getMessage());
+                return false;
+            }
+        } finally {
+            writeStudentReportFileTimer.recordSince(start);
+        }
+    }
+    
+    public boolean appendStudentReportFile(String studentId, StringBuilder out) {
+        long start = System.nanoTime();
+        try {
+            Lock lock = studentLocks.forKey(studentId).readLock();
+            lock.lock();
+            try {
+                Student student = students.get(studentId);
+                if (student == null) return false;
+                ReportRenderer.appendStudentReportFile(out, student, courses);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            appendStudentReportFileTimer.recordSince(start);
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,199 @@
+import java.util.Arrays;
+import java.io.*;
+
+// Streaming JSON output. Values go straight to the underlying Writer, so a
+// response is never held as one string. Like PrintWriter it does not throw;
+// the first IOException is kept and returned by checkError().
+public class JsonWriter {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private final Writer out;
+    private final StringBuilder number = new StringBuilder(24);
+    private final char[] digits = new char[32];
+    // Whether the object/array at each depth already holds a value
+    private boolean[] hasValue = new boolean[16];
+    private int depth;
+    private boolean afterName;
+    private IOException error;
+    
+    public JsonWriter(Writer out) {
+        this.out = out;
+    }
+    
+    public JsonWriter beginObject() {
+        separator();
+        write('{');
+        push();
+        return this;
+    }
+    
+    public JsonWriter endObject() {
+        depth--;
+        write('}');
+        return this;
+    }
+    
+    public JsonWriter beginArray() {
+        separator();
+        write('[');
+        push();
+        return this;
+    }
+    
+    public JsonWriter endArray() {
+        depth--;
+        write(']');
+        return this;
+    }
+    
+    public JsonWriter name(String name) {
+        separator();
+        string(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+    
+    public JsonWriter value(String value) {
+        if (value == null) return nullValue();
+        separator();
+        string(value);
+        return this;
+    }
+    
+    public JsonWriter value(long value) {
+        separator();
+        number.setLength(0);
+        writeNumber(number.append(value));
+        return this;
+    }
+    
+    public JsonWriter value(boolean value) {
+        separator();
+        write(value ? "true" : "false");
+        return this;
+    }
+    
+    public JsonWriter value(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return nullValue();
+        separator();
+        number.setLength(0);
+        writeNumber(number.append(value));
+        return this;
+    }
+    
+    // Fixed-point number, the same digits the text reports print
+    public JsonWriter value(double value, int decimals) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return nullValue();
+        separator();
+        number.setLength(0);
+        writeNumber(DecimalText.append(number, value, decimals));
+        return this;
+    }
+    
+    public JsonWriter nullValue() {
+        separator();
+        write("null");
+        return this;
+    }
+    
+    public JsonWriter field(String name, String value) {
+        return name(name).value(value);
+    }
+    
+    public JsonWriter field(String name, long value) {
+        return name(name).value(value);
+    }
+    
+    public JsonWriter field(String name, double value, int decimals) {
+        return name(name).value(value, decimals);
+    }
+    
+    public JsonWriter field(String name, boolean value) {
+        return name(name).value(value);
+    }
+    
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+    
+    public IOException checkError() {
+        return error;
+    }
+    
+    private void push() {
+        if (++depth == hasValue.length) {
+            hasValue = Arrays.copyOf(hasValue, depth * 2);
+        }
+        hasValue[depth] = false;
+    }
+    
+    // Writes the comma before every value after the first, except right after a name
+    private void separator() {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (hasValue[depth]) write(',');
+        hasValue[depth] = true;
+    }
+    
+    private void string(String value) {
+        write('"');
+        int start = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') continue;
+            write(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"': write("\\\""); break;
+                case '\\': write("\\\\"); break;
+                case '\n': write("\\n"); break;
+                case '\r': write("\\r"); break;
+                case '\t': write("\\t"); break;
+                default:
+                    write("\\u00");
+                    write(HEX[c >> 4]);
+                    write(HEX[c & 0xF]);
+            }
+        }
+        write(value, start, value.length());
+        write('"');
+    }
+    
+    private void write(char c) {
+        try {
+            out.write(c);
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+    
+    private void write(String text) {
+        write(text, 0, text.length());
+    }
+    
+    private void write(String text, int start, int end) {
+        if (start == end) return;
+        try {
+            out.write(text, start, end - start);
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+    
+    private void writeNumber(StringBuilder text) {
+        int length = Math.min(text.length(), digits.length);
+        text.getChars(0, length, digits, 0);
+        try {
+            out.write(digits, 0, length);
+        } catch (IOException e) {
+            if (error == null) error = e;
+        }
+    }
+}
\ No newline at end of file
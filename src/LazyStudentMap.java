@@ -0,0 +1,115 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToIntFunction;
+
+// Student map backed by a mapped snapshot: records are decoded the first time
+// they are looked up and kept afterwards, so memory follows the students touched
+public class LazyStudentMap extends AbstractMap<String, Student> {
+    private final GradeSnapshot.Decoder snapshot;
+    private final ConcurrentHashMap<String, Student> materialized;
+    private final Set<String> added;
+    
+    public LazyStudentMap(GradeSnapshot.Decoder snapshot) {
+        this.snapshot = snapshot;
+        this.materialized = new ConcurrentHashMap<>();
+        this.added = ConcurrentHashMap.newKeySet();
+    }
+    
+    @Override
+    public Student get(Object key) {
+        if (!(key instanceof String)) return null;
+        Student student = materialized.get(key);
+        if (student != null) return student;
+        
+        int position = snapshot.find((String) key);
+        if (position < 0) return null;
+        return load(position);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) return false;
+        return materialized.containsKey(key) || snapshot.find((String) key) >= 0;
+    }
+    
+    @Override
+    public Student put(String key, Student value) {
+        Student previous = get(key);
+        materialized.put(key, value);
+        if (previous == null) added.add(key);
+        return previous;
+    }
+    
+    @Override
+    public int size() {
+        return snapshot.studentCount + added.size();
+    }
+    
+    public int materializedCount() {
+        return materialized.size();
+    }
+    
+    // Decodes every record not looked up yet, e.g. before a save copies them all
+    public void decodeAll() {
+        for (int position = 0; position < snapshot.studentCount; position++) {
+            if (!materialized.containsKey(snapshot.key(position))) load(position);
+        }
+    }
+    
+    // Grades of every student: decoded ones through the given function, the
+    // rest counted straight from their records without decoding them
+    public long countGrades(ToIntFunction<Student> decoded) {
+        long grades = 0;
+        for (int position = 0; position < snapshot.studentCount; position++) {
+            Student student = materialized.get(snapshot.key(position));
+            grades += student != null ? decoded.applyAsInt(student) : snapshot.gradeCount(position);
+        }
+        for (String key : added) {
+            grades += decoded.applyAsInt(materialized.get(key));
+        }
+        return grades;
+    }
+    
+    private Student load(int position) {
+        Student decoded = snapshot.student(position);
+        Student existing = materialized.putIfAbsent(decoded.getSrCode(), decoded);
+        return existing != null ? existing : decoded;
+    }
+    
+    // Iterates the snapshot in SR-code order, then students added since it was opened
+    @Override
+    public Set<Entry<String, Student>> entrySet() {
+        return new AbstractSet<Entry<String, Student>>() {
+            @Override
+            public Iterator<Entry<String, Student>> iterator() {
+                Iterator<String> extra = added.iterator();
+                return new Iterator<Entry<String, Student>>() {
+                    private int position;
+                    
+                    @Override
+                    public boolean hasNext() {
+                        return position < snapshot.studentCount || extra.hasNext();
+                    }
+                    
+                    @Override
+                    public Entry<String, Student> next() {
+                        if (position < snapshot.studentCount) {
+                            String key = snapshot.key(position);
+                            Student student = materialized.get(key);
+                            if (student == null) student = load(position);
+                            position++;
+                            return new SimpleImmutableEntry<>(key, student);
+                        }
+                        String key = extra.next();
+                        return new SimpleImmutableEntry<>(key, materialized.get(key));
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return LazyStudentMap.this.size();
+            }
+        };
+    }
+}
\ No newline at end of file
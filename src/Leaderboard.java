@@ -0,0 +1,118 @@
+import java.util.*;
+
+// Scores kept in rank order under updates. The entries sit in a TreeSet
+// (highest score first, ties by ID) for top-N walks, and a Fenwick tree
+// counts entries per 0.01 score bucket, so rank is the number of higher
+// buckets plus one. Students whose scores print the same share a rank.
+// update, remove and rank are O(log n); not thread-safe.
+public class Leaderboard {
+    private static final Comparator<Entry> ORDER = (a, b) -> {
+        int byScore = Double.compare(b.score, a.score);
+        return byScore != 0 ? byScore : a.id.compareTo(b.id);
+    };
+    
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> order = new TreeSet<>(ORDER);
+    private final double maxScore;
+    // 1-based Fenwick tree over buckets 0..maxScore*100
+    private final int[] counts;
+    
+    public Leaderboard(double maxScore) {
+        this.maxScore = maxScore;
+        this.counts = new int[bucketOf(maxScore) + 2];
+    }
+    
+    public void update(String id, double score) {
+        score = Math.max(0.0, Math.min(maxScore, score));
+        Entry old = entries.get(id);
+        if (old != null) {
+            if (old.score == score) return;
+            order.remove(old);
+            add(bucketOf(old.score), -1);
+        }
+        Entry entry = new Entry(id, score);
+        entries.put(id, entry);
+        order.add(entry);
+        add(bucketOf(score), 1);
+    }
+    
+    public boolean remove(String id) {
+        Entry old = entries.remove(id);
+        if (old == null) return false;
+        order.remove(old);
+        add(bucketOf(old.score), -1);
+        return true;
+    }
+    
+    // 1 for the highest score; 0 if the ID is not ranked
+    public int rank(String id) {
+        Entry entry = entries.get(id);
+        if (entry == null) return 0;
+        return entries.size() - countUpTo(bucketOf(entry.score)) + 1;
+    }
+    
+    public double score(String id) {
+        Entry entry = entries.get(id);
+        return entry != null ? entry.score : Double.NaN;
+    }
+    
+    public List<Entry> top(int limit) {
+        List<Entry> top = new ArrayList<>(Math.min(Math.max(limit, 0), entries.size()));
+        for (Entry entry : order) {
+            if (top.size() >= limit) break;
+            top.add(entry);
+        }
+        return top;
+    }
+    
+    // Entries scoring at least minScore, highest first
+    public List<Entry> atLeast(double minScore) {
+        List<Entry> result = new ArrayList<>();
+        for (Entry entry : order) {
+            if (entry.score < minScore) break;
+            result.add(entry);
+        }
+        return result;
+    }
+    
+    public int size() {
+        return entries.size();
+    }
+    
+    public void clear() {
+        entries.clear();
+        order.clear();
+        Arrays.fill(counts, 0);
+    }
+    
+    private int bucketOf(double score) {
+        return (int) Math.round(score * 100);
+    }
+    
+    private void add(int bucket, int delta) {
+        for (int i = bucket + 1; i < counts.length; i += i & -i) {
+            counts[i] += delta;
+        }
+    }
+    
+    private int countUpTo(int bucket) {
+        int sum = 0;
+        for (int i = bucket + 1; i > 0; i -= i & -i) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+    
+    public static class Entry {
+        private final String id;
+        private final double score;
+        
+        Entry(String id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+        
+        public String getId() { return id; }
+        public double getScore() { return score; }
+    }
+}
\ No newline at end of file
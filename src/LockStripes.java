@@ -0,0 +1,47 @@
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Fixed set of read/write locks shared by keys that hash to the same stripe,
+// so unrelated students or courses can be updated in parallel
+public class LockStripes {
+    private final ReentrantReadWriteLock[] locks;
+    
+    public LockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.locks = new ReentrantReadWriteLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantReadWriteLock();
+        }
+    }
+    
+    public ReentrantReadWriteLock forKey(Object key) {
+        return locks[indexFor(key)];
+    }
+    
+    // Lets batch callers group keys by stripe and take each lock once
+    public int indexFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16);
+        return h & (locks.length - 1);
+    }
+    
+    public ReentrantReadWriteLock get(int index) {
+        return locks[index];
+    }
+    
+    public int size() {
+        return locks.length;
+    }
+    
+    // Always taken in stripe order so two callers cannot deadlock
+    public void lockAll() {
+        for (ReentrantReadWriteLock lock : locks) {
+            lock.writeLock().lock();
+        }
+    }
+    
+    public void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].writeLock().unlock();
+        }
+    }
+}
\ No newline at end of file
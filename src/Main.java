@@ -1,12 +1,22 @@
 import java.util.*;
+import java.io.IOException;
+import java.nio.file.Paths;
 
 public class Main {
     private static GradeTracker tracker = new GradeTracker();
     private static Scanner sc = new Scanner(System.in);
+    private static final int SEARCH_PAGE_SIZE = 20;
+    private static AutoSaver autoSaver;
     
     public static void main(String[] args) {
+        if (args.length > 0) {
+            // Headless: run the commands given as arguments or in a file, no prompts
+            System.exit(new CommandRunner(tracker).run(args));
+        }
+        
         System.out.println("Loading existing data...");
         tracker.loadAllData();
+        autoSaver = AutoSaver.start(tracker, AutoSaver.DEFAULT_INTERVAL_SECONDS, AutoSaver.DEFAULT_MAX_CHANGES);
         
         while(true) {
             showMainMenu();
@@ -25,8 +35,10 @@ public class Main {
                 case 10: saveData(); break;
                 case 11: loadData(); break;
                 case 12: exportStudentReport(); break;
-                case 13: 
-                    tracker.saveAllData();
+                case 13: importGrades(); break;
+                case 14: 
+                    autoSaver.close();
+                    tracker.closeJournal();
                     System.out.println("Goodbye!");
                     return;
                 default: 
@@ -57,9 +69,10 @@ public class Main {
         System.out.printf("%-2s. %-25s%n", "12", "Export Report");
         
         System.out.printf("%-2s. %-25s", "6", "View Course Report");
-        System.out.printf("%-2s. %-25s%n", "13", "Exit");
+        System.out.printf("%-2s. %-25s%n", "13", "Import Grades");
         
-        System.out.printf("%-2s. %-25s%n", "7", "Grade Predictor");
+        System.out.printf("%-2s. %-25s", "7", "Grade Predictor");
+        System.out.printf("%-2s. %-25s%n", "14", "Exit");
         System.out.println("-".repeat(50));
     }
     
@@ -81,6 +94,7 @@ public class Main {
         String code = getStringInput("Course Code: ");
         String name = getStringInput("Course Name: ");
         int credits = getIntInput("Credits: ");
+        String term = getStringInput("Term (e.g. 2024-1, blank if none): ");
         
         System.out.println("\nAssignment Categories:");
         System.out.println("1. Homework (20%) + Quizzes (30%) + Exams (50%)");
@@ -89,9 +103,32 @@ public class Main {
         
         int weightChoice = getIntInput("Choose weight scheme: ");
         tracker.addCourse(code, name, credits, weightChoice);
+        if(weightChoice == 3) {
+            defineCustomWeights(code);
+        }
+        if(!term.isEmpty()) {
+            tracker.setCourseTerm(code, term);
+        }
         System.out.println("SUCCESS: Course added successfully!");
     }
     
+    private static void defineCustomWeights(String courseCode) {
+        System.out.println("Enter each category and its weight in percent (blank category to finish).");
+        Map<String, Double> weights = new LinkedHashMap<>();
+        while(true) {
+            String category = getStringInput("Category: ");
+            if(category.isEmpty()) {
+                if(!weights.isEmpty()) break;
+                System.out.println("ERROR: Add at least one category!");
+                continue;
+            }
+            weights.put(category, getDoubleInput("Weight (%): "));
+        }
+        if(!tracker.setCourseWeights(courseCode, weights)) {
+            System.out.println("ERROR: Custom weights were not saved; the course has no categories yet.");
+        }
+    }
+    
     private static void enrollStudentInCourse() {
         System.out.println("\n--- ENROLL STUDENT ---");
         String studentId = getStringInput("Student SR-Code: ");
@@ -148,7 +185,16 @@ public class Main {
         System.out.println("\n--- GRADE PREDICTOR ---");
         String studentId = getStringInput("Student SR-Code: ");
         String courseCode = getStringInput("Course Code: ");
-        tracker.showGradePredictor(studentId, courseCode);
+        
+        ReportRenderer out = ReportRenderer.console();
+        boolean found = tracker.writeCurrentGrade(studentId, courseCode, out);
+        out.flush();
+        if (!found) return;
+        
+        double finalWeight = getDoubleInput("Enter final exam weight (as decimal, e.g., 0.3 for 30%): ");
+        double desiredGrade = getDoubleInput("Enter desired final course grade: ");
+        tracker.writeGradePrediction(studentId, courseCode, finalWeight, desiredGrade, out);
+        out.flush();
     }
     
     private static void viewDatabase() {
@@ -161,8 +207,18 @@ public class Main {
         int choice = getIntInput("Choose: ");
         
         switch (choice) {
-            case 1: tracker.displayAllCourses(); break;
-            case 2: tracker.displayAllStudents(); break;
+            case 1:
+                tracker.displayAllCourses();
+                if (tracker.getCourseCount() > 0 && askYesNo("\nShow detailed course information? (y/n): ")) {
+                    tracker.displayAllCourseDetails();
+                }
+                break;
+            case 2:
+                tracker.displayAllStudents();
+                if (tracker.getStudentCount() > 0 && askYesNo("\nShow detailed student information? (y/n): ")) {
+                    tracker.displayAllStudentSummaries();
+                }
+                break;
             case 3: tracker.displayDatabaseOverview(); break;
             case 4: return;
             default: System.out.println("ERROR: Invalid choice!");
@@ -170,13 +226,36 @@ public class Main {
     }
     
     private static void searchDatabase() {
-        tracker.searchDatabase();
+        System.out.println("\n=== SEARCH DATABASE ===");
+        System.out.println("1. Search Courses");
+        System.out.println("2. Search Students");
+        int choice = getIntInput("Choose: ");
+        if (choice != 1 && choice != 2) {
+            System.out.println("ERROR: Invalid choice!");
+            return;
+        }
+        String searchTerm = getStringInput("Enter search term: ");
+        
+        ReportRenderer out = ReportRenderer.console();
+        int offset = 0;
+        while (true) {
+            SearchIndex.Page<?> page = choice == 1
+                ? tracker.writeCourseSearch(searchTerm, offset, SEARCH_PAGE_SIZE, out)
+                : tracker.writeStudentSearch(searchTerm, offset, SEARCH_PAGE_SIZE, out);
+            out.flush();
+            if (!page.hasMore() || !askYesNo("Show more? (y/n): ")) return;
+            offset += SEARCH_PAGE_SIZE;
+        }
     }
     
     private static void saveData() {
         System.out.println("\n--- SAVE DATA ---");
         if (tracker.saveAllData()) {
             System.out.println("SUCCESS: All data saved successfully!");
+            if (autoSaver.getSaveCount() > 0) {
+                System.out.printf("Auto-save: %d saves, last took %.1f ms (%.2f ms blocking grade entry)%n",
+                    autoSaver.getSaveCount(), autoSaver.getLastSaveMillis(), autoSaver.getLastPauseMillis());
+            }
         } else {
             System.out.println("ERROR: Failed to save data!");
         }
@@ -193,11 +272,49 @@ public class Main {
     
     private static void exportStudentReport() {
         System.out.println("\n--- EXPORT STUDENT REPORT ---");
-        String studentId = getStringInput("Student SR-Code: ");
+        String studentId = getStringInput("Student SR-Code (or ALL for every student and course): ");
+        if (studentId.equalsIgnoreCase("ALL")) {
+            exportAllReports();
+            return;
+        }
         String filename = getStringInput("Export filename (e.g., report.txt): ");
         tracker.exportStudentReport(studentId, filename);
     }
     
+    private static void exportAllReports() {
+        String target = getStringInput("Export directory or .zip file: ");
+        try {
+            ReportExporter.Result result = new ReportExporter(tracker).exportAll(Paths.get(target), true,
+                (done, total) -> System.out.printf("\r  %d/%d reports", done, total));
+            System.out.println();
+            System.out.printf("SUCCESS: Exported %d reports to %s in %.2fs - %.0f reports/s%n",
+                result.getReports(), target, result.getElapsedSeconds(), result.getReportsPerSecond());
+        } catch (IOException e) {
+            System.out.println("ERROR exporting reports: " + e.getMessage());
+        }
+    }
+    
+    private static void importGrades() {
+        System.out.println("\n--- IMPORT GRADES ---");
+        System.out.println("Format: StudentID,CourseCode,AssignmentType,AssignmentName,Grade");
+        String filename = getStringInput("CSV filename: ");
+        
+        try {
+            GradeImporter.Result result = new GradeImporter(tracker).importFile(Paths.get(filename));
+            for (String error : result.getErrors()) {
+                System.out.println("  " + error);
+            }
+            if (result.getRowsRejected() > result.getErrors().size()) {
+                System.out.println("  ... " + (result.getRowsRejected() - result.getErrors().size()) + " more");
+            }
+            System.out.printf("Imported %d of %d rows (%d rejected) in %.2fs - %.0f rows/s%n",
+                result.getRowsImported(), result.getRowsRead(), result.getRowsRejected(),
+                result.getElapsedSeconds(), result.getRowsPerSecond());
+        } catch (IOException e) {
+            System.out.println("ERROR importing grades: " + e.getMessage());
+        }
+    }
+    
     // Helper methods
     private static int getIntInput(String prompt) {
         System.out.print(prompt);
@@ -227,4 +344,8 @@ public class Main {
         System.out.print(prompt);
         return sc.nextLine().trim();
     }
+    
+    private static boolean askYesNo(String prompt) {
+        return getStringInput(prompt).equalsIgnoreCase("y");
+    }
 }
\ No newline at end of file
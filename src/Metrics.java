@@ -0,0 +1,253 @@
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Operation timers, counters and gauges of one GradeTracker, cheap enough to
+// leave on. Recording a latency is a few atomic adds into a fixed
+// array of log-linear buckets (HDR-style: 64 linear steps per power of two,
+// so every percentile is within 1/64 of the true value), with no lock and no
+// allocation. Gauges are only evaluated when the metrics are written.
+//
+// writePrometheus renders everything in the Prometheus text format. Each
+// timed call is also a JFR event (gradetracker.Operation) while a recording
+// has it enabled, e.g. java -XX:StartFlightRecording=filename=run.jfr ...
+public class Metrics {
+    static final String PREFIX = "gradetracker_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final EventType OPERATION_EVENT = EventType.getEventType(OperationEvent.class);
+    
+    private final List<Timer> timers = new CopyOnWriteArrayList<>();
+    private final List<Counter> counters = new CopyOnWriteArrayList<>();
+    private final List<Gauge> gauges = new CopyOnWriteArrayList<>();
+    
+    public Timer timer(String operation) {
+        Timer timer = new Timer(operation);
+        timers.add(timer);
+        return timer;
+    }
+    
+    public Counter counter(String name, String help) {
+        Counter counter = new Counter(name, help);
+        counters.add(counter);
+        return counter;
+    }
+    
+    public void gauge(String name, String help, DoubleSupplier value) {
+        gauges.add(new Gauge(name, help, value));
+    }
+    
+    public List<Timer> getTimers() {
+        return Collections.unmodifiableList(timers);
+    }
+    
+    // Every timer as a summary (quantiles, sum and count in seconds) plus its
+    // maximum, then the counters and the gauges
+    public void writePrometheus(StringBuilder out) {
+        String latency = PREFIX + "operation_seconds";
+        header(out, latency, "summary", "Latency of GradeTracker operations");
+        for (Timer timer : timers) {
+            Histogram.Snapshot snapshot = timer.latencies.snapshot();
+            for (double quantile : QUANTILES) {
+                out.append(latency).append("{operation=\"").append(timer.operation)
+                    .append("\",quantile=\"").append(quantile).append("\"} ");
+                out.append(seconds(snapshot.percentile(quantile))).append('\n');
+            }
+            out.append(latency).append("_sum{operation=\"").append(timer.operation).append("\"} ")
+                .append(seconds(snapshot.sum)).append('\n');
+            out.append(latency).append("_count{operation=\"").append(timer.operation).append("\"} ")
+                .append(snapshot.count).append('\n');
+        }
+        String max = PREFIX + "operation_max_seconds";
+        header(out, max, "gauge", "Slowest call of each GradeTracker operation");
+        for (Timer timer : timers) {
+            out.append(max).append("{operation=\"").append(timer.operation).append("\"} ")
+                .append(seconds(timer.latencies.max.get())).append('\n');
+        }
+        for (Counter counter : counters) {
+            String name = PREFIX + counter.name + "_total";
+            header(out, name, "counter", counter.help);
+            out.append(name).append(' ').append(counter.get()).append('\n');
+        }
+        for (Gauge gauge : gauges) {
+            String name = PREFIX + gauge.name;
+            header(out, name, "gauge", gauge.help);
+            out.append(name).append(' ').append(gauge.value.getAsDouble()).append('\n');
+        }
+    }
+    
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(8192);
+        writePrometheus(out);
+        return out.toString();
+    }
+    
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static double seconds(long nanos) {
+        return nanos / 1e9;
+    }
+    
+    // Call count and latency histogram of one operation. Callers take
+    // System.nanoTime() on entry and pass it to recordSince on every exit.
+    public static final class Timer {
+        private final String operation;
+        private final Histogram latencies = new Histogram();
+        
+        private Timer(String operation) {
+            this.operation = operation;
+        }
+        
+        public void recordSince(long start) {
+            long nanos = System.nanoTime() - start;
+            latencies.record(nanos);
+            if (OPERATION_EVENT.isEnabled()) {
+                OperationEvent event = new OperationEvent();
+                event.operation = operation;
+                event.latency = nanos;
+                event.commit();
+            }
+        }
+        
+        public String getOperation() { return operation; }
+        public Histogram.Snapshot snapshot() { return latencies.snapshot(); }
+    }
+    
+    public static final class Counter {
+        private final String name;
+        private final String help;
+        private final LongAdder count = new LongAdder();
+        
+        private Counter(String name, String help) {
+            this.name = name;
+            this.help = help;
+        }
+        
+        public void increment() {
+            count.increment();
+        }
+        
+        public long get() {
+            return count.sum();
+        }
+    }
+    
+    private static final class Gauge {
+        final String name;
+        final String help;
+        final DoubleSupplier value;
+        
+        Gauge(String name, String help, DoubleSupplier value) {
+            this.name = name;
+            this.help = help;
+            this.value = value;
+        }
+    }
+    
+    // Non-negative values (nanoseconds here) in log-linear buckets: values
+    // below 128 get a bucket each, and every power of two above that is split
+    // into 64 equal buckets. Values from 2^40 ns (about 18 minutes) share the last one.
+    public static final class Histogram {
+        private static final int SUB_BUCKET_BITS = 6;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int MAX_MAGNITUDE = 40;
+        private static final long MAX_VALUE = (1L << MAX_MAGNITUDE) - 1;
+        private static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+        
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final LongAdder sum = new LongAdder();
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+        
+        public void record(long value) {
+            value = Math.max(0, Math.min(value, MAX_VALUE));
+            counts.incrementAndGet(bucket(value));
+            sum.add(value);
+            max.accumulate(value);
+        }
+        
+        static int bucket(long value) {
+            int magnitude = 63 - Long.numberOfLeadingZeros(value | (2 * SUB_BUCKETS - 1));
+            int shift = magnitude - SUB_BUCKET_BITS;
+            return (shift << SUB_BUCKET_BITS) + (int) (value >>> shift);
+        }
+        
+        // Largest value that falls into the bucket
+        static long highestValue(int bucket) {
+            int shift = Math.max(0, (bucket >> SUB_BUCKET_BITS) - 1);
+            long lowest = (long) (bucket - (shift << SUB_BUCKET_BITS)) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+        
+        // Bucket counts copied once, so every percentile of one report agrees
+        public Snapshot snapshot() {
+            long[] copy = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                copy[i] = counts.get(i);
+                count += copy[i];
+            }
+            return new Snapshot(copy, count, sum.sum(), max.get());
+        }
+        
+        public static final class Snapshot {
+            private final long[] counts;
+            final long count;
+            final long sum;
+            final long max;
+            
+            private Snapshot(long[] counts, long count, long sum, long max) {
+                this.counts = counts;
+                this.count = count;
+                this.sum = sum;
+                this.max = max;
+            }
+            
+            public long getCount() { return count; }
+            public long getSum() { return sum; }
+            public long getMax() { return max; }
+            
+            public double getMean() {
+                return count > 0 ? (double) sum / count : 0.0;
+            }
+            
+            // Upper end of the bucket holding the quantile, never above the maximum
+            public long percentile(double quantile) {
+                if (count == 0) return 0;
+                long rank = Math.max(1, (long) Math.ceil(quantile * count));
+                long seen = 0;
+                for (int i = 0; i < counts.length; i++) {
+                    seen += counts[i];
+                    if (seen >= rank) return Math.min(highestValue(i), max);
+                }
+                return max;
+            }
+        }
+    }
+    
+    @Name("gradetracker.Operation")
+    @Label("GradeTracker Operation")
+    @Category("Grade Tracker")
+    @Description("One timed call of a public GradeTracker operation")
+    @StackTrace(false)
+    static class OperationEvent extends Event {
+        @Label("Operation")
+        String operation;
+        
+        @Label("Latency")
+        @Timespan(Timespan.NANOSECONDS)
+        long latency;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,203 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Rankings kept current from GradeEvents instead of re-sorting on every
+// query: a Leaderboard per course by course grade, each student's
+// credit-weighted GPA, and an institution-wide Leaderboard by GPA. One
+// grade change costs an O(log n) course leaderboard update plus a pass over
+// that student's few courses. Only students with a grade are ranked.
+//
+// Events arrive on the grade-entry path with the student's lock held, so
+// there is no lock over all views: each course Leaderboard and each
+// student's courses are locked on their own, and a new GPA is only parked
+// in pendingGpas. The GPA board applies the parked GPAs, under its own
+// lock, when it is next queried; pendingIds lists the students with one, so
+// a query does not walk the whole map to find them.
+public class RankingViews implements GradeListener {
+    private final GradeScale scale;
+    private final Map<String, Leaderboard> courseRanks = new ConcurrentHashMap<>();
+    private final Map<String, GradedCourses> studentCourses = new ConcurrentHashMap<>();
+    // Latest GPA of each student not yet applied to gpaRanks; NaN removes
+    private final ConcurrentHashMap<String, Double> pendingGpas = new ConcurrentHashMap<>();
+    private final Queue<String> pendingIds = new ConcurrentLinkedQueue<>();
+    private final Leaderboard gpaRanks;
+    
+    public RankingViews() {
+        this(GradeScale.STANDARD);
+    }
+    
+    public RankingViews(GradeScale scale) {
+        this.scale = scale;
+        this.gpaRanks = new Leaderboard(scale.maxPoints());
+    }
+    
+    @Override
+    public void gradeChanged(GradeEvent event) {
+        String studentId = event.getStudentId();
+        String courseCode = event.getCourseCode();
+        GradedCourses courses = studentCourses.computeIfAbsent(studentId, id -> new GradedCourses());
+        if (event.hasGrade()) {
+            Leaderboard ranks = courseRanks.computeIfAbsent(courseCode, code -> new Leaderboard(100.0));
+            synchronized (ranks) {
+                ranks.update(studentId, event.getCourseGrade());
+            }
+        } else {
+            Leaderboard ranks = courseRanks.get(courseCode);
+            if (ranks != null) {
+                synchronized (ranks) {
+                    ranks.remove(studentId);
+                }
+            }
+        }
+        // Parked under the student's own lock, so a later GPA never gives way to an earlier one
+        synchronized (courses) {
+            if (event.hasGrade()) courses.put(courseCode, event.getCredits(), scale.points(event.getCourseGrade()));
+            else courses.remove(courseCode);
+            if (pendingGpas.put(studentId, courses.gpa()) == null) pendingIds.add(studentId);
+        }
+    }
+    
+    @Override
+    public void reset() {
+        synchronized (gpaRanks) {
+            courseRanks.clear();
+            studentCourses.clear();
+            pendingGpas.clear();
+            pendingIds.clear();
+            gpaRanks.clear();
+        }
+    }
+    
+    public int getCourseRank(String courseCode, String studentId) {
+        Leaderboard ranks = courseRanks.get(courseCode);
+        if (ranks == null) return 0;
+        synchronized (ranks) {
+            return ranks.rank(studentId);
+        }
+    }
+    
+    public double getCourseGrade(String courseCode, String studentId) {
+        Leaderboard ranks = courseRanks.get(courseCode);
+        if (ranks == null) return Double.NaN;
+        synchronized (ranks) {
+            return ranks.score(studentId);
+        }
+    }
+    
+    public int getRankedCount(String courseCode) {
+        Leaderboard ranks = courseRanks.get(courseCode);
+        if (ranks == null) return 0;
+        synchronized (ranks) {
+            return ranks.size();
+        }
+    }
+    
+    public List<Leaderboard.Entry> getCourseTop(String courseCode, int limit) {
+        Leaderboard ranks = courseRanks.get(courseCode);
+        if (ranks == null) return new ArrayList<>();
+        synchronized (ranks) {
+            return ranks.top(limit);
+        }
+    }
+    
+    public double getGpa(String studentId) {
+        synchronized (gpaRanks) {
+            applyPendingGpas();
+            return gpaRanks.score(studentId);
+        }
+    }
+    
+    public int getGpaRank(String studentId) {
+        synchronized (gpaRanks) {
+            applyPendingGpas();
+            return gpaRanks.rank(studentId);
+        }
+    }
+    
+    public int getGpaRankedCount() {
+        synchronized (gpaRanks) {
+            applyPendingGpas();
+            return gpaRanks.size();
+        }
+    }
+    
+    public List<Leaderboard.Entry> getTopByGpa(int limit) {
+        synchronized (gpaRanks) {
+            applyPendingGpas();
+            return gpaRanks.top(limit);
+        }
+    }
+    
+    public List<Leaderboard.Entry> getDeansList(double minGpa) {
+        synchronized (gpaRanks) {
+            applyPendingGpas();
+            return gpaRanks.atLeast(minGpa);
+        }
+    }
+    
+    // Called with gpaRanks locked. A GPA parked after its student's id was
+    // taken from the queue finds no entry in the map, so it queues the id again.
+    private void applyPendingGpas() {
+        String studentId;
+        while ((studentId = pendingIds.poll()) != null) {
+            Double gpa = pendingGpas.remove(studentId);
+            if (gpa == null) continue;
+            if (gpa.isNaN()) gpaRanks.remove(studentId);
+            else gpaRanks.update(studentId, gpa);
+        }
+    }
+    
+    // One student's graded courses in small parallel arrays; a student has a
+    // handful, so a scan is cheaper than a map per student
+    private static class GradedCourses {
+        private String[] codes = new String[4];
+        private int[] credits = new int[4];
+        private double[] points = new double[4];
+        private int count;
+        
+        void put(String courseCode, int courseCredits, double gradePoints) {
+            int i = indexOf(courseCode);
+            if (i < 0) {
+                if (count == codes.length) {
+                    codes = Arrays.copyOf(codes, count * 2);
+                    credits = Arrays.copyOf(credits, count * 2);
+                    points = Arrays.copyOf(points, count * 2);
+                }
+                i = count++;
+                codes[i] = courseCode;
+            }
+            credits[i] = courseCredits;
+            points[i] = gradePoints;
+        }
+        
+        void remove(String courseCode) {
+            int i = indexOf(courseCode);
+            if (i < 0) return;
+            count--;
+            codes[i] = codes[count];
+            credits[i] = credits[count];
+            points[i] = points[count];
+            codes[count] = null;
+        }
+        
+        private int indexOf(String courseCode) {
+            for (int i = 0; i < count; i++) {
+                if (codes[i].equals(courseCode)) return i;
+            }
+            return -1;
+        }
+        
+        // Credit-weighted; NaN without graded courses. Courses without credits count once.
+        double gpa() {
+            double totalCredits = 0.0;
+            double totalPoints = 0.0;
+            for (int i = 0; i < count; i++) {
+                double weight = credits[i] > 0 ? credits[i] : 1.0;
+                totalCredits += weight;
+                totalPoints += points[i] * weight;
+            }
+            return totalCredits > 0 ? totalPoints / totalCredits : Double.NaN;
+        }
+    }
+}
\ No newline at end of file
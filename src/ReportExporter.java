@@ -0,0 +1,210 @@
+import java.util.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.concurrent.*;
+import java.util.zip.*;
+
+// Bulk export of every student report (and optionally every course report),
+// or of every transcript. Reports are rendered in batches on a fixed pool,
+// each worker reusing one StringBuilder. With a directory target the workers
+// write their own files (students/<id>.txt, courses/<code>.txt,
+// transcripts/<id>.txt); with a .zip target the calling thread writes the
+// rendered batches into the archive in order.
+public class ReportExporter {
+    private static final int BATCH_SIZE = 256;
+    
+    private final GradeTracker tracker;
+    private final int threads;
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(4096));
+    
+    public ReportExporter(GradeTracker tracker) {
+        this(tracker, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public ReportExporter(GradeTracker tracker, int threads) {
+        this.tracker = tracker;
+        this.threads = Math.max(1, threads);
+    }
+    
+    // Called from the exporting thread after each finished batch
+    public interface Progress {
+        void update(int done, int total);
+    }
+    
+    public Result exportAll(Path target, boolean includeCourses, Progress progress) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        for (String studentId : tracker.getStudentIds()) {
+            jobs.add(new Job("students/" + fileName(studentId), studentId, Kind.STUDENT));
+        }
+        if (includeCourses) {
+            for (String courseCode : tracker.getCourseCodes()) {
+                jobs.add(new Job("courses/" + fileName(courseCode), courseCode, Kind.COURSE));
+            }
+        }
+        return export(target, jobs, null, progress);
+    }
+    
+    // Transcripts come from the engine, so terms unchanged since its last run are reused
+    public Result exportTranscripts(Path target, TranscriptEngine engine, Progress progress) throws IOException {
+        List<Job> jobs = new ArrayList<>();
+        for (String studentId : tracker.getStudentIds()) {
+            jobs.add(new Job("transcripts/" + fileName(studentId), studentId, Kind.TRANSCRIPT));
+        }
+        return export(target, jobs, engine, progress);
+    }
+    
+    private Result export(Path target, List<Job> jobs, TranscriptEngine engine, Progress progress) throws IOException {
+        boolean zip = target.getFileName().toString().toLowerCase().endsWith(".zip");
+        if (zip) {
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+        } else {
+            Set<Kind> kinds = EnumSet.noneOf(Kind.class);
+            for (Job job : jobs) {
+                if (kinds.add(job.kind)) Files.createDirectories(target.resolve(job.path).getParent());
+            }
+        }
+        
+        Result result = new Result();
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<Rendered>>> pending = new ArrayDeque<>();
+        try (ZipOutputStream archive = zip ? new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target), 1 << 16)) : null) {
+            for (int from = 0; from < jobs.size(); from += BATCH_SIZE) {
+                List<Job> batch = jobs.subList(from, Math.min(from + BATCH_SIZE, jobs.size()));
+                pending.addLast(pool.submit(() -> render(batch, engine, zip ? null : target)));
+                // Bound the number of rendered batches waiting in memory
+                while (pending.size() >= threads * 2) {
+                    finish(pending.removeFirst(), archive, result, jobs.size(), progress);
+                }
+            }
+            while (!pending.isEmpty()) {
+                finish(pending.removeFirst(), archive, result, jobs.size(), progress);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        result.elapsedNanos = System.nanoTime() - start;
+        return result;
+    }
+    
+    // Renders a batch; with a directory the files are written here, otherwise
+    // the bytes are handed back for the archive
+    private List<Rendered> render(List<Job> batch, TranscriptEngine engine, Path directory) throws IOException {
+        StringBuilder text = buffers.get();
+        List<Rendered> rendered = new ArrayList<>(batch.size());
+        for (Job job : batch) {
+            text.setLength(0);
+            boolean found;
+            switch (job.kind) {
+                case COURSE: found = tracker.appendCourseReport(job.key, text); break;
+                case TRANSCRIPT: found = engine.appendTranscript(job.key, text); break;
+                default: found = tracker.appendStudentReportFile(job.key, text); break;
+            }
+            if (!found) {
+                // Removed while the export was running
+                rendered.add(new Rendered(job.path, null, 0));
+                continue;
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            if (directory != null) {
+                Files.write(directory.resolve(job.path), bytes);
+                rendered.add(new Rendered(job.path, null, bytes.length));
+            } else {
+                rendered.add(new Rendered(job.path, bytes, bytes.length));
+            }
+        }
+        return rendered;
+    }
+    
+    private void finish(Future<List<Rendered>> batch, ZipOutputStream archive, Result result,
+                        int total, Progress progress) throws IOException {
+        List<Rendered> rendered;
+        try {
+            rendered = batch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Failed to render reports", e.getCause());
+        }
+        
+        for (Rendered report : rendered) {
+            if (report.size == 0) {
+                result.skipped++;
+                continue;
+            }
+            if (archive != null) {
+                archive.putNextEntry(new ZipEntry(report.path));
+                archive.write(report.bytes);
+                archive.closeEntry();
+            }
+            result.reports++;
+            result.bytes += report.size;
+        }
+        if (progress != null) progress.update(result.reports + result.skipped, total);
+    }
+    
+    // Percent-encodes every byte outside [A-Za-z0-9._-], so distinct keys
+    // (e.g. "A/1" and "A_1") never share a file
+    static String fileName(String key) {
+        StringBuilder name = new StringBuilder(key.length() + 4);
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '.' || c == '_' || c == '-') {
+                name.append((char) c);
+            } else {
+                name.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                    .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return name.append(".txt").toString();
+    }
+    
+    private enum Kind { STUDENT, COURSE, TRANSCRIPT }
+    
+    private static class Job {
+        final String path;
+        final String key;
+        final Kind kind;
+        
+        Job(String path, String key, Kind kind) {
+            this.path = path;
+            this.key = key;
+            this.kind = kind;
+        }
+    }
+    
+    private static class Rendered {
+        final String path;
+        final byte[] bytes;
+        final long size;
+        
+        Rendered(String path, byte[] bytes, long size) {
+            this.path = path;
+            this.bytes = bytes;
+            this.size = size;
+        }
+    }
+    
+    public static class Result {
+        private int reports;
+        private int skipped;
+        private long bytes;
+        private long elapsedNanos;
+        
+        public int getReports() { return reports; }
+        public int getSkipped() { return skipped; }
+        public long getBytes() { return bytes; }
+        public double getElapsedSeconds() { return elapsedNanos / 1e9; }
+        
+        public double getReportsPerSecond() {
+            return elapsedNanos > 0 ? reports / (elapsedNanos / 1e9) : 0.0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,387 @@
+import java.util.*;
+import java.io.*;
+
+// Text layout of every report. It only formats what it is handed; the
+// tracker reads records under its locks and passes them in. Output goes to a
+// buffered PrintWriter, so callers flush once per report instead of the
+// console being written line by line.
+public class ReportRenderer {
+    private static final String NL = System.lineSeparator();
+    private static final String RULE = "=".repeat(50);
+    
+    private final PrintWriter out;
+    
+    public ReportRenderer(PrintWriter out) {
+        this.out = out;
+    }
+    
+    public ReportRenderer(Writer out) {
+        this(new PrintWriter(out));
+    }
+    
+    // Buffered view of System.out; flush it, never close it
+    public static ReportRenderer console() {
+        return new ReportRenderer(new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out)), false));
+    }
+    
+    public PrintWriter writer() {
+        return out;
+    }
+    
+    public void flush() {
+        out.flush();
+    }
+    
+    public void error(String message) {
+        out.println("ERROR: " + message);
+    }
+    
+    public void success(String message) {
+        out.println("SUCCESS: " + message);
+    }
+    
+    public void studentReport(Student student, Map<String, Course> courses) {
+        out.println("\nSTUDENT REPORT: " + student.getName() + " (" + student.getSrCode() + ")");
+        out.println("Major: " + student.getMajor());
+        out.println("=" .repeat(50));
+        
+        List<String> enrolledCourses = student.getEnrolledCourses();
+        if(enrolledCourses.isEmpty()) {
+            out.println("No courses enrolled.");
+            return;
+        }
+        
+        for(String courseCode : enrolledCourses) {
+            Course course = courses.get(courseCode);
+            if(course != null) {
+                double grade = student.getCourseGrade(course);
+                out.printf("\n%s - %s (%.2f%% %s)%n",
+                    courseCode, course.getName(), grade, student.getGradeLetter(grade));
+                categoryLines(student, courseCode, "   ");
+            }
+        }
+    }
+    
+    // Layout of the file written by Export Report. The append methods build
+    // into a caller-owned StringBuilder so bulk export can reuse one per thread.
+    public static void appendStudentReportFile(StringBuilder out, Student student, Map<String, Course> courses) {
+        out.append("STUDENT REPORT").append(NL);
+        out.append("==============").append(NL);
+        out.append("Name: ").append(student.getName()).append(NL);
+        out.append("SR Code: ").append(student.getSrCode()).append(NL);
+        out.append("Major: ").append(student.getMajor()).append(NL);
+        out.append(NL);
+        out.append("COURSES AND GRADES:").append(NL);
+        out.append("===================").append(NL);
+        
+        for (String courseCode : student.getEnrolledCourses()) {
+            Course course = courses.get(courseCode);
+            if (course != null) {
+                double grade = student.getCourseGrade(course);
+                out.append(courseCode).append(" - ").append(course.getName()).append(": ");
+                DecimalText.append(out, grade, 2).append("% (").append(student.getGradeLetter(grade)).append(')').append(NL);
+                for (String assignmentType : student.getAssignmentTypes(courseCode)) {
+                    out.append("  ").append(assignmentType).append(": ");
+                    DecimalText.append(out, student.getCategoryAverage(courseCode, assignmentType), 2).append("% (")
+                        .append(student.getCategoryCount(courseCode, assignmentType)).append(" assignments)").append(NL);
+                }
+                out.append(NL);
+            }
+        }
+    }
+    
+    public static void appendTranscript(StringBuilder out, TranscriptEngine.Transcript transcript) {
+        out.append("TRANSCRIPT").append(NL);
+        out.append("==========").append(NL);
+        out.append("Name: ").append(transcript.getName()).append(NL);
+        out.append("SR Code: ").append(transcript.getStudentId()).append(NL);
+        out.append("Major: ").append(transcript.getMajor()).append(NL);
+        out.append("Grade Scale: ").append(transcript.getScale().getName()).append(NL);
+        
+        for (TranscriptEngine.TermRollup term : transcript.getTerms()) {
+            out.append(NL).append(term.getTerm().isEmpty() ? "NO TERM" : term.getTerm().toUpperCase()).append(NL);
+            out.append(RULE).append(NL);
+            for (TranscriptEngine.CourseLine line : term.getCourses()) {
+                out.append(line.getCode()).append(" - ").append(line.getName())
+                    .append(" (").append(line.getCredits()).append(" cr): ");
+                if (line.isGraded()) {
+                    DecimalText.append(out, line.getGrade(), 2).append("% ").append(line.getLetter()).append(' ');
+                    DecimalText.append(out, line.getPoints(), 2).append(NL);
+                } else {
+                    out.append("In progress").append(NL);
+                }
+            }
+            out.append("Credits: ").append(term.getEarnedCredits()).append('/').append(term.getAttemptedCredits())
+                .append(" earned | Term GPA: ");
+            appendGpa(out, term.getGpa()).append(NL);
+        }
+        
+        out.append(NL).append(RULE).append(NL);
+        out.append("Total Credits: ").append(transcript.getEarnedCredits()).append('/')
+            .append(transcript.getAttemptedCredits()).append(" earned").append(NL);
+        out.append("Cumulative GPA: ");
+        appendGpa(out, transcript.getCumulativeGpa()).append(NL);
+    }
+    
+    private static StringBuilder appendGpa(StringBuilder out, double gpa) {
+        return Double.isNaN(gpa) ? out.append("N/A") : DecimalText.append(out, gpa, 2);
+    }
+    
+    private void categoryLines(Student student, String courseCode, String indent) {
+        for (String assignmentType : student.getAssignmentTypes(courseCode)) {
+            out.printf("%s%s: %.2f%% (%d assignments)%n", indent,
+                assignmentType, student.getCategoryAverage(courseCode, assignmentType),
+                student.getCategoryCount(courseCode, assignmentType));
+        }
+    }
+    
+    public static void appendCourseReportHeader(StringBuilder out, Course course, int enrolled) {
+        out.append(NL).append("COURSE REPORT: ").append(course.getCode()).append(" - ").append(course.getName()).append(NL);
+        out.append("Credits: ").append(course.getCredits()).append(NL);
+        out.append("Enrolled Students: ").append(enrolled).append(NL);
+        out.append(RULE).append(NL);
+    }
+    
+    public static void appendCourseReportRow(StringBuilder out, Student student, double grade) {
+        out.append(student.getSrCode()).append(" - ").append(student.getName()).append(": ");
+        DecimalText.append(out, grade, 2).append("% (").append(student.getGradeLetter(grade)).append(')').append(NL);
+    }
+    
+    public static void appendCourseStatistics(StringBuilder out, CourseStatistics stats) {
+        out.append(NL).append("COURSE STATISTICS:").append(NL);
+        out.append("Average: ");
+        DecimalText.append(out, stats.getMean(), 2).append("% | Highest: ");
+        DecimalText.append(out, stats.getMax(), 2).append("% | Lowest: ");
+        DecimalText.append(out, stats.getMin(), 2).append('%').append(NL);
+        out.append("Median: ");
+        DecimalText.append(out, stats.getMedian(), 2).append("% | Std Dev: ");
+        DecimalText.append(out, stats.getStdDev(), 2).append(" | 25th: ");
+        DecimalText.append(out, stats.percentile(25), 2).append("% | 75th: ");
+        DecimalText.append(out, stats.percentile(75), 2).append("% | 90th: ");
+        DecimalText.append(out, stats.percentile(90), 2).append('%').append(NL);
+        out.append("Grade Distribution: ").append(histogram(stats.getHistogram())).append(NL);
+    }
+    
+    private static String histogram(int[] histogram) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < histogram.length; i++) {
+            if (i > 0) line.append(" | ");
+            line.append(CourseStatistics.LETTERS[i]).append(": ").append(histogram[i]);
+        }
+        return line.toString();
+    }
+    
+    public void currentGrade(Student student, double currentGrade) {
+        out.println("\nGRADE PREDICTOR");
+        out.printf("Current Grade: %.2f%% (%s)%n", currentGrade, student.getGradeLetter(currentGrade));
+    }
+    
+    public void gradePrediction(double desiredGrade, double neededGrade) {
+        out.printf("\nTo get %.1f%% in the course, you need: %.1f%% on the final%n",
+            desiredGrade, neededGrade);
+        
+        if(neededGrade > 100) {
+            out.println("WARNING: This target may not be achievable!");
+        } else if(neededGrade < 0) {
+            out.println("SUCCESS: You've already achieved this grade!");
+        }
+    }
+    
+    // One row per student with the final exam score needed for each cut-off:
+    // "--" when out of reach, "ok" when already secured
+    public void coursePrediction(CoursePrediction prediction) {
+        out.printf("%nFINAL EXAM NEEDED: %s (final %.0f%%, %s scale, %d students)%n",
+            prediction.getCourseCode(), prediction.getFinalWeight() * 100,
+            prediction.getScale().getName(), prediction.getCount());
+        out.printf("%-12s %-25s %8s", "SR-Code", "Name", "Current");
+        for (int t = 0; t < prediction.getCutoffCount(); t++) {
+            out.printf(" %6s", prediction.getCutoffLetter(t));
+        }
+        out.println();
+        out.println("-".repeat(47 + 7 * prediction.getCutoffCount()));
+        for (int i = 0; i < prediction.getCount(); i++) {
+            out.printf("%-12s %-25s %7.2f%%", prediction.getStudentId(i), prediction.getName(i),
+                prediction.getCurrentGrade(i));
+            for (int t = 0; t < prediction.getCutoffCount(); t++) {
+                double needed = prediction.getNeeded(t, i);
+                if (needed > 100) out.printf(" %6s", "--");
+                else if (needed <= 0) out.printf(" %6s", "ok");
+                else out.printf(" %6.1f", needed);
+            }
+            out.println();
+        }
+        out.print("Reachable:");
+        for (int t = 0; t < prediction.getCutoffCount(); t++) {
+            out.printf(" %s %d/%d", prediction.getCutoffLetter(t), prediction.getReachable(t), prediction.getCount());
+        }
+        out.println();
+    }
+    
+    public void courseTableHeader() {
+        out.println("\n=== ALL COURSES IN DATABASE ===");
+    }
+    
+    public void courseTableColumns() {
+        out.printf("%-12s %-25s %-8s %-15s%n",
+            "Course Code", "Course Name", "Credits", "Enrolled Students");
+        out.println("-".repeat(65));
+    }
+    
+    public void courseTableRow(Course course, int enrolledCount) {
+        out.printf("%-12s %-25s %-8d %-15d%n",
+            course.getCode(), course.getName(), course.getCredits(), enrolledCount);
+    }
+    
+    public void courseDetails(Course course, List<Student> enrolledStudents) {
+        out.println("\n" + course.getCode() + " - " + course.getName());
+        out.println("  Credits: " + course.getCredits());
+        out.println("  Enrollment: " + enrolledStudents.size() + " students");
+        
+        out.println("  Grading Weights:");
+        for (Map.Entry<String, Double> weight : course.getWeights().entrySet()) {
+            out.printf("    %s: %.0f%%%n", weight.getKey(), weight.getValue() * 100);
+        }
+        
+        if (!enrolledStudents.isEmpty()) {
+            out.println("  Enrolled Students:");
+            for (Student student : enrolledStudents) {
+                out.printf("    %s - %s%n", student.getSrCode(), student.getName());
+            }
+        }
+    }
+    
+    public void studentTableHeader() {
+        out.println("\n=== ALL STUDENTS IN DATABASE ===");
+    }
+    
+    public void studentTableColumns() {
+        out.printf("%-10s %-20s %-15s %-15s%n",
+            "SR Code", "Name", "Major", "Enrolled Courses");
+        out.println("-".repeat(65));
+    }
+    
+    public void studentTableRow(Student student, int courseCount) {
+        out.printf("%-10s %-20s %-15s %-15d%n",
+            student.getSrCode(), student.getName(), student.getMajor(), courseCount);
+    }
+    
+    public void studentSummary(Student student, Map<String, Course> courses) {
+        out.println("\n" + student.getSrCode() + " - " + student.getName());
+        out.println("  Major: " + student.getMajor());
+        out.println("  Enrolled in " + student.getEnrolledCourses().size() + " courses:");
+        
+        for (String courseCode : student.getEnrolledCourses()) {
+            Course course = courses.get(courseCode);
+            if (course != null) {
+                double grade = student.getCourseGrade(course);
+                out.printf("    %s: %.2f%% (%s)%n",
+                    courseCode, grade, student.getGradeLetter(grade));
+            }
+        }
+    }
+    
+    public void databaseOverview(int studentCount, Map<String, Course> courses,
+                                 Map<String, Integer> enrollmentCounts,
+                                 Map<String, CourseStatistics> statistics) {
+        out.println("\n=== DATABASE OVERVIEW ===");
+        out.println("Statistics:");
+        out.printf("  Total Students: %d%n", studentCount);
+        out.printf("  Total Courses: %d%n", courses.size());
+        
+        int totalEnrollments = enrollmentCounts.values().stream()
+            .mapToInt(Integer::intValue).sum();
+        out.printf("  Total Course Enrollments: %d%n", totalEnrollments);
+        
+        double avgCourses = studentCount == 0 ? 0 : (double) totalEnrollments / studentCount;
+        out.printf("  Average Courses per Student: %.1f%n", avgCourses);
+        
+        out.println("\nMost Popular Courses:");
+        if (!enrollmentCounts.isEmpty()) {
+            enrollmentCounts.entrySet().stream()
+                .sorted((a, b) -> Integer.compare(b.getValue(), a.getValue()))
+                .limit(3)
+                .forEach(entry -> {
+                    Course course = courses.get(entry.getKey());
+                    if (course != null) {
+                        out.printf("  %s - %s (%d students)%n",
+                            course.getCode(), course.getName(), entry.getValue());
+                    }
+                });
+        }
+        
+        int graded = 0;
+        double gradeSum = 0.0;
+        int[] histogram = new int[CourseStatistics.LETTERS.length];
+        for (CourseStatistics stats : statistics.values()) {
+            graded += stats.getCount();
+            gradeSum += stats.getMean() * stats.getCount();
+            int[] courseHistogram = stats.getHistogram();
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] += courseHistogram[i];
+            }
+        }
+        if (graded > 0) {
+            out.println("\nCourse Grades:");
+            out.printf("  Average Course Grade: %.2f%%%n", gradeSum / graded);
+            out.println("  Grade Distribution: " + histogram(histogram));
+            
+            out.println("\nHighest Course Averages:");
+            statistics.values().stream()
+                .filter(stats -> stats.getCount() > 0)
+                .sorted((a, b) -> Double.compare(b.getMean(), a.getMean()))
+                .limit(3)
+                .forEach(stats -> out.printf("  %s - avg %.2f%%, median %.2f%% (%d students)%n",
+                    stats.getCourseCode(), stats.getMean(), stats.getMedian(), stats.getCount()));
+        }
+    }
+    
+    public void courseSearchHeader() {
+        out.println("\nSEARCH RESULTS FOR COURSES:");
+    }
+    
+    public void courseSearchRow(Course course) {
+        out.printf("  %s - %s (%d credits)%n",
+            course.getCode(), course.getName(), course.getCredits());
+    }
+    
+    public void studentSearchHeader() {
+        out.println("\nSEARCH RESULTS FOR STUDENTS:");
+    }
+    
+    public void studentSearchRow(Student student, int courseCount) {
+        out.printf("  %s - %s (%s) - %d courses%n",
+            student.getSrCode(), student.getName(), student.getMajor(), courseCount);
+    }
+    
+    public void rankingHeader(String title, int rankedCount) {
+        out.println("\n=== " + title + " (" + rankedCount + " ranked) ===");
+        out.printf("%-6s %-12s %-25s %s%n", "Rank", "SR-Code", "Name", "Score");
+        out.println("-".repeat(55));
+    }
+    
+    public void rankingRow(int rank, String studentId, String name, double score, boolean percent) {
+        out.printf("%-6d %-12s %-25s %.2f%s%n", rank, studentId, name, score, percent ? "%" : "");
+    }
+    
+    public void studentStanding(Student student, double gpa, int gpaRank, int rankedCount) {
+        out.println("\nSTANDING: " + student.getName() + " (" + student.getSrCode() + ")");
+        if (Double.isNaN(gpa)) {
+            out.println("No graded courses yet.");
+            return;
+        }
+        out.printf("GPA: %.2f | Rank: %d of %d%n", gpa, gpaRank, rankedCount);
+    }
+    
+    public void courseStanding(String courseCode, double grade, int rank, int rankedCount) {
+        out.printf("  %s: %.2f%% - rank %d of %d%n", courseCode, grade, rank, rankedCount);
+    }
+    
+    public void noSearchResults(String kind, String query) {
+        out.println("No " + kind + " found matching: " + query);
+    }
+    
+    public void searchPageFooter(SearchIndex.Page<?> page) {
+        int shown = page.getOffset() + page.getResults().size();
+        out.printf("Showing %d-%d of %d%n", page.getOffset() + 1, shown, page.getTotal());
+    }
+}
\ No newline at end of file
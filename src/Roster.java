@@ -0,0 +1,91 @@
+import java.util.*;
+
+// Insertion-ordered set of student ids (Symbols.STUDENTS) enrolled in one
+// course: the ids in enrollment order, plus an open-addressing table of
+// their positions for membership checks. Replaces a LinkedHashSet<String>,
+// which spent a node and a boxed hash per enrollment.
+public class Roster {
+    private int[] ids;
+    private int size;
+    // position + 1 of each id, 0 for an empty slot; at most half full
+    private int[] slots;
+    
+    public Roster() {
+        this(4);
+    }
+    
+    public Roster(int expectedSize) {
+        this.ids = new int[Math.max(4, expectedSize)];
+        this.slots = new int[tableSize(ids.length)];
+    }
+    
+    public boolean add(int studentId) {
+        resolve();
+        return insert(studentId);
+    }
+    
+    public boolean contains(int studentId) {
+        resolve();
+        int mask = slots.length - 1;
+        for (int slot = mix(studentId) & mask; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (ids[slots[slot] - 1] == studentId) return true;
+        }
+        return false;
+    }
+    
+    public int size() {
+        resolve();
+        return size;
+    }
+    
+    public int get(int index) {
+        resolve();
+        Objects.checkIndex(index, size);
+        return ids[index];
+    }
+    
+    public int[] toArray() {
+        resolve();
+        return Arrays.copyOf(ids, size);
+    }
+    
+    // Subclasses that fill the roster on first use do it here
+    protected void resolve() {
+    }
+    
+    // Adds without resolve(), for subclasses filling the roster
+    protected final boolean insert(int studentId) {
+        int mask = slots.length - 1;
+        int slot = mix(studentId) & mask;
+        for (; slots[slot] != 0; slot = (slot + 1) & mask) {
+            if (ids[slots[slot] - 1] == studentId) return false;
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = studentId;
+        slots[slot] = size;
+        if (size * 2 > slots.length) rehash();
+        return true;
+    }
+    
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = mix(ids[i]) & mask;
+            while (slots[slot] != 0) slot = (slot + 1) & mask;
+            slots[slot] = i + 1;
+        }
+    }
+    
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(4, capacity * 2 - 1)) << 1;
+    }
+    
+    // Dense ids are sequential; spread them so neighbours do not cluster
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
\ No newline at end of file
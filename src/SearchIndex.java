@@ -0,0 +1,165 @@
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Case-insensitive substring index over a few text fields per record.
+// Every 3-character window of every field points at the records containing it,
+// so a query only verifies the records that share all of its trigrams instead
+// of scanning everything. Queries shorter than three characters fall back to
+// a scan of the already lower-cased fields.
+public class SearchIndex<T> {
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<T> values = new ArrayList<>();
+    private final List<String[]> fields = new ArrayList<>();
+    private final Map<Long, Postings> trigrams = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private int live;
+    
+    // Adding a key again replaces the earlier record
+    public void add(String key, T value, String... text) {
+        String[] lower = new String[text.length];
+        for (int i = 0; i < text.length; i++) {
+            lower[i] = text[i] != null ? text[i].toLowerCase() : "";
+        }
+        
+        lock.writeLock().lock();
+        try {
+            Integer previous = ids.get(key);
+            if (previous != null) {
+                values.set(previous, null);
+                fields.set(previous, null);
+                live--;
+            }
+            int id = values.size();
+            ids.put(key, id);
+            values.add(value);
+            fields.add(lower);
+            live++;
+            for (String field : lower) {
+                for (int i = 0; i + 3 <= field.length(); i++) {
+                    trigrams.computeIfAbsent(trigram(field, i), t -> new Postings()).add(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean contains(String key) {
+        lock.readLock().lock();
+        try {
+            return ids.containsKey(key);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Matches ranked by how well the best field matches (whole field, field
+    // prefix, word prefix, anywhere), then by insertion order
+    public Page<T> search(String query, int offset, int limit) {
+        String term = query.trim().toLowerCase();
+        List<int[]> matches = new ArrayList<>();
+        
+        lock.readLock().lock();
+        try {
+            if (term.isEmpty()) return new Page<>(Collections.emptyList(), 0, offset);
+            
+            if (term.length() < 3) {
+                for (int id = 0; id < fields.size(); id++) {
+                    rank(id, term, matches);
+                }
+            } else {
+                Postings[] lists = new Postings[term.length() - 2];
+                for (int i = 0; i < lists.length; i++) {
+                    lists[i] = trigrams.get(trigram(term, i));
+                    if (lists[i] == null) return new Page<>(Collections.emptyList(), 0, offset);
+                }
+                Arrays.sort(lists, Comparator.comparingInt(p -> p.size));
+                
+                Postings smallest = lists[0];
+                for (int i = 0; i < smallest.size; i++) {
+                    int id = smallest.ids[i];
+                    boolean inAll = true;
+                    for (int j = 1; j < lists.length && inAll; j++) {
+                        inAll = lists[j].contains(id);
+                    }
+                    if (inAll) rank(id, term, matches);
+                }
+            }
+            
+            matches.sort((a, b) -> a[1] != b[1] ? Integer.compare(b[1], a[1]) : Integer.compare(a[0], b[0]));
+            int from = Math.min(Math.max(offset, 0), matches.size());
+            int to = Math.min(from + Math.max(limit, 0), matches.size());
+            List<T> results = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                results.add(values.get(matches.get(i)[0]));
+            }
+            return new Page<>(results, matches.size(), from);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void rank(int id, String term, List<int[]> matches) {
+        String[] text = fields.get(id);
+        if (text == null) return;
+        
+        int best = -1;
+        for (String field : text) {
+            int at = field.indexOf(term);
+            if (at < 0) continue;
+            int score;
+            if (at == 0 && field.length() == term.length()) score = 3;
+            else if (at == 0) score = 2;
+            else if (!Character.isLetterOrDigit(field.charAt(at - 1))) score = 1;
+            else score = 0;
+            best = Math.max(best, score);
+        }
+        if (best >= 0) matches.add(new int[] {id, best});
+    }
+    
+    private static long trigram(String text, int i) {
+        return ((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2);
+    }
+    
+    // Record ids in ascending order, so membership is a binary search
+    private static class Postings {
+        int[] ids = new int[4];
+        int size;
+        
+        void add(int id) {
+            if (size > 0 && ids[size - 1] == id) return;
+            if (size == ids.length) ids = Arrays.copyOf(ids, size * 2);
+            ids[size++] = id;
+        }
+        
+        boolean contains(int id) {
+            return Arrays.binarySearch(ids, 0, size, id) >= 0;
+        }
+    }
+    
+    public static class Page<T> {
+        private final List<T> results;
+        private final int total;
+        private final int offset;
+        
+        Page(List<T> results, int total, int offset) {
+            this.results = results;
+            this.total = total;
+            this.offset = offset;
+        }
+        
+        public List<T> getResults() { return results; }
+        public int getTotal() { return total; }
+        public int getOffset() { return offset; }
+        public boolean hasMore() { return offset + results.size() < total; }
+    }
+}
\ No newline at end of file
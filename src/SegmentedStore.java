@@ -0,0 +1,678 @@
+import java.util.*;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+// On-disk layout of the tracker's data as separately rewritable segments:
+//
+//   students-NN-G.snapshot   one GradeSnapshot per shard of students (by SR-code hash)
+//   courses-G.snapshot       a GradeSnapshot holding only the courses
+//   enrollments-G.dat        every course's roster in enrollment order
+//   manifest-G               generation G: journal sequence, and the file, size
+//                            and CRC32C of every segment
+//
+// G is the generation that last wrote the segment. Mutations mark the shard,
+// the courses or the enrollments dirty. A save first captures copies of only
+// those, with the tracker's locks held, then writes them in parallel under
+// new names after the locks are released. Each file is forced to disk before it is renamed
+// into place, and the new manifest is published last with an atomic move: a
+// crash at any point leaves the previous generation intact. The newest two
+// generations are kept; loading verifies every checksum and falls back to
+// the older one if anything in the newer one is missing or damaged.
+public class SegmentedStore {
+    public static final int SHARDS = 64;
+    static final int MANIFEST_MAGIC = 0x5347544D; // "SGTM"
+    static final int ENROLLMENTS_MAGIC = 0x53475445; // "SGTE"
+    // Version 1 manifests (a single "manifest" file) had no sizes or checksums
+    static final short MANIFEST_VERSION = 2;
+    static final short ENROLLMENTS_VERSION = 1;
+    private static final String MANIFEST = "manifest";
+    // Segment writes mostly wait on fsync, so more writers than cores still help
+    private static final int WORKERS = Math.max(4, Runtime.getRuntime().availableProcessors());
+
+    private final Path directory;
+    // Generation the in-memory state was loaded from or last saved as; null when
+    // it came from somewhere else, so the next save writes every segment
+    private volatile Manifest current;
+    private volatile AtomicIntegerArray dirtyShards = new AtomicIntegerArray(SHARDS);
+    private volatile boolean coursesDirty;
+    private volatile boolean enrollmentsDirty;
+
+    public SegmentedStore(Path directory) {
+        this.directory = directory;
+    }
+
+    public Path getDirectory() { return directory; }
+
+    // Generation the in-memory state matches on disk, 0 if none
+    public long getGeneration() {
+        Manifest manifest = current;
+        return manifest != null ? manifest.generation : 0;
+    }
+
+    public boolean exists() {
+        if (!Files.isDirectory(directory)) return false;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (isManifest(file.getFileName().toString())) return true;
+            }
+        } catch (IOException e) {
+            System.out.println("ERROR reading " + directory + ": " + e.getMessage());
+        }
+        return false;
+    }
+
+    // Dirty marks, set by the tracker under the lock of what changed
+    public void studentChanged(String srCode) {
+        AtomicIntegerArray dirty = dirtyShards;
+        dirty.set(ShardedStudentMap.shardOf(srCode, dirty.length()), 1);
+    }
+
+    public void coursesChanged() {
+        coursesDirty = true;
+    }
+
+    public void enrollmentsChanged() {
+        enrollmentsDirty = true;
+    }
+
+    public boolean isDirty() {
+        if (coursesDirty || enrollmentsDirty) return true;
+        AtomicIntegerArray dirty = dirtyShards;
+        for (int s = 0; s < dirty.length(); s++) {
+            if (dirty.get(s) != 0) return true;
+        }
+        return false;
+    }
+
+    // The in-memory state no longer comes from this store (fresh start, or loaded
+    // from a legacy file); the next save writes every segment
+    public void reset() {
+        current = null;
+        dirtyShards = new AtomicIntegerArray(SHARDS);
+        coursesDirty = false;
+        enrollmentsDirty = false;
+    }
+
+    // Loads the newest generation whose manifest and segments all verify.
+    // Students come back as a ShardedStudentMap; with lazy, each shard is a
+    // LazyStudentMap over its mapped segment and rosters are read on first use.
+    public GradeSnapshot load(boolean lazy) throws IOException {
+        List<Manifest> generations = manifests();
+        for (int i = 0; i < generations.size(); i++) {
+            Manifest manifest = generations.get(i);
+            GradeSnapshot snapshot;
+            try {
+                snapshot = load(manifest, lazy);
+            } catch (IOException e) {
+                System.out.println("ERROR: Store generation " + manifest.generation + " is damaged: " + e.getMessage());
+                continue;
+            }
+            if (i > 0) {
+                System.out.println("ERROR: Loaded the previous store generation " + manifest.generation
+                    + " instead; the journal replays the changes saved after it");
+            }
+            current = manifest;
+            dirtyShards = new AtomicIntegerArray(manifest.students.length);
+            coursesDirty = false;
+            enrollmentsDirty = false;
+            return snapshot;
+        }
+        throw new IOException("No intact generation in " + directory);
+    }
+
+    // Every segment is verified and decoded in parallel, each into a partial
+    // snapshot: the shards, then the courses, then the enrollments
+    private GradeSnapshot load(Manifest manifest, boolean lazy) throws IOException {
+        List<Callable<GradeSnapshot>> reads = new ArrayList<>();
+        for (Segment segment : manifest.students) {
+            reads.add(() -> {
+                ByteBuffer contents = contents(segment, lazy);
+                Path file = directory.resolve(segment.name);
+                return lazy ? GradeSnapshot.decodeLazily(contents, file) : GradeSnapshot.decode(contents, file);
+            });
+        }
+        reads.add(() -> GradeSnapshot.decode(contents(manifest.courses, false), directory.resolve(manifest.courses.name)));
+        reads.add(() -> new GradeSnapshot(Map.of(), Map.of(), readEnrollments(contents(manifest.enrollments, lazy),
+            directory.resolve(manifest.enrollments.name), lazy)));
+        List<GradeSnapshot> parts = runAll(reads);
+
+        Map<String, Student>[] shards = ShardedStudentMap.newShards(manifest.students.length);
+        for (int s = 0; s < shards.length; s++) {
+            shards[s] = parts.get(s).getStudents();
+        }
+        GradeSnapshot snapshot = new GradeSnapshot(new ShardedStudentMap(shards),
+            parts.get(shards.length).getCourses(), parts.get(shards.length + 1).getCourseEnrollments());
+        snapshot.setJournalSequence(manifest.journalSequence);
+        return snapshot;
+    }
+
+    // The segment's bytes, mapped or read into the heap, after checking its size and checksum
+    private ByteBuffer contents(Segment segment, boolean map) throws IOException {
+        Path file = directory.resolve(segment.name);
+        ByteBuffer contents;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (segment.size >= 0 && size != segment.size) {
+                throw new IOException(segment.name + " is " + size + " bytes, expected " + segment.size);
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Segment too large: " + file);
+            }
+            if (map) {
+                contents = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                contents = ByteBuffer.allocate((int) size);
+                while (contents.hasRemaining()) {
+                    if (channel.read(contents) < 0) break;
+                }
+                contents.flip();
+            }
+        } catch (NoSuchFileException e) {
+            throw new IOException(segment.name + " is missing");
+        }
+        if (segment.checksum >= 0) {
+            CRC32C crc = new CRC32C();
+            crc.update(contents.duplicate());
+            if (crc.getValue() != segment.checksum) {
+                throw new IOException(segment.name + " failed its checksum");
+            }
+        }
+        return contents;
+    }
+
+    // Called before capture() without any lock: decodes every student of the
+    // mapped shards the next save rewrites, so capture() only has to copy them.
+    // Mutations can go on meanwhile; decoding does not change a shard.
+    public void prepare(ShardedStudentMap students, boolean full) {
+        AtomicIntegerArray dirty = dirtyShards;
+        for (int s = 0; s < students.shardCount(); s++) {
+            Map<String, Student> shard = students.shard(s);
+            if (!(shard instanceof LazyStudentMap) || (!full && (s >= dirty.length() || dirty.get(s) == 0))) continue;
+            ((LazyStudentMap) shard).decodeAll();
+        }
+    }
+
+    // Called with every lock held. Copies the dirty segments' contents, or all
+    // of them with full, when the newest generation on disk is not the one this
+    // state came from, or when it has no checksums yet, and clears the dirty
+    // marks. Returns null when nothing changed.
+    public Capture capture(ShardedStudentMap students, Map<String, Course> courses,
+                           Map<String, Roster> enrollments, long journalSequence, boolean full) throws IOException {
+        Files.createDirectories(directory);
+        Manifest base = current;
+        long newest = newestGeneration();
+        int shardCount = students.shardCount();
+        if (base == null || base.generation != newest || !base.checked || base.students.length != shardCount
+                || dirtyShards.length() != shardCount) {
+            full = true;
+        }
+        if (!full && !isDirty()) return null;
+
+        Capture capture = new Capture(base, newest, journalSequence, shardCount);
+        for (int s = 0; s < shardCount; s++) {
+            if (!full && dirtyShards.get(s) == 0) continue;
+            Map<String, Student> shard = students.shard(s);
+            if (shard instanceof LazyStudentMap) {
+                // Rewritten anyway; stop reading from the mapping of the file being replaced
+                shard = new ConcurrentHashMap<>(shard);
+                students.replaceShard(s, shard);
+            }
+            Map<String, Student> copy = new HashMap<>(shard.size() * 2);
+            for (Student student : shard.values()) {
+                copy.put(student.getSrCode(), student.copy());
+            }
+            capture.shards[s] = copy;
+        }
+        if (full || coursesDirty) {
+            capture.courses = new HashMap<>(courses.size() * 2);
+            for (Course course : courses.values()) {
+                capture.courses.put(course.getCode(), course.copy());
+            }
+        }
+        if (full || enrollmentsDirty) {
+            capture.enrollments = new LinkedHashMap<>(enrollments.size() * 2);
+            for (Map.Entry<String, Roster> entry : enrollments.entrySet()) {
+                capture.enrollments.put(entry.getKey(), entry.getValue().toArray());
+            }
+        }
+        dirtyShards = new AtomicIntegerArray(shardCount);
+        coursesDirty = false;
+        enrollmentsDirty = false;
+        return capture;
+    }
+
+    // Puts back the dirty marks of a capture whose write failed
+    public void restore(Capture capture) {
+        AtomicIntegerArray dirty = dirtyShards;
+        for (int s = 0; s < capture.shards.length && s < dirty.length(); s++) {
+            if (capture.shards[s] != null) dirty.set(s, 1);
+        }
+        if (capture.courses != null) coursesDirty = true;
+        if (capture.enrollments != null) enrollmentsDirty = true;
+    }
+
+    // Writes a capture as the next generation; needs no tracker lock, but
+    // captures must be written one at a time and in the order they were taken.
+    // Returns how many segments were written.
+    public int write(Capture capture) throws IOException {
+        Manifest base = capture.base;
+        int shardCount = capture.shards.length;
+        long generation = Math.max(capture.newest, base != null ? base.generation : 0) + 1;
+        Manifest manifest = new Manifest(generation, capture.journalSequence, shardCount);
+        List<Callable<Segment>> writes = new ArrayList<>();
+        List<Integer> slots = new ArrayList<>();
+        for (int s = 0; s < shardCount; s++) {
+            Map<String, Student> shard = capture.shards[s];
+            if (shard == null) {
+                manifest.students[s] = base.students[s];
+                continue;
+            }
+            String name = String.format("students-%02d-%d.snapshot", s, generation);
+            writes.add(() -> written(name, new GradeSnapshot(shard, Map.of(), Map.of()).write(directory.resolve(name))));
+            slots.add(s);
+        }
+        if (capture.courses != null) {
+            String name = "courses-" + generation + ".snapshot";
+            writes.add(() -> written(name, new GradeSnapshot(Map.of(), capture.courses, Map.of()).write(directory.resolve(name))));
+            slots.add(shardCount);
+        } else {
+            manifest.courses = base.courses;
+        }
+        if (capture.enrollments != null) {
+            String name = "enrollments-" + generation + ".dat";
+            writes.add(() -> written(name, writeEnrollments(directory.resolve(name), capture.enrollments)));
+            slots.add(shardCount + 1);
+        } else {
+            manifest.enrollments = base.enrollments;
+        }
+
+        List<Segment> segments = runAll(writes);
+        for (int i = 0; i < segments.size(); i++) {
+            int slot = slots.get(i);
+            if (slot < shardCount) manifest.students[slot] = segments.get(i);
+            else if (slot == shardCount) manifest.courses = segments.get(i);
+            else manifest.enrollments = segments.get(i);
+        }
+
+        // One directory sync covers the segment renames and the manifest. A crash
+        // that keeps the manifest but loses a segment's entry only makes this
+        // generation fail verification; load then takes the previous one, and
+        // the journal, which the tracker trims only through that one, replays the rest.
+        manifest.write(directory.resolve(MANIFEST + "-" + generation));
+        syncDirectory();
+        current = manifest;
+        // State that did not come from this store (e.g. after a failed load)
+        // still leaves the newest generation it found on disk as the fallback
+        Manifest previous = base;
+        if (previous == null) {
+            List<Manifest> onDisk = manifests();
+            for (Manifest older : onDisk) {
+                if (older.generation < generation) {
+                    previous = older;
+                    break;
+                }
+            }
+        }
+        deleteUnreferenced(manifest, previous);
+        return writes.size();
+    }
+
+    private Segment written(String name, long checksum) throws IOException {
+        return new Segment(name, Files.size(directory.resolve(name)), checksum);
+    }
+
+    // Runs the tasks on a short-lived pool, or inline when there is only one
+    private static <T> List<T> runAll(List<Callable<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (tasks.size() == 1) {
+            try {
+                results.add(tasks.get(0).call());
+                return results;
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(WORKERS, tasks.size())));
+        try {
+            List<Future<T>> futures = new ArrayList<>(tasks.size());
+            for (Callable<T> task : tasks) {
+                futures.add(pool.submit(task));
+            }
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted reading or writing segments");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Makes the renames in the directory durable. Not every platform can open a
+    // directory for this (Windows cannot); there the rename is all we get.
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported here
+        }
+    }
+
+    private static boolean isManifest(String name) {
+        return name.equals(MANIFEST) || name.matches(MANIFEST + "-\\d+");
+    }
+
+    private long newestGeneration() throws IOException {
+        long newest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(MANIFEST + "-") && isManifest(name)) {
+                    newest = Math.max(newest, Long.parseLong(name.substring(MANIFEST.length() + 1)));
+                } else if (name.equals(MANIFEST)) {
+                    try {
+                        newest = Math.max(newest, Manifest.read(file).generation);
+                    } catch (IOException e) {
+                        // Damaged; its generation number is not needed to pick a new one
+                    }
+                }
+            }
+        }
+        return newest;
+    }
+
+    // Readable manifests, newest generation first; damaged ones are reported and skipped
+    private List<Manifest> manifests() throws IOException {
+        List<Manifest> manifests = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (!isManifest(file.getFileName().toString())) continue;
+                try {
+                    manifests.add(Manifest.read(file));
+                } catch (IOException e) {
+                    System.out.println("ERROR: Skipping damaged store manifest " + file.getFileName() + ": " + e.getMessage());
+                }
+            }
+        }
+        manifests.sort(Comparator.comparingLong((Manifest manifest) -> manifest.generation).reversed());
+        return manifests;
+    }
+
+    // Everything but the new generation and the one before it: superseded
+    // segments, older manifests and temp files left by an interrupted save
+    private void deleteUnreferenced(Manifest manifest, Manifest previous) {
+        Set<String> keep = new HashSet<>(manifest.names());
+        keep.add(MANIFEST + "-" + manifest.generation);
+        if (previous != null) {
+            keep.addAll(previous.names());
+            keep.add(previous.file);
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (keep.contains(file.getFileName().toString())) continue;
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    // Still mapped or in use; tried again after the next save
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("ERROR cleaning up old segments: " + e.getMessage());
+        }
+    }
+
+    // magic, version, course count, then per course: code, n, byte length of
+    // the n SR codes, the SR codes (all strings length-prefixed UTF-8).
+    // Forced to disk before it is moved into place; returns the CRC32C of the file.
+    private static long writeEnrollments(Path file, Map<String, int[]> enrollments) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (FileOutputStream target = new FileOutputStream(temp.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                 new CheckedOutputStream(target, crc), 1 << 16))) {
+            out.writeInt(ENROLLMENTS_MAGIC);
+            out.writeShort(ENROLLMENTS_VERSION);
+            out.writeInt(enrollments.size());
+            ByteArrayOutputStream codes = new ByteArrayOutputStream();
+            DataOutputStream codesOut = new DataOutputStream(codes);
+            for (Map.Entry<String, int[]> entry : enrollments.entrySet()) {
+                int[] enrolled = entry.getValue();
+                codes.reset();
+                for (int studentId : enrolled) {
+                    writeString(codesOut, Symbols.STUDENTS.symbol(studentId));
+                }
+                writeString(out, entry.getKey());
+                out.writeInt(enrolled.length);
+                out.writeInt(codes.size());
+                codes.writeTo(out);
+            }
+            out.flush();
+            target.getChannel().force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return crc.getValue();
+    }
+
+    private static Map<String, Roster> readEnrollments(ByteBuffer in, Path file, boolean lazy) throws IOException {
+        if (in.remaining() < Integer.BYTES + Short.BYTES || in.getInt() != ENROLLMENTS_MAGIC) {
+            throw new IOException("Not an enrollments segment: " + file);
+        }
+        short version = in.getShort();
+        if (version != ENROLLMENTS_VERSION) {
+            throw new IOException("Unsupported enrollments segment version " + version + ": " + file);
+        }
+        int count = in.getInt();
+        Map<String, Roster> enrollments = new ConcurrentHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String courseCode = GradeSnapshot.getString(in);
+            int size = in.getInt();
+            int length = in.getInt();
+            if (lazy) {
+                enrollments.put(courseCode, new SegmentRoster(in, in.position(), size));
+                in.position(in.position() + length);
+                continue;
+            }
+            Roster roster = new Roster(size);
+            for (int j = 0; j < size; j++) {
+                roster.add(Symbols.STUDENTS.intern(GradeSnapshot.getString(in)));
+            }
+            enrollments.put(courseCode, roster);
+        }
+        return enrollments;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = GradeSnapshot.utf8(value);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    // Roster that knows its size from the segment and interns the SR codes when first read
+    private static class SegmentRoster extends Roster {
+        private final ByteBuffer segment;
+        private final int offset;
+        private final int segmentSize;
+        private volatile boolean resolved;
+
+        SegmentRoster(ByteBuffer segment, int offset, int segmentSize) {
+            super(segmentSize);
+            this.segment = segment;
+            this.offset = offset;
+            this.segmentSize = segmentSize;
+        }
+
+        @Override
+        protected void resolve() {
+            if (resolved) return;
+            synchronized (this) {
+                if (resolved) return;
+                ByteBuffer in = segment.duplicate();
+                in.position(offset);
+                for (int i = 0; i < segmentSize; i++) {
+                    insert(Symbols.STUDENTS.intern(GradeSnapshot.getString(in)));
+                }
+                resolved = true;
+            }
+        }
+
+        @Override
+        public int size() {
+            return resolved ? super.size() : segmentSize;
+        }
+    }
+
+    // Copies of what one save writes, taken by capture() with the locks held.
+    // Shards, courses or enrollments left null are carried over from the base.
+    public static final class Capture {
+        private final Manifest base;
+        private final long newest;
+        private final long journalSequence;
+        private final Map<String, Student>[] shards;
+        private Map<String, Course> courses;
+        // Course -> enrolled student ids, in enrollment order
+        private Map<String, int[]> enrollments;
+
+        private Capture(Manifest base, long newest, long journalSequence, int shardCount) {
+            this.base = base;
+            this.newest = newest;
+            this.journalSequence = journalSequence;
+            this.shards = ShardedStudentMap.newShards(shardCount);
+        }
+
+        public long getJournalSequence() { return journalSequence; }
+    }
+
+    // A segment file as named by a manifest; size and checksum are -1 when unknown (version 1)
+    private static class Segment {
+        final String name;
+        final long size;
+        final long checksum;
+
+        Segment(String name, long size, long checksum) {
+            this.name = name;
+            this.size = size;
+            this.checksum = checksum;
+        }
+    }
+
+    // magic, version, generation, journal sequence, shard count, then the
+    // courses, the enrollments and each student shard as (file name, size,
+    // CRC32C), and last the CRC32C of everything before it
+    private static class Manifest {
+        final long generation;
+        final long journalSequence;
+        final Segment[] students;
+        Segment courses;
+        Segment enrollments;
+        // False for version 1, whose segments have no checksums to carry over
+        boolean checked = true;
+        // Name of the file it was read from or written to
+        String file;
+
+        Manifest(long generation, long journalSequence, int shardCount) {
+            this.generation = generation;
+            this.journalSequence = journalSequence;
+            this.students = new Segment[shardCount];
+        }
+
+        List<String> names() {
+            List<String> names = new ArrayList<>(students.length + 2);
+            for (Segment segment : students) names.add(segment.name);
+            names.add(courses.name);
+            names.add(enrollments.name);
+            return names;
+        }
+
+        static Manifest read(Path file) throws IOException {
+            byte[] bytes = Files.readAllBytes(file);
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+                if (in.readInt() != MANIFEST_MAGIC) {
+                    throw new IOException("Not a store manifest");
+                }
+                short version = in.readShort();
+                if (version < 1 || version > MANIFEST_VERSION) {
+                    throw new IOException("Unsupported manifest version " + version);
+                }
+                if (version >= 2) {
+                    CRC32C crc = new CRC32C();
+                    crc.update(bytes, 0, bytes.length - Integer.BYTES);
+                    if ((int) crc.getValue() != ByteBuffer.wrap(bytes).getInt(bytes.length - Integer.BYTES)) {
+                        throw new IOException("Manifest failed its checksum");
+                    }
+                }
+                Manifest manifest = new Manifest(in.readLong(), in.readLong(), in.readInt());
+                manifest.file = file.getFileName().toString();
+                manifest.checked = version >= 2;
+                manifest.courses = readSegment(in, version);
+                manifest.enrollments = readSegment(in, version);
+                for (int s = 0; s < manifest.students.length; s++) {
+                    manifest.students[s] = readSegment(in, version);
+                }
+                return manifest;
+            } catch (EOFException e) {
+                throw new IOException("Manifest is truncated");
+            }
+        }
+
+        private static Segment readSegment(DataInputStream in, short version) throws IOException {
+            String name = in.readUTF();
+            if (version < 2) return new Segment(name, -1, -1);
+            return new Segment(name, in.readLong(), Integer.toUnsignedLong(in.readInt()));
+        }
+
+        // Written beside the live manifests, forced to disk and moved into place
+        void write(Path target) throws IOException {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MANIFEST_MAGIC);
+            out.writeShort(MANIFEST_VERSION);
+            out.writeLong(generation);
+            out.writeLong(journalSequence);
+            out.writeInt(students.length);
+            writeSegment(out, courses);
+            writeSegment(out, enrollments);
+            for (Segment segment : students) {
+                writeSegment(out, segment);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            file = target.getFileName().toString();
+        }
+
+        private static void writeSegment(DataOutputStream out, Segment segment) throws IOException {
+            out.writeUTF(segment.name);
+            out.writeLong(segment.size);
+            out.writeInt((int) segment.checksum);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Student map split into a fixed number of shards by SR-code hash, one per
+// student segment of the SegmentedStore. Each shard is either a
+// ConcurrentHashMap or the LazyStudentMap of a mapped segment, so a save can
+// rewrite one shard without reading any other.
+public class ShardedStudentMap extends AbstractMap<String, Student> {
+    private final Map<String, Student>[] shards;
+    
+    public ShardedStudentMap(int shardCount) {
+        this.shards = newShards(shardCount);
+        for (int s = 0; s < shardCount; s++) {
+            shards[s] = new ConcurrentHashMap<>();
+        }
+    }
+    
+    // Regroups every student of another map, decoding any lazily loaded ones
+    public ShardedStudentMap(Map<String, Student> students, int shardCount) {
+        this(shardCount);
+        for (Student student : students.values()) {
+            put(student.getSrCode(), student);
+        }
+    }
+    
+    ShardedStudentMap(Map<String, Student>[] shards) {
+        this.shards = shards;
+    }
+    
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Map<String, Student>[] newShards(int shardCount) {
+        return new Map[shardCount];
+    }
+    
+    public static int shardOf(String srCode, int shardCount) {
+        return Math.floorMod(srCode.hashCode(), shardCount);
+    }
+    
+    public int shardCount() {
+        return shards.length;
+    }
+    
+    public Map<String, Student> shard(int index) {
+        return shards[index];
+    }
+    
+    // Called with every student lock held (saves)
+    void replaceShard(int index, Map<String, Student> shard) {
+        shards[index] = shard;
+    }
+    
+    @Override
+    public Student get(Object key) {
+        if (!(key instanceof String)) return null;
+        return shards[shardOf((String) key, shards.length)].get(key);
+    }
+    
+    @Override
+    public boolean containsKey(Object key) {
+        if (!(key instanceof String)) return false;
+        return shards[shardOf((String) key, shards.length)].containsKey(key);
+    }
+    
+    @Override
+    public Student put(String key, Student value) {
+        return shards[shardOf(key, shards.length)].put(key, value);
+    }
+    
+    @Override
+    public int size() {
+        int size = 0;
+        for (Map<String, Student> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+    
+    // Iterates shard by shard
+    @Override
+    public Set<Entry<String, Student>> entrySet() {
+        return new AbstractSet<Entry<String, Student>>() {
+            @Override
+            public Iterator<Entry<String, Student>> iterator() {
+                return new Iterator<Entry<String, Student>>() {
+                    private int next;
+                    private Iterator<Entry<String, Student>> current = Collections.emptyIterator();
+                    
+                    @Override
+                    public boolean hasNext() {
+                        while (!current.hasNext() && next < shards.length) {
+                            current = shards[next++].entrySet().iterator();
+                        }
+                        return current.hasNext();
+                    }
+                    
+                    @Override
+                    public Entry<String, Student> next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return current.next();
+                    }
+                };
+            }
+            
+            @Override
+            public int size() {
+                return ShardedStudentMap.this.size();
+            }
+        };
+    }
+}
\ No newline at end of file
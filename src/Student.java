@@ -1,66 +1,169 @@
 import java.util.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 
 public class Student implements Serializable {
     private static final long serialVersionUID = 1L;
     
+    // Keep the original serialized shape so existing students.dat files still load
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("srCode", String.class),
+        new ObjectStreamField("name", String.class),
+        new ObjectStreamField("major", String.class),
+        new ObjectStreamField("courseGrades", Map.class),
+        new ObjectStreamField("assignmentNames", Map.class)
+    };
+    
     private String srCode;
     private String name;
     private String major;
-    private Map<String, Map<String, List<Double>>> courseGrades;
-    private Map<String, List<String>> assignmentNames;
+    // Index into Symbols.STUDENTS; course rosters hold it instead of the SR code
+    private transient int id;
+    // Course records in enrollment order, keyed by Symbols.COURSES id. A student
+    // takes a handful of courses, so scanning the ids beats hashing the code.
+    private transient int[] courseIds;
+    private transient CourseRecord[] records;
+    private transient int courseCount;
     
     public Student(String srCode, String name, String major) {
         this.srCode = srCode;
         this.name = name;
         this.major = major;
-        this.courseGrades = new HashMap<>();
-        this.assignmentNames = new HashMap<>();
+        this.id = Symbols.STUDENTS.intern(srCode);
+        this.courseIds = new int[4];
+        this.records = new CourseRecord[4];
+    }
+    
+    private Student(Student source) {
+        this.srCode = source.srCode;
+        this.name = source.name;
+        this.major = source.major;
+        this.id = source.id;
+        this.courseCount = source.courseCount;
+        this.courseIds = Arrays.copyOf(source.courseIds, Math.max(1, courseCount));
+        this.records = new CourseRecord[courseIds.length];
+        for (int k = 0; k < courseCount; k++) {
+            records[k] = source.records[k].copy();
+        }
+    }
+    
+    // Detached deep copy that a background save can write while this one keeps
+    // changing; the caller holds the student's lock
+    Student copy() {
+        return new Student(this);
     }
     
     public void enrollInCourse(String courseCode) {
-        courseGrades.putIfAbsent(courseCode, new HashMap<>());
-        assignmentNames.putIfAbsent(courseCode, new ArrayList<>());
+        enrollInCourse(Symbols.COURSES.intern(courseCode));
+    }
+    
+    void enrollInCourse(int courseId) {
+        if (record(courseId) != null) return;
+        if (courseCount == courseIds.length) {
+            courseIds = Arrays.copyOf(courseIds, courseCount * 2);
+            records = Arrays.copyOf(records, courseCount * 2);
+        }
+        courseIds[courseCount] = courseId;
+        records[courseCount] = new CourseRecord();
+        courseCount++;
+    }
+    
+    public boolean isEnrolledIn(String courseCode) {
+        return record(courseCode) != null;
     }
     
+    boolean isEnrolledIn(int courseId) {
+        return record(courseId) != null;
+    }
+    
+    // Interns the names only once the grade is known to land, so rejected
+    // grades never add symbols
     public boolean addGrade(String courseCode, String assignmentType, String assignmentName, double grade) {
-        if(!courseGrades.containsKey(courseCode)) {
+        int courseId = Symbols.COURSES.lookup(courseCode);
+        return courseId >= 0 && isEnrolledIn(courseId) && addGrade(courseId,
+            Symbols.CATEGORIES.intern(assignmentType), Symbols.ASSIGNMENT_NAMES.intern(assignmentName), grade);
+    }
+    
+    // For callers that resolved the ids already, e.g. a batch for one assignment
+    boolean addGrade(int courseId, int categoryId, int assignmentNameId, double grade) {
+        CourseRecord record = record(courseId);
+        if(record == null) {
             return false;
         }
         
-        courseGrades.get(courseCode).putIfAbsent(assignmentType, new ArrayList<>());
-        courseGrades.get(courseCode).get(assignmentType).add(grade);
-        
-        assignmentNames.get(courseCode).add(assignmentName);
+        record.column(categoryId).add(grade, assignmentNameId);
+        record.cachedStamp = 0;
         return true;
     }
     
-    public double getCourseGrade(String courseCode, Map<String, Double> weights) {
-        if(!courseGrades.containsKey(courseCode)) return 0.0;
-        
-        double totalWeightedGrade = 0.0;
-        double totalWeight = 0.0;
+    // Uses the cached grade until a new grade arrives or the course's weights change
+    public double getCourseGrade(Course course) {
+        CourseRecord record = record(course.getId());
+        if(record == null) return 0.0;
         
-        for(String assignmentType : weights.keySet()) {
-            if(courseGrades.get(courseCode).containsKey(assignmentType)) {
-                List<Double> grades = courseGrades.get(courseCode).get(assignmentType);
-                if(!grades.isEmpty()) {
-                    double average = grades.stream().mapToDouble(Double::doubleValue).average().orElse(0.0);
-                    totalWeightedGrade += average * weights.get(assignmentType);
-                    totalWeight += weights.get(assignmentType);
-                }
-            }
+        Course.WeightVector weights = course.getWeightVector();
+        if(record.cachedStamp != weights.stamp()) {
+            record.cachedGrade = record.weightedAverage(weights);
+            record.cachedStamp = weights.stamp();
         }
-        
-        return totalWeight > 0 ? totalWeightedGrade / totalWeight : 0.0;
+        return record.cachedGrade;
+    }
+    
+    // Whether any grade was entered for the course, in any category
+    boolean hasGrades(Course course) {
+        CourseRecord record = record(course.getId());
+        if (record == null) return false;
+        for (int i = 0; i < record.count; i++) {
+            if (record.columns[i].size() > 0) return true;
+        }
+        return false;
+    }
+    
+    public double getCourseGrade(String courseCode, Map<String, Double> weights) {
+        CourseRecord record = record(courseCode);
+        return record != null ? record.weightedAverage(weights) : 0.0;
+    }
+    
+    public List<String> getAssignmentTypes(String courseCode) {
+        CourseRecord record = record(courseCode);
+        List<String> types = new ArrayList<>();
+        if(record == null) return types;
+        for (int i = 0; i < record.count; i++) {
+            types.add(Symbols.CATEGORIES.symbol(record.categories[i]));
+        }
+        return types;
+    }
+    
+    public double getCategoryAverage(String courseCode, String assignmentType) {
+        GradeColumn column = findColumn(courseCode, assignmentType);
+        return column != null ? column.average() : 0.0;
+    }
+    
+    public int getCategoryCount(String courseCode, String assignmentType) {
+        GradeColumn column = findColumn(courseCode, assignmentType);
+        return column != null ? column.size() : 0;
+    }
+    
+    private GradeColumn findColumn(String courseCode, String assignmentType) {
+        CourseRecord record = record(courseCode);
+        int categoryId = Symbols.CATEGORIES.lookup(assignmentType);
+        return record != null && categoryId >= 0 ? record.find(categoryId) : null;
+    }
+    
+    private CourseRecord record(int courseId) {
+        for (int i = 0; i < courseCount; i++) {
+            if (courseIds[i] == courseId) return records[i];
+        }
+        return null;
+    }
+    
+    private CourseRecord record(String courseCode) {
+        int courseId = Symbols.COURSES.lookup(courseCode);
+        return courseId >= 0 ? record(courseId) : null;
     }
     
     public String getGradeLetter(double grade) {
-        if(grade >= 90) return "A";
-        else if(grade >= 80) return "B";
-        else if(grade >= 70) return "C";
-        else if(grade >= 60) return "D";
-        else return "F";
+        return CourseStatistics.LETTERS[CourseStatistics.letterIndex(grade)];
     }
     
     // CSV export methods
@@ -68,30 +171,277 @@ public class Student implements Serializable {
         return String.format("%s,%s,%s", srCode, name, major);
     }
     
-    public List<String> getGradesCSV() {
-        List<String> lines = new ArrayList<>();
-        for (String courseCode : courseGrades.keySet()) {
-            Map<String, List<Double>> assignments = courseGrades.get(courseCode);
-            List<String> names = assignmentNames.get(courseCode);
-            
-            int assignmentIndex = 0;
-            for (String assignmentType : assignments.keySet()) {
-                List<Double> grades = assignments.get(assignmentType);
-                for (int i = 0; i < grades.size(); i++) {
-                    String assignmentName = (assignmentIndex < names.size()) ? names.get(assignmentIndex) : "Unknown";
-                    lines.add(String.format("%s,%s,%s,%s,%.2f", 
-                        srCode, courseCode, assignmentType, assignmentName, grades.get(i)));
-                    assignmentIndex++;
+    public interface GradeVisitor {
+        void grade(int courseId, int categoryId, int nameId, double score) throws IOException;
+    }
+    
+    // Every grade as Symbols ids, course by course, without building strings
+    public void forEachGrade(GradeVisitor visitor) throws IOException {
+        for (int k = 0; k < courseCount; k++) {
+            CourseRecord record = records[k];
+            for (int c = 0; c < record.count; c++) {
+                GradeColumn column = record.columns[c];
+                for (int i = 0; i < column.size(); i++) {
+                    visitor.grade(courseIds[k], record.categories[c], column.nameId(i), column.score(i));
                 }
             }
         }
-        return lines;
     }
     
     // Getters
     public String getSrCode() { return srCode; }
     public String getName() { return name; }
     public String getMajor() { return major; }
-    public Map<String, Map<String, List<Double>>> getCourseGrades() { return courseGrades; }
-    public List<String> getEnrolledCourses() { return new ArrayList<>(courseGrades.keySet()); }
+    public int getId() { return id; }
+    
+    public List<String> getEnrolledCourses() {
+        List<String> codes = new ArrayList<>(courseCount);
+        for (int i = 0; i < courseCount; i++) {
+            codes.add(Symbols.COURSES.symbol(courseIds[i]));
+        }
+        return codes;
+    }
+    
+    int getGradeCount() {
+        int grades = 0;
+        for (int k = 0; k < courseCount; k++) {
+            CourseRecord record = records[k];
+            for (int c = 0; c < record.count; c++) {
+                grades += record.columns[c].size();
+            }
+        }
+        return grades;
+    }
+    
+    // Id-level access for loops over every student, e.g. statistics gathering
+    int getEnrolledCount() { return courseCount; }
+    int getEnrolledCourseId(int index) { return courseIds[index]; }
+    
+    // Read-only view over the primitive columns: course -> category -> scores
+    public Map<String, Map<String, List<Double>>> getCourseGrades() {
+        Map<String, Map<String, List<Double>>> view = new HashMap<>();
+        for (int i = 0; i < courseCount; i++) {
+            view.put(Symbols.COURSES.symbol(courseIds[i]), records[i].asMap());
+        }
+        return Collections.unmodifiableMap(view);
+    }
+    
+    // Snapshot record: text fields, then per course the category columns as primitive arrays
+    public void writeBinary(GradeSnapshot.Encoder out) {
+        out.putString(srCode);
+        out.putString(name);
+        out.putString(major);
+        out.putInt(courseCount);
+        for (int k = 0; k < courseCount; k++) {
+            CourseRecord record = records[k];
+            out.putCourse(courseIds[k]);
+            out.putInt(record.count);
+            for (int c = 0; c < record.count; c++) {
+                GradeColumn column = record.columns[c];
+                out.putCategory(record.categories[c]);
+                out.putInt(column.size());
+                for (int i = 0; i < column.size(); i++) {
+                    out.putDouble(column.score(i));
+                }
+                for (int i = 0; i < column.size(); i++) {
+                    out.putAssignmentName(column.nameId(i));
+                }
+            }
+        }
+    }
+    
+    // Grades in a record written by writeBinary, read without decoding it
+    static int countGrades(ByteBuffer in) {
+        for (int i = 0; i < 3; i++) {
+            in.position(in.position() + Short.BYTES + Short.toUnsignedInt(in.getShort(in.position())));
+        }
+        int grades = 0;
+        int courseCount = in.getInt();
+        for (int c = 0; c < courseCount; c++) {
+            in.getInt();
+            int categoryCount = in.getInt();
+            for (int k = 0; k < categoryCount; k++) {
+                in.getInt();
+                int size = in.getInt();
+                grades += size;
+                in.position(in.position() + size * (Double.BYTES + Integer.BYTES));
+            }
+        }
+        return grades;
+    }
+    
+    public static Student readBinary(ByteBuffer in, GradeSnapshot.Decoder dictionary) {
+        Student student = new Student(GradeSnapshot.getString(in), GradeSnapshot.getString(in),
+            GradeSnapshot.getString(in));
+        int courseCount = in.getInt();
+        for (int c = 0; c < courseCount; c++) {
+            student.enrollInCourse(dictionary.courseId(in.getInt()));
+            CourseRecord record = student.records[student.courseCount - 1];
+            int categoryCount = in.getInt();
+            for (int k = 0; k < categoryCount; k++) {
+                int category = dictionary.categoryId(in.getInt());
+                int size = in.getInt();
+                double[] scores = new double[size];
+                in.asDoubleBuffer().get(scores);
+                in.position(in.position() + size * Double.BYTES);
+                
+                GradeColumn column = record.column(category);
+                column.ensureCapacity(size);
+                for (int i = 0; i < size; i++) {
+                    column.add(scores[i], dictionary.assignmentNameId(in.getInt()));
+                }
+            }
+        }
+        return student;
+    }
+    
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        Map<String, Map<String, List<Double>>> courseGrades = new HashMap<>();
+        Map<String, List<String>> assignmentNames = new HashMap<>();
+        for (int k = 0; k < courseCount; k++) {
+            CourseRecord record = records[k];
+            Map<String, List<Double>> categories = new HashMap<>();
+            List<String> names = new ArrayList<>();
+            for (int c = 0; c < record.count; c++) {
+                GradeColumn column = record.columns[c];
+                categories.put(Symbols.CATEGORIES.symbol(record.categories[c]), new ArrayList<>(column.asList()));
+                for (int i = 0; i < column.size(); i++) {
+                    names.add(Symbols.ASSIGNMENT_NAMES.symbol(column.nameId(i)));
+                }
+            }
+            String courseCode = Symbols.COURSES.symbol(courseIds[k]);
+            courseGrades.put(courseCode, categories);
+            assignmentNames.put(courseCode, names);
+        }
+        
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("srCode", srCode);
+        fields.put("name", name);
+        fields.put("major", major);
+        fields.put("courseGrades", courseGrades);
+        fields.put("assignmentNames", assignmentNames);
+        out.writeFields();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        srCode = (String) fields.get("srCode", null);
+        name = (String) fields.get("name", null);
+        major = (String) fields.get("major", null);
+        Map<String, Map<String, List<Double>>> courseGrades =
+            (Map<String, Map<String, List<Double>>>) fields.get("courseGrades", null);
+        Map<String, List<String>> assignmentNames =
+            (Map<String, List<String>>) fields.get("assignmentNames", null);
+        
+        // The old layout kept names in one list per course; pair them with
+        // grades in category order, the same way the old CSV export did
+        id = Symbols.STUDENTS.intern(srCode);
+        courseIds = new int[4];
+        records = new CourseRecord[4];
+        if (courseGrades == null) return;
+        for (Map.Entry<String, Map<String, List<Double>>> course : courseGrades.entrySet()) {
+            List<String> names = assignmentNames != null ? assignmentNames.get(course.getKey()) : null;
+            if (names == null) names = Collections.emptyList();
+            
+            enrollInCourse(course.getKey());
+            CourseRecord record = records[courseCount - 1];
+            int nameIndex = 0;
+            for (Map.Entry<String, List<Double>> category : course.getValue().entrySet()) {
+                GradeColumn column = record.column(Symbols.CATEGORIES.intern(category.getKey()));
+                column.ensureCapacity(category.getValue().size());
+                for (double grade : category.getValue()) {
+                    String assignmentName = nameIndex < names.size() ? names.get(nameIndex) : "Unknown";
+                    column.add(grade, Symbols.ASSIGNMENT_NAMES.intern(assignmentName));
+                    nameIndex++;
+                }
+            }
+        }
+    }
+    
+    // Grades for one course: a small array of category columns in insertion order
+    private static class CourseRecord {
+        // Symbols.CATEGORIES ids
+        int[] categories = new int[2];
+        GradeColumn[] columns = new GradeColumn[2];
+        int count;
+        double cachedGrade;
+        // Written after cachedGrade, so a reader that sees the stamp also sees the grade
+        volatile int cachedStamp;
+        
+        CourseRecord copy() {
+            CourseRecord copy = new CourseRecord();
+            copy.categories = Arrays.copyOf(categories, Math.max(1, count));
+            copy.columns = new GradeColumn[copy.categories.length];
+            for (int i = 0; i < count; i++) {
+                copy.columns[i] = columns[i].copy();
+            }
+            copy.count = count;
+            return copy;
+        }
+        
+        GradeColumn find(int categoryId) {
+            for (int i = 0; i < count; i++) {
+                if (categories[i] == categoryId) return columns[i];
+            }
+            return null;
+        }
+        
+        GradeColumn column(int categoryId) {
+            GradeColumn column = find(categoryId);
+            if (column != null) return column;
+            
+            if (count == categories.length) {
+                categories = Arrays.copyOf(categories, count * 2);
+                columns = Arrays.copyOf(columns, count * 2);
+            }
+            column = new GradeColumn();
+            categories[count] = categoryId;
+            columns[count] = column;
+            count++;
+            return column;
+        }
+        
+        // Categories without grades yet drop out and the rest are rescaled
+        double weightedAverage(Course.WeightVector weights) {
+            double totalWeightedGrade = 0.0;
+            double totalWeight = 0.0;
+            
+            for (int i = 0; i < weights.size(); i++) {
+                GradeColumn column = find(weights.category(i));
+                if (column != null && column.size() > 0) {
+                    double w = weights.weight(i);
+                    totalWeightedGrade += column.average() * w;
+                    totalWeight += w;
+                }
+            }
+            
+            return totalWeight > 0 ? totalWeightedGrade / totalWeight : 0.0;
+        }
+        
+        double weightedAverage(Map<String, Double> weights) {
+            double totalWeightedGrade = 0.0;
+            double totalWeight = 0.0;
+            
+            for (Map.Entry<String, Double> weight : weights.entrySet()) {
+                int categoryId = Symbols.CATEGORIES.lookup(weight.getKey());
+                GradeColumn column = categoryId >= 0 ? find(categoryId) : null;
+                if (column != null && column.size() > 0) {
+                    double w = weight.getValue();
+                    totalWeightedGrade += column.average() * w;
+                    totalWeight += w;
+                }
+            }
+            
+            return totalWeight > 0 ? totalWeightedGrade / totalWeight : 0.0;
+        }
+        
+        Map<String, List<Double>> asMap() {
+            Map<String, List<Double>> view = new LinkedHashMap<>();
+            for (int i = 0; i < count; i++) {
+                view.put(Symbols.CATEGORIES.symbol(categories[i]), columns[i].asList());
+            }
+            return Collections.unmodifiableMap(view);
+        }
+    }
 }
\ No newline at end of file
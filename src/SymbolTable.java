@@ -0,0 +1,51 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class SymbolTable {
+    private final Map<String, Integer> ids;
+    private volatile String[] symbols;
+    private volatile int size;
+    
+    public SymbolTable() {
+        this.ids = new ConcurrentHashMap<>();
+        this.symbols = new String[16];
+    }
+    
+    // Returns the existing id for the symbol, or assigns the next dense id.
+    // Lookups of known symbols do not lock; only new symbols are serialized.
+    public int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        if (id != null) return id;
+        
+        synchronized (this) {
+            id = ids.get(symbol);
+            if (id != null) return id;
+            
+            String[] current = symbols;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = symbol;
+            symbols = current;
+            ids.put(symbol, size);
+            return size++;
+        }
+    }
+    
+    public int lookup(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+    
+    public String symbol(int id) {
+        String[] current = symbols;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IndexOutOfBoundsException("Unknown symbol id: " + id);
+        }
+        return current[id];
+    }
+    
+    public int size() {
+        return size;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+// Process-wide dense ids for the strings every record repeats. SR codes,
+// course codes and category names are interned when a student, course or
+// weight scheme is created; internal structures are keyed by the ids and the
+// strings are only looked up again at the API and report edges.
+// The tables are shared by every tracker in the process and ids are never
+// freed. That holds because the tracker never deletes a student, course or
+// grade and strings are interned only for records that are stored. Ids never
+// reach disk: snapshots and columnar exports write through per-file dictionaries.
+public final class Symbols {
+    public static final SymbolTable STUDENTS = new SymbolTable();
+    public static final SymbolTable COURSES = new SymbolTable();
+    public static final SymbolTable CATEGORIES = new SymbolTable();
+    // Assignment names repeat across students ("Quiz 1", "Midterm")
+    public static final SymbolTable ASSIGNMENT_NAMES = new SymbolTable();
+    
+    private Symbols() {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,258 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Transcripts with per-term rollups: each term's credit-weighted GPA and
+// attempted/earned credits, plus the cumulative GPA over all terms. A
+// course's term is Course.getTerm(). Each student's term rollups are cached,
+// and grade events mark the terms holding the changed course stale, so
+// regenerating every transcript (e.g. nightly) only recomputes terms whose
+// grades, weights or courses changed since the last run. The engine
+// subscribes to the tracker's events when created; detach() unsubscribes.
+public class TranscriptEngine implements GradeListener {
+    // Named terms in order, courses without a term last
+    private static final Comparator<String> TERM_ORDER = (a, b) -> {
+        if (a.isEmpty() || b.isEmpty()) return Boolean.compare(a.isEmpty(), b.isEmpty());
+        return a.compareTo(b);
+    };
+    
+    private final GradeTracker tracker;
+    private final GradeScale scale;
+    private final Map<String, CachedTerms> cache = new ConcurrentHashMap<>();
+    private final AtomicLong termsComputed = new AtomicLong();
+    private final AtomicLong termsReused = new AtomicLong();
+    
+    public TranscriptEngine(GradeTracker tracker, GradeScale scale) {
+        this.tracker = tracker;
+        this.scale = scale;
+        tracker.addListener(this);
+    }
+    
+    public void detach() {
+        tracker.removeListener(this);
+    }
+    
+    public GradeScale getScale() { return scale; }
+    public long getTermsComputed() { return termsComputed.get(); }
+    public long getTermsReused() { return termsReused.get(); }
+    
+    @Override
+    public void gradeChanged(GradeEvent event) {
+        CachedTerms cached = cache.get(event.getStudentId());
+        if (cached != null) cached.markStale(event.getCourseCode());
+    }
+    
+    @Override
+    public void reset() {
+        cache.clear();
+    }
+    
+    // null if there is no such student
+    public Transcript transcript(String studentId) {
+        Transcript[] transcript = new Transcript[1];
+        tracker.readStudent(studentId, student -> transcript[0] = build(student));
+        return transcript[0];
+    }
+    
+    public boolean appendTranscript(String studentId, StringBuilder out) {
+        Transcript transcript = transcript(studentId);
+        if (transcript == null) return false;
+        ReportRenderer.appendTranscript(out, transcript);
+        return true;
+    }
+    
+    // Runs under the student's read lock, so no grade event for this student
+    // can arrive between reading the grades and clearing the stale marks.
+    // Enrolling, grading, reweighting or moving a course to another term all
+    // publish an event for the student, so without stale marks the last
+    // transcript is still current.
+    private Transcript build(Student student) {
+        CachedTerms cached = cache.computeIfAbsent(student.getSrCode(), id -> new CachedTerms());
+        synchronized (cached) {
+            if (cached.transcript != null && cached.stale.isEmpty()) {
+                termsReused.addAndGet(cached.transcript.terms.size());
+                return cached.transcript;
+            }
+        }
+        
+        Map<String, List<Course>> byTerm = new TreeMap<>(TERM_ORDER);
+        for (String courseCode : student.getEnrolledCourses()) {
+            Course course = tracker.getCourse(courseCode);
+            if (course != null) byTerm.computeIfAbsent(course.getTerm(), term -> new ArrayList<>()).add(course);
+        }
+        
+        List<TermRollup> terms = new ArrayList<>(byTerm.size());
+        synchronized (cached) {
+            for (Map.Entry<String, List<Course>> term : byTerm.entrySet()) {
+                TermRollup rollup = cached.terms.get(term.getKey());
+                if (rollup == null || !rollup.covers(term.getValue()) || cached.isStale(rollup)) {
+                    rollup = rollUp(student, term.getKey(), term.getValue());
+                    cached.terms.put(term.getKey(), rollup);
+                    termsComputed.incrementAndGet();
+                } else {
+                    termsReused.incrementAndGet();
+                }
+                terms.add(rollup);
+            }
+            cached.terms.keySet().retainAll(byTerm.keySet());
+            cached.stale.clear();
+            cached.transcript = new Transcript(student, scale, terms);
+            return cached.transcript;
+        }
+    }
+    
+    private TermRollup rollUp(Student student, String term, List<Course> courses) {
+        List<CourseLine> lines = new ArrayList<>(courses.size());
+        int attempted = 0;
+        int earned = 0;
+        int gpaCredits = 0;
+        double qualityPoints = 0.0;
+        for (Course course : courses) {
+            int credits = course.getCredits();
+            attempted += credits;
+            if (!student.hasGrades(course)) {
+                lines.add(new CourseLine(course, Double.NaN, "IP", 0.0));
+                continue;
+            }
+            double grade = student.getCourseGrade(course);
+            double points = scale.points(grade);
+            lines.add(new CourseLine(course, grade, scale.letter(grade), points));
+            gpaCredits += credits;
+            qualityPoints += points * credits;
+            if (scale.passes(grade)) earned += credits;
+        }
+        return new TermRollup(term, lines, attempted, earned, gpaCredits, qualityPoints);
+    }
+    
+    // One student's cached rollups by term, and the courses changed since they were built
+    private static class CachedTerms {
+        final Map<String, TermRollup> terms = new HashMap<>();
+        final Set<String> stale = new HashSet<>();
+        Transcript transcript;
+        
+        synchronized void markStale(String courseCode) {
+            stale.add(courseCode);
+        }
+        
+        boolean isStale(TermRollup rollup) {
+            if (stale.isEmpty()) return false;
+            for (CourseLine line : rollup.courses) {
+                if (stale.contains(line.code)) return true;
+            }
+            return false;
+        }
+    }
+    
+    public static class CourseLine {
+        private final String code;
+        private final String name;
+        private final int credits;
+        private final double grade;
+        private final String letter;
+        private final double points;
+        
+        CourseLine(Course course, double grade, String letter, double points) {
+            this.code = course.getCode();
+            this.name = course.getName();
+            this.credits = course.getCredits();
+            this.grade = grade;
+            this.letter = letter;
+            this.points = points;
+        }
+        
+        public String getCode() { return code; }
+        public String getName() { return name; }
+        public int getCredits() { return credits; }
+        // NaN while the course has no grades ("IP", in progress)
+        public double getGrade() { return grade; }
+        public String getLetter() { return letter; }
+        public double getPoints() { return points; }
+        public boolean isGraded() { return !Double.isNaN(grade); }
+    }
+    
+    // Immutable once built, so cached rollups and transcripts can be shared
+    public static class TermRollup {
+        private final String term;
+        private final List<CourseLine> courses;
+        private final int attemptedCredits;
+        private final int earnedCredits;
+        private final int gpaCredits;
+        private final double qualityPoints;
+        
+        TermRollup(String term, List<CourseLine> courses, int attemptedCredits, int earnedCredits,
+                   int gpaCredits, double qualityPoints) {
+            this.term = term;
+            this.courses = Collections.unmodifiableList(courses);
+            this.attemptedCredits = attemptedCredits;
+            this.earnedCredits = earnedCredits;
+            this.gpaCredits = gpaCredits;
+            this.qualityPoints = qualityPoints;
+        }
+        
+        // Same courses, in the same order, as the rollup was built from
+        boolean covers(List<Course> current) {
+            if (current.size() != courses.size()) return false;
+            for (int i = 0; i < current.size(); i++) {
+                if (!current.get(i).getCode().equals(courses.get(i).code)) return false;
+            }
+            return true;
+        }
+        
+        public String getTerm() { return term; }
+        public List<CourseLine> getCourses() { return courses; }
+        public int getAttemptedCredits() { return attemptedCredits; }
+        public int getEarnedCredits() { return earnedCredits; }
+        public int getGpaCredits() { return gpaCredits; }
+        public double getQualityPoints() { return qualityPoints; }
+        
+        // NaN if no course of the term is graded yet
+        public double getGpa() {
+            return gpaCredits > 0 ? qualityPoints / gpaCredits : Double.NaN;
+        }
+    }
+    
+    public static class Transcript {
+        private final String studentId;
+        private final String name;
+        private final String major;
+        private final GradeScale scale;
+        private final List<TermRollup> terms;
+        
+        Transcript(Student student, GradeScale scale, List<TermRollup> terms) {
+            this.studentId = student.getSrCode();
+            this.name = student.getName();
+            this.major = student.getMajor();
+            this.scale = scale;
+            this.terms = Collections.unmodifiableList(terms);
+        }
+        
+        public String getStudentId() { return studentId; }
+        public String getName() { return name; }
+        public String getMajor() { return major; }
+        public GradeScale getScale() { return scale; }
+        public List<TermRollup> getTerms() { return terms; }
+        
+        public int getAttemptedCredits() {
+            int total = 0;
+            for (TermRollup term : terms) total += term.attemptedCredits;
+            return total;
+        }
+        
+        public int getEarnedCredits() {
+            int total = 0;
+            for (TermRollup term : terms) total += term.earnedCredits;
+            return total;
+        }
+        
+        // Credit-weighted over every graded course; NaN if none is graded
+        public double getCumulativeGpa() {
+            int credits = 0;
+            double points = 0.0;
+            for (TermRollup term : terms) {
+                credits += term.gpaCredits;
+                points += term.qualityPoints;
+            }
+            return credits > 0 ? points / credits : Double.NaN;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+import java.util.*;
+import java.nio.file.*;
+import java.util.concurrent.*;
+
+// Grade entry latency while the AutoSaver saves in the background: writer
+// threads add grades for a fixed time and every call is timed, so a save that
+// blocked grade entry shows up in the tail. Also prints how many saves ran,
+// how long the last one took and how long it held the locks. Works in ./data
+// like the menu, so run it from an empty directory.
+// Usage: java -cp <classes> AutoSaveBenchmark [students] [seconds] [writers] [save-after]
+public class AutoSaveBenchmark {
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    private static final int COURSES = 20;
+    private static final int COURSES_PER_STUDENT = 5;
+    
+    public static void main(String[] args) throws Exception {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int writers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long saveAfter = args.length > 3 ? Long.parseLong(args[3]) : AutoSaver.DEFAULT_MAX_CHANGES;
+        
+        // Built without the journal, saved, then loaded back with it, as the menu would
+        GradeTracker tracker = new GradeTracker();
+        if (!Files.isDirectory(Paths.get("data", "store"))) {
+            for (int c = 0; c < COURSES; c++) {
+                tracker.addCourse(courseCode(c), "Course " + c, 3, 1);
+            }
+            for (int s = 0; s < studentCount; s++) {
+                tracker.addStudent(studentId(s), "Student " + s, "BSIT");
+                for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                    tracker.enrollStudent(studentId(s), courseCode((s + k) % COURSES));
+                }
+            }
+            Random random = new Random(42);
+            for (int c = 0; c < COURSES; c++) {
+                for (String category : CATEGORIES) {
+                    GradeBatch batch = new GradeBatch(courseCode(c), category, category + " 1");
+                    for (int s = 0; s < studentCount; s++) {
+                        if (Math.floorMod(c - s, COURSES) < COURSES_PER_STUDENT) batch.add(studentId(s), random.nextInt(101));
+                    }
+                    tracker.addGrades(batch);
+                }
+            }
+            tracker.saveAllData(true);
+        }
+        tracker.loadAllData();
+        System.out.printf("Data: %,d students; %d writers for %ds, auto-save after %d changes%n",
+            tracker.getStudentCount(), writers, seconds, saveAfter);
+        
+        AutoSaver saver = AutoSaver.start(tracker, 1, saveAfter);
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        List<Future<long[]>> results = new ArrayList<>();
+        try {
+            for (int w = 0; w < writers; w++) {
+                int seed = w;
+                results.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    long[] latencies = new long[1 << 16];
+                    int count = 0;
+                    for (int i = 0; System.nanoTime() < end; i++) {
+                        int s = random.nextInt(studentCount);
+                        String course = courseCode((s + random.nextInt(COURSES_PER_STUDENT)) % COURSES);
+                        long start = System.nanoTime();
+                        tracker.addGrade(studentId(s), course, CATEGORIES[i % CATEGORIES.length], "W" + seed + "-" + i, random.nextInt(101));
+                        if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                        latencies[count++] = System.nanoTime() - start;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+            long[] all = new long[0];
+            for (Future<long[]> result : results) {
+                long[] latencies = result.get();
+                int from = all.length;
+                all = Arrays.copyOf(all, from + latencies.length);
+                System.arraycopy(latencies, 0, all, from, latencies.length);
+            }
+            Arrays.sort(all);
+            System.out.printf("Grades:    %,d (%,.0f/s)%n", all.length, all.length / (double) seconds);
+            System.out.printf("addGrade:  p50 %.2f ms  p99 %.2f ms  p99.9 %.2f ms  max %.2f ms%n",
+                percentile(all, 0.50), percentile(all, 0.99), percentile(all, 0.999), all[all.length - 1] / 1e6);
+            System.out.printf("Saves:     %d (%d failed), last %.1f ms of which %.2f ms holding the locks, %d changes%n",
+                saver.getSaveCount(), saver.getFailureCount(), saver.getLastSaveMillis(),
+                saver.getLastPauseMillis(), saver.getLastSaveChanges());
+            System.out.printf("Lag:       %d unsaved changes, oldest %d ms%n", saver.getUnsavedChanges(), saver.getLagMillis());
+        } finally {
+            pool.shutdownNow();
+            saver.close();
+            tracker.closeJournal();
+        }
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * p))] / 1e6;
+    }
+    
+    private static String studentId(int s) {
+        return String.format("24-%05d", s);
+    }
+    
+    private static String courseCode(int c) {
+        return "CS" + (100 + c);
+    }
+}
\ No newline at end of file
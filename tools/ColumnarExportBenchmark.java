@@ -0,0 +1,114 @@
+import java.util.*;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.nio.file.*;
+
+// Grades fact table as the columnar export ("export --grades") against the
+// same rows as grades.csv text: time, file size and bytes allocated by the
+// exporting thread. Reads the columnar file back and checks every row count
+// and the score total against the tracker.
+// Usage: java -cp <classes> ColumnarExportBenchmark [students] [courses] [grades-per-category]
+public class ColumnarExportBenchmark {
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    private static final int COURSES_PER_STUDENT = 5;
+    
+    public static void main(String[] args) throws IOException {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int perCategory = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        
+        GradeTracker tracker = new GradeTracker();
+        String[] courses = new String[courseCount];
+        for (int c = 0; c < courseCount; c++) {
+            courses[c] = "CS" + (100 + c);
+            tracker.addCourse(courses[c], "Course " + c, 3, 1);
+        }
+        Random random = new Random(42);
+        double expectedTotal = 0;
+        for (int s = 0; s < studentCount; s++) {
+            String id = String.format("24-%05d", s);
+            tracker.addStudent(id, "Student " + s, "BSIT");
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                String course = courses[(s + k) % courseCount];
+                tracker.enrollStudent(id, course);
+                for (String category : CATEGORIES) {
+                    for (int g = 1; g <= perCategory; g++) {
+                        double score = Math.round(random.nextDouble() * 10000) / 100.0;
+                        tracker.addGrade(id, course, category, category + " " + g, score);
+                        expectedTotal += score;
+                    }
+                }
+            }
+        }
+        long expectedRows = (long) studentCount * COURSES_PER_STUDENT * CATEGORIES.length * perCategory;
+        System.out.printf("Data: %,d students, %,d grades%n", studentCount, expectedRows);
+        
+        Path dir = Files.createTempDirectory("columnar-bench");
+        Path columnar = dir.resolve("grades.sgc");
+        Path csv = dir.resolve("grades.csv");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        try {
+            // Last of three rounds, so both paths are compiled
+            double csvMs = 0;
+            double columnarMs = 0;
+            long csvAllocated = 0;
+            long columnarAllocated = 0;
+            for (int round = 0; round < 3; round++) {
+                long allocated = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                writeCsv(tracker, csv);
+                csvMs = (System.nanoTime() - start) / 1e6;
+                csvAllocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+                
+                allocated = threads.getCurrentThreadAllocatedBytes();
+                start = System.nanoTime();
+                tracker.exportGradeColumns(columnar);
+                columnarMs = (System.nanoTime() - start) / 1e6;
+                columnarAllocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+            }
+            System.out.printf("CSV text:  %7.0f ms  %,12d bytes  %6.1f MB allocated%n",
+                csvMs, Files.size(csv), csvAllocated / 1e6);
+            System.out.printf("Columnar:  %7.0f ms  %,12d bytes  %6.1f MB allocated  (%.1fx smaller)%n",
+                columnarMs, Files.size(columnar), columnarAllocated / 1e6,
+                (double) Files.size(csv) / Files.size(columnar));
+            
+            long start = System.nanoTime();
+            long[] rows = {0};
+            double[] total = {0};
+            try (ColumnarGrades.Reader reader = new ColumnarGrades.Reader(columnar)) {
+                reader.forEachRow((studentId, courseCode, category, assignment, score) -> {
+                    rows[0]++;
+                    total[0] += score;
+                });
+                System.out.printf("Read back: %7.0f ms  %,d rows in %d row groups, %d distinct assignments%n",
+                    (System.nanoTime() - start) / 1e6, rows[0], reader.getRowGroupCount(),
+                    reader.getDictionary(3).size());
+            }
+            boolean ok = rows[0] == expectedRows && Math.abs(total[0] - expectedTotal) < 1e-6 * expectedTotal;
+            System.out.println(ok ? "Round trip: OK" : "Round trip: MISMATCH (expected " + expectedRows + " rows)");
+            if (!ok) System.exit(1);
+        } finally {
+            Files.deleteIfExists(columnar);
+            Files.deleteIfExists(csv);
+            Files.delete(dir);
+        }
+    }
+    
+    // The grades.csv format saveAllData writes
+    private static void writeCsv(GradeTracker tracker, Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            writer.write("StudentID,CourseCode,AssignmentType,AssignmentName,Grade\n");
+            StringBuilder line = new StringBuilder(96);
+            for (String id : tracker.getStudentIds()) {
+                tracker.getStudent(id).forEachGrade((courseId, categoryId, nameId, score) -> {
+                    line.setLength(0);
+                    line.append(id).append(',').append(Symbols.COURSES.symbol(courseId))
+                        .append(',').append(Symbols.CATEGORIES.symbol(categoryId))
+                        .append(',').append(Symbols.ASSIGNMENT_NAMES.symbol(nameId)).append(',');
+                    DecimalText.append(line, score, 2).append('\n');
+                    writer.append(line);
+                });
+            }
+        }
+    }
+}
\ No newline at end of file
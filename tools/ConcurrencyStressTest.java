@@ -0,0 +1,152 @@
+import java.util.*;
+import java.io.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Hammers one GradeTracker from many threads and checks that no grade or
+// enrollment is lost. With "journal" as the last argument it also loads
+// ./data first and checks that a reload replays exactly the same grades.
+// Usage: java -cp <classes> ConcurrencyStressTest [threads] [gradesPerThread] [journal]
+public class ConcurrencyStressTest {
+    private static final int STUDENTS = 500;
+    private static final int COURSES = 8;
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int gradesPerThread = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        boolean journal = args.length > 2 && args[2].equals("journal");
+        
+        GradeTracker tracker = new GradeTracker();
+        if (journal) tracker.loadAllData();
+        long gradesBefore = countGrades(tracker);
+        
+        for (int c = 0; c < COURSES; c++) {
+            tracker.addCourse(courseCode(c), "Course " + c, 3, 1);
+        }
+        for (int s = 0; s < STUDENTS; s++) {
+            tracker.addStudent(studentId(s), "Student " + s, "BSIT");
+        }
+        // Every student ends up in every course; half the enrollments happen during the run
+        for (int s = 0; s < STUDENTS; s++) {
+            for (int c = 0; c < COURSES / 2; c++) {
+                tracker.enrollStudent(studentId(s), courseCode(c));
+            }
+        }
+        
+        AtomicLong added = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        List<Throwable> failures = new CopyOnWriteArrayList<>();
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+        
+        for (int t = 0; t < threads; t++) {
+            final int seed = t;
+            tasks.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                await(start);
+                for (int i = 0; i < gradesPerThread; i++) {
+                    String student = studentId(random.nextInt(STUDENTS));
+                    String course = courseCode(random.nextInt(COURSES / 2));
+                    String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                    if (tracker.addGrade(student, course, category, "T" + seed + "-" + i, random.nextInt(101))) {
+                        added.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        tasks.add(pool.submit(() -> {
+            await(start);
+            for (int s = 0; s < STUDENTS; s++) {
+                for (int c = COURSES / 2; c < COURSES; c++) {
+                    tracker.enrollStudent(studentId(s), courseCode(c));
+                    tracker.enrollStudent(studentId(s), courseCode(c));
+                }
+            }
+            return null;
+        }));
+        tasks.add(pool.submit(() -> {
+            await(start);
+            PrintStream out = System.out;
+            System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+            try {
+                for (int i = 0; i < 200; i++) {
+                    tracker.displayCourseReport(courseCode(i % COURSES));
+                    tracker.displayStudentReport(studentId(i % STUDENTS));
+                    reads.incrementAndGet();
+                }
+            } finally {
+                System.setOut(out);
+            }
+            return null;
+        }));
+        
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> task : tasks) {
+            try {
+                task.get();
+            } catch (ExecutionException e) {
+                failures.add(e.getCause());
+            }
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        pool.shutdown();
+        
+        long expected = gradesBefore + added.get();
+        long actual = countGrades(tracker);
+        boolean ok = failures.isEmpty() && actual == expected
+            && added.get() == (long) threads * gradesPerThread;
+        for (int s = 0; s < STUDENTS && ok; s++) {
+            ok = tracker.getStudent(studentId(s)).getEnrolledCourses().size() == COURSES;
+        }
+        
+        System.out.printf("Threads: %d  grades added: %,d  reports read: %d  time: %.2f s (%,.0f grades/s)%n",
+            threads, added.get(), reads.get(), seconds, added.get() / seconds);
+        System.out.printf("Grades expected: %,d  found: %,d%n", expected, actual);
+        for (Throwable failure : failures) {
+            failure.printStackTrace();
+        }
+        
+        if (ok && journal) {
+            tracker.closeJournal();
+            GradeTracker reloaded = new GradeTracker();
+            reloaded.loadAllData();
+            long replayed = countGrades(reloaded);
+            System.out.printf("Grades after journal replay: %,d%n", replayed);
+            ok = replayed == expected;
+            reloaded.closeJournal();
+        }
+        
+        System.out.println(ok ? "PASS" : "FAIL");
+        if (!ok) System.exit(1);
+    }
+    
+    private static long countGrades(GradeTracker tracker) {
+        long total = 0;
+        for (int s = 0; s < STUDENTS; s++) {
+            Student student = tracker.getStudent(studentId(s));
+            if (student == null) continue;
+            for (Map<String, List<Double>> categories : student.getCourseGrades().values()) {
+                for (List<Double> grades : categories.values()) {
+                    total += grades.size();
+                }
+            }
+        }
+        return total;
+    }
+    
+    private static void await(CountDownLatch latch) throws InterruptedException {
+        latch.await();
+    }
+    
+    private static String studentId(int s) {
+        return String.format("ST-%04d", s);
+    }
+    
+    private static String courseCode(int c) {
+        return "CS" + (100 + c);
+    }
+}
\ No newline at end of file
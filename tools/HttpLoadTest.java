@@ -0,0 +1,174 @@
+import java.util.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.*;
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Starts GradeServer on a synthetic tracker and drives it with keep-alive
+// clients for a fixed time, then prints requests/s and latency percentiles.
+// Each request is a student profile (60%), a student report (20%), a course
+// (10%) or a grade entry (writes, 10% by default); course reports walk whole
+// rosters and are left out of the mix.
+// Usage: java -cp <classes> HttpLoadTest [students] [clients] [seconds] [write-percent]
+public class HttpLoadTest {
+    private static final int COURSES = 10;
+    private static final int COURSES_PER_STUDENT = 5;
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    
+    public static void main(String[] args) throws Exception {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 15;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        
+        GradeTracker tracker = new GradeTracker();
+        String[] courses = new String[COURSES];
+        for (int c = 0; c < COURSES; c++) {
+            courses[c] = "CS" + (100 + c);
+            tracker.addCourse(courses[c], "Course " + c, 3, 1);
+        }
+        String[] ids = new String[studentCount];
+        Random random = new Random(42);
+        for (int s = 0; s < studentCount; s++) {
+            ids[s] = String.format("24-%05d", s);
+            tracker.addStudent(ids[s], "Student " + s, "BSIT");
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                String course = courses[(s + k) % COURSES];
+                tracker.enrollStudent(ids[s], course);
+                for (String category : CATEGORIES) {
+                    tracker.addGrade(ids[s], course, category, category + " 1", random.nextDouble() * 100);
+                }
+            }
+        }
+        
+        GradeServer server = GradeServer.start(tracker,
+            new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), GradeServer.DEFAULT_THREADS);
+        String base = "http://localhost:" + server.getPort() + "/api/";
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .executor(Executors.newFixedThreadPool(4))
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+        System.out.printf("Server: %s, %s%n", base,
+            server.usesVirtualThreads() ? "virtual threads" : GradeServer.DEFAULT_THREADS + " threads");
+        System.out.printf("Data: %,d students, %d courses; %d clients, %d%% writes%n",
+            studentCount, COURSES, clients, writePercent);
+        
+        // Untimed warm-up so the JIT has compiled the request path
+        run(client, base, ids, courses, clients, Math.max(2, seconds / 3), writePercent);
+        Client[] results = run(client, base, ids, courses, clients, seconds, writePercent);
+        server.stop();
+        
+        long requests = 0;
+        long errors = 0;
+        long bytes = 0;
+        for (Client result : results) {
+            requests += result.count;
+            errors += result.errors;
+            bytes += result.bytes;
+        }
+        long[] latencies = new long[(int) requests];
+        int filled = 0;
+        for (Client result : results) {
+            System.arraycopy(result.latencies, 0, latencies, filled, result.count);
+            filled += result.count;
+        }
+        Arrays.sort(latencies);
+        
+        System.out.printf("Requests: %,d in %d s  throughput: %,.0f req/s  errors: %d  body: %,d KB%n",
+            requests, seconds, requests / (double) seconds, errors, bytes / 1024);
+        System.out.printf("Latency ms: p50 %.2f  p90 %.2f  p99 %.2f  max %.2f%n",
+            percentile(latencies, 50), percentile(latencies, 90),
+            percentile(latencies, 99), percentile(latencies, 100));
+        System.exit(errors == 0 ? 0 : 1);
+    }
+    
+    private static Client[] run(HttpClient client, String base, String[] ids, String[] courses,
+                                int clients, int seconds, int writePercent) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Client[] workers = new Client[clients];
+        Thread[] threads = new Thread[clients];
+        for (int i = 0; i < clients; i++) {
+            workers[i] = new Client(client, base, ids, courses, writePercent, running, i);
+            threads[i] = new Thread(workers[i], "load-" + i);
+            threads[i].start();
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return workers;
+    }
+    
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0.0;
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(p / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+    
+    private static class Client implements Runnable {
+        private final HttpClient client;
+        private final String base;
+        private final String[] ids;
+        private final String[] courses;
+        private final int writePercent;
+        private final AtomicBoolean running;
+        private final Random random;
+        private long[] latencies = new long[1 << 14];
+        private int count;
+        private long errors;
+        private long bytes;
+        
+        Client(HttpClient client, String base, String[] ids, String[] courses, int writePercent,
+               AtomicBoolean running, int seed) {
+            this.client = client;
+            this.base = base;
+            this.ids = ids;
+            this.courses = courses;
+            this.writePercent = writePercent;
+            this.running = running;
+            this.random = new Random(seed);
+        }
+        
+        @Override
+        public void run() {
+            while (running.get()) {
+                HttpRequest request = next();
+                long start = System.nanoTime();
+                try {
+                    HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                    if (response.statusCode() >= 300) errors++;
+                    bytes += response.body().length;
+                } catch (Exception e) {
+                    errors++;
+                }
+                if (count == latencies.length) latencies = Arrays.copyOf(latencies, count * 2);
+                latencies[count++] = System.nanoTime() - start;
+            }
+        }
+        
+        private HttpRequest next() {
+            int student = random.nextInt(ids.length);
+            int roll = random.nextInt(100);
+            if (roll < writePercent) {
+                String course = courses[(student + random.nextInt(COURSES_PER_STUDENT)) % COURSES];
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                String body = String.format("{\"studentId\":\"%s\",\"courseCode\":\"%s\",\"type\":\"%s\","
+                    + "\"name\":\"%s %d\",\"grade\":%.2f}", ids[student], course, category, category,
+                    2 + random.nextInt(10), random.nextDouble() * 100);
+                return HttpRequest.newBuilder(URI.create(base + "grades"))
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+            }
+            roll = random.nextInt(100);
+            String path;
+            if (roll < 67) path = "students/" + ids[student];
+            else if (roll < 89) path = "students/" + ids[student] + "/report";
+            else path = "courses/" + courses[random.nextInt(COURSES)];
+            return HttpRequest.newBuilder(URI.create(base + path)).GET().build();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+import java.util.*;
+import java.io.*;
+import java.nio.file.*;
+
+// Generates a grades CSV and measures GradeImporter throughput.
+// Usage: java -cp <classes> ImportBenchmark [rows] [students] [threads]
+public class ImportBenchmark {
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    private static final int COURSES = 10;
+    
+    public static void main(String[] args) throws IOException {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 500000;
+        int studentCount = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        
+        GradeTracker tracker = new GradeTracker();
+        for (int c = 0; c < COURSES; c++) {
+            tracker.addCourse("CS" + (100 + c), "Course " + c, 3, 1);
+        }
+        for (int s = 0; s < studentCount; s++) {
+            String id = String.format("24-%05d", s);
+            tracker.addStudent(id, "Student " + s, "BSIT");
+            for (int c = 0; c < COURSES; c++) {
+                tracker.enrollStudent(id, "CS" + (100 + c));
+            }
+        }
+        
+        Path csv = Files.createTempFile("grades-import", ".csv");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(csv)) {
+            writer.write("StudentID,CourseCode,AssignmentType,AssignmentName,Grade\n");
+            for (int i = 0; i < rows; i++) {
+                String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+                // Roughly one row in a thousand points at an unknown course
+                String course = random.nextInt(1000) == 0 ? "XX999" : "CS" + (100 + random.nextInt(COURSES));
+                writer.write(String.format("24-%05d,%s,%s,%s %d,%.2f%n", random.nextInt(studentCount),
+                    course, category, category, 1 + random.nextInt(10), random.nextDouble() * 100));
+            }
+        }
+        
+        // Warm-up against an empty tracker (every row is rejected) so parser JIT time is not measured
+        new GradeImporter(new GradeTracker(), threads).importFile(csv);
+        
+        GradeImporter.Result result = new GradeImporter(tracker, threads).importFile(csv);
+        System.out.printf("Rows: %,d  imported: %,d  rejected: %,d  threads: %d%n",
+            result.getRowsRead(), result.getRowsImported(), result.getRowsRejected(), threads);
+        System.out.printf("Time: %.2f s  throughput: %,.0f rows/s  file: %,d bytes%n",
+            result.getElapsedSeconds(), result.getRowsPerSecond(), Files.size(csv));
+        Files.delete(csv);
+    }
+}
\ No newline at end of file
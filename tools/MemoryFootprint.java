@@ -0,0 +1,96 @@
+import java.util.*;
+
+// Compares retained heap of the old nested-map grade layout against Student.
+// Usage: java -cp <classes> MemoryFootprint [students] [courses] [gradesPerCategory]
+public class MemoryFootprint {
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int gradesPerCategory = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        long totalGrades = (long) studentCount * courseCount * CATEGORIES.length * gradesPerCategory;
+        
+        System.out.printf("Dataset: %d students x %d courses x %d categories x %d grades = %d grades%n",
+            studentCount, courseCount, CATEGORIES.length, gradesPerCategory, totalGrades);
+        
+        long baseline = usedHeap();
+        Object legacy = buildLegacy(studentCount, courseCount, gradesPerCategory);
+        long legacyBytes = usedHeap() - baseline;
+        report("Nested Map/List<Double>", legacyBytes, totalGrades);
+        legacy = null;
+        
+        baseline = usedHeap();
+        Object compact = buildStudents(studentCount, courseCount, gradesPerCategory);
+        long compactBytes = usedHeap() - baseline;
+        report("Student (primitive columns)", compactBytes, totalGrades);
+        
+        System.out.printf("Reduction: %.1f%%%n", 100.0 * (legacyBytes - compactBytes) / legacyBytes);
+        Objects.requireNonNull(compact);
+    }
+    
+    // Mirrors the layout Student used before: course -> category -> List<Double>, plus a name list per course
+    private static Object buildLegacy(int studentCount, int courseCount, int gradesPerCategory) {
+        List<Object[]> students = new ArrayList<>(studentCount);
+        for (int s = 0; s < studentCount; s++) {
+            Map<String, Map<String, List<Double>>> courseGrades = new HashMap<>();
+            Map<String, List<String>> assignmentNames = new HashMap<>();
+            for (int c = 0; c < courseCount; c++) {
+                String courseCode = "CS" + (100 + c);
+                Map<String, List<Double>> categories = new HashMap<>();
+                List<String> names = new ArrayList<>();
+                for (String category : CATEGORIES) {
+                    List<Double> grades = new ArrayList<>();
+                    for (int g = 0; g < gradesPerCategory; g++) {
+                        grades.add(score(s, c, g));
+                        names.add(category + " " + (g + 1));
+                    }
+                    categories.put(category, grades);
+                }
+                courseGrades.put(courseCode, categories);
+                assignmentNames.put(courseCode, names);
+            }
+            students.add(new Object[] {courseGrades, assignmentNames});
+        }
+        return students;
+    }
+    
+    private static Object buildStudents(int studentCount, int courseCount, int gradesPerCategory) {
+        List<Student> students = new ArrayList<>(studentCount);
+        for (int s = 0; s < studentCount; s++) {
+            Student student = new Student("SR-" + s, "Student " + s, "BSIT");
+            for (int c = 0; c < courseCount; c++) {
+                String courseCode = "CS" + (100 + c);
+                student.enrollInCourse(courseCode);
+                for (String category : CATEGORIES) {
+                    for (int g = 0; g < gradesPerCategory; g++) {
+                        student.addGrade(courseCode, category, category + " " + (g + 1), score(s, c, g));
+                    }
+                }
+            }
+            students.add(student);
+        }
+        return students;
+    }
+    
+    private static double score(int s, int c, int g) {
+        return 50 + ((s * 31 + c * 17 + g * 7) % 5000) / 100.0;
+    }
+    
+    private static void report(String label, long bytes, long grades) {
+        System.out.printf("%-28s %,14d bytes  %6.1f bytes/grade%n", label, bytes, (double) bytes / grades);
+    }
+    
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
\ No newline at end of file
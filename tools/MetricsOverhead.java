@@ -0,0 +1,71 @@
+import java.util.*;
+
+// What the always-on operation timers cost: the time of one recordSince call
+// on its own, measured from one thread and from several, next to the mean
+// addGrade latency the tracker's own timer reports for an in-memory tracker.
+// Run it once plain and once under -XX:StartFlightRecording to see the cost
+// of the JFR events too.
+// Usage: java -cp <classes> MetricsOverhead [grades] [threads]
+public class MetricsOverhead {
+    private static final int STUDENTS = 10000;
+    private static final int COURSES = 20;
+    
+    public static void main(String[] args) throws Exception {
+        int grades = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        
+        GradeTracker tracker = new GradeTracker();
+        for (int c = 0; c < COURSES; c++) {
+            tracker.addCourse("CS" + (100 + c), "Course " + c, 3, 1);
+        }
+        for (int s = 0; s < STUDENTS; s++) {
+            tracker.addStudent(studentId(s), "Student " + s, "BSIT");
+            tracker.enrollStudent(studentId(s), "CS" + (100 + s % COURSES));
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < grades; i++) {
+            int s = random.nextInt(STUDENTS);
+            tracker.addGrade(studentId(s), "CS" + (100 + s % COURSES), "Exams", "E" + (i & 15), random.nextInt(101));
+        }
+        Metrics.Histogram.Snapshot addGrade = timer(tracker, "addGrade").snapshot();
+        System.out.printf("addGrade:   %,d calls, mean %.0f ns, p50 %,d ns, p99 %,d ns%n", addGrade.getCount(),
+            addGrade.getMean(), addGrade.percentile(0.5), addGrade.percentile(0.99));
+        
+        // Warm-up, then the measured round, on a timer of its own
+        recordNanos(new Metrics().timer("overhead"), grades, 1);
+        double single = recordNanos(new Metrics().timer("overhead"), grades, 1);
+        double shared = recordNanos(new Metrics().timer("overhead"), grades, threads);
+        System.out.printf("recordSince: %.1f ns on 1 thread, %.1f ns per call on %d threads sharing one timer%n",
+            single, shared, threads);
+        System.out.printf("Overhead:   %.2f%% of a mean addGrade%n", 100 * single / addGrade.getMean());
+    }
+    
+    // Mean wall time of one nanoTime read plus recordSince
+    private static double recordNanos(Metrics.Timer timer, int calls, int threads) throws InterruptedException {
+        Thread[] workers = new Thread[threads];
+        long begin = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                for (int i = 0; i < calls; i++) {
+                    timer.recordSince(System.nanoTime());
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (System.nanoTime() - begin) / (double) calls / threads;
+    }
+    
+    private static Metrics.Timer timer(GradeTracker tracker, String operation) {
+        for (Metrics.Timer timer : tracker.getMetrics().getTimers()) {
+            if (timer.getOperation().equals(operation)) return timer;
+        }
+        throw new IllegalArgumentException("No timer for " + operation);
+    }
+    
+    private static String studentId(int s) {
+        return String.format("24-%05d", s);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+import java.util.*;
+
+// Cost of keeping RankingViews current versus answering the same rank
+// queries by recomputing and sorting every grade. Prints grade entry time
+// with and without the views subscribed, then the time per query.
+// Usage: java -cp <classes> RankingBenchmark [students] [courses] [queries]
+public class RankingBenchmark {
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    private static final int COURSES_PER_STUDENT = 5;
+    
+    public static void main(String[] args) {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int queries = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        
+        GradeTracker tracker = new GradeTracker();
+        String[] courses = new String[courseCount];
+        for (int c = 0; c < courseCount; c++) {
+            courses[c] = "CS" + (100 + c);
+            tracker.addCourse(courses[c], "Course " + c, 1 + c % 5, 1);
+        }
+        String[] ids = new String[studentCount];
+        Random random = new Random(42);
+        for (int s = 0; s < studentCount; s++) {
+            ids[s] = String.format("24-%05d", s);
+            tracker.addStudent(ids[s], "Student " + s, "BSIT");
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                String course = courses[(s + k) % courseCount];
+                tracker.enrollStudent(ids[s], course);
+                for (String category : CATEGORIES) {
+                    tracker.addGrade(ids[s], course, category, category + " 1", random.nextDouble() * 100);
+                }
+            }
+        }
+        System.out.printf("Data: %,d students, %d courses, %d courses each%n",
+            studentCount, courseCount, COURSES_PER_STUDENT);
+        
+        // Each measurement is the last of three rounds, so the JIT has compiled both paths
+        int grades = studentCount;
+        double plain = 0;
+        for (int round = 0; round < 3; round++) {
+            plain = addGrades(tracker, ids, courses, grades, random);
+        }
+        RankingViews views = null;
+        double subscribe = 0;
+        for (int round = 0; round < 3; round++) {
+            if (views != null) tracker.removeListener(views);
+            long start = System.nanoTime();
+            views = new RankingViews();
+            tracker.addListener(views);
+            subscribe = (System.nanoTime() - start) / 1e6;
+        }
+        double withViews = 0;
+        for (int round = 0; round < 3; round++) {
+            withViews = addGrades(tracker, ids, courses, grades, random);
+        }
+        System.out.printf("Subscribe (replay current state): %.1f ms%n", subscribe);
+        System.out.printf("Grade entry: %.2f us/grade without views, %.2f us/grade with views%n",
+            plain * 1000 / grades, withViews * 1000 / grades);
+        
+        // Query mix: class rank top 10, one student's class rank, and the top 10 by GPA
+        long checksum = 0;
+        long start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            int s = (q * 7919) % studentCount;
+            String course = courses[(s + q % COURSES_PER_STUDENT) % courseCount];
+            String id = ids[s];
+            checksum += views.getCourseTop(course, 10).size();
+            checksum += views.getCourseRank(course, id);
+            checksum += views.getTopByGpa(10).size();
+        }
+        double incremental = (System.nanoTime() - start) / 1e6;
+        
+        start = System.nanoTime();
+        for (int q = 0; q < queries; q++) {
+            int s = (q * 7919) % studentCount;
+            String course = courses[(s + q % COURSES_PER_STUDENT) % courseCount];
+            String id = ids[s];
+            checksum += recomputeCourseTop(tracker, course, 10).size();
+            checksum += recomputeCourseRank(tracker, course, id);
+            checksum += recomputeTopByGpa(tracker, ids, 10).size();
+        }
+        double recomputed = (System.nanoTime() - start) / 1e6;
+        
+        System.out.printf("Rank queries: %.3f ms/query incremental, %.3f ms/query recomputed (%.0fx)  [%d]%n",
+            incremental / queries, recomputed / queries, recomputed / incremental, checksum);
+    }
+    
+    private static double addGrades(GradeTracker tracker, String[] ids, String[] courses, int grades, Random random) {
+        long start = System.nanoTime();
+        for (int i = 0; i < grades; i++) {
+            int s = random.nextInt(ids.length);
+            String course = courses[(s + random.nextInt(COURSES_PER_STUDENT)) % courses.length];
+            tracker.addGrade(ids[s], course, "Quizzes", "Quiz 2", random.nextDouble() * 100);
+        }
+        return (System.nanoTime() - start) / 1e6;
+    }
+    
+    private static double[] courseGrades(GradeTracker tracker, String course, List<String> enrolled) {
+        Course c = tracker.getCourse(course);
+        double[] grades = new double[enrolled.size()];
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = tracker.getStudent(enrolled.get(i)).getCourseGrade(c);
+        }
+        return grades;
+    }
+    
+    private static List<String> recomputeCourseTop(GradeTracker tracker, String course, int limit) {
+        List<String> enrolled = tracker.getEnrolledStudents(course);
+        double[] grades = courseGrades(tracker, course, enrolled);
+        Integer[] order = new Integer[grades.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(grades[b], grades[a]));
+        List<String> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, order.length); i++) top.add(enrolled.get(order[i]));
+        return top;
+    }
+    
+    private static int recomputeCourseRank(GradeTracker tracker, String course, String id) {
+        List<String> enrolled = tracker.getEnrolledStudents(course);
+        double[] grades = courseGrades(tracker, course, enrolled);
+        double own = grades[enrolled.indexOf(id)];
+        int rank = 1;
+        for (double grade : grades) {
+            if (grade > own) rank++;
+        }
+        return rank;
+    }
+    
+    private static List<String> recomputeTopByGpa(GradeTracker tracker, String[] ids, int limit) {
+        double[] gpa = new double[ids.length];
+        for (int s = 0; s < ids.length; s++) {
+            Student student = tracker.getStudent(ids[s]);
+            double credits = 0.0;
+            double points = 0.0;
+            for (String code : student.getEnrolledCourses()) {
+                Course course = tracker.getCourse(code);
+                credits += course.getCredits();
+                points += GradeScale.STANDARD.points(student.getCourseGrade(course)) * course.getCredits();
+            }
+            gpa[s] = credits > 0 ? points / credits : 0.0;
+        }
+        Integer[] order = new Integer[ids.length];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Double.compare(gpa[b], gpa[a]));
+        List<String> top = new ArrayList<>();
+        for (int i = 0; i < Math.min(limit, order.length); i++) top.add(ids[order[i]]);
+        return top;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+import java.util.*;
+import java.io.*;
+import java.nio.file.*;
+
+// Compares file size and load time of Java serialization against GradeSnapshot.
+// Usage: java -cp <classes> SnapshotBenchmark [students] [courses] [gradesPerCategory]
+public class SnapshotBenchmark {
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    private static final int RUNS = 5;
+    
+    public static void main(String[] args) throws Exception {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int courseCount = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int gradesPerCategory = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        
+        Map<String, Student> students = new HashMap<>();
+        Map<String, Course> courses = new HashMap<>();
+        Map<String, Roster> enrollments = new HashMap<>();
+        for (int c = 0; c < courseCount; c++) {
+            String code = "CS" + (100 + c);
+            courses.put(code, new Course(code, "Course " + c, 3, 1));
+            enrollments.put(code, new Roster());
+        }
+        for (int s = 0; s < studentCount; s++) {
+            Student student = new Student(String.format("24-%05d", s), "Student " + s, "BSIT");
+            for (String code : courses.keySet()) {
+                student.enrollInCourse(code);
+                enrollments.get(code).add(student.getId());
+                for (String category : CATEGORIES) {
+                    for (int g = 0; g < gradesPerCategory; g++) {
+                        student.addGrade(code, category, category + " " + (g + 1), 50 + (s * 7 + g * 13) % 51);
+                    }
+                }
+            }
+            students.put(student.getSrCode(), student);
+        }
+        
+        Path dir = Files.createTempDirectory("snapshot-bench");
+        Path legacy = dir.resolve("students.dat");
+        Path snapshot = dir.resolve("grades.snapshot");
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(legacy)))) {
+            out.writeObject(students);
+        }
+        new GradeSnapshot(students, courses, enrollments).write(snapshot);
+        
+        System.out.printf("Dataset: %d students x %d courses x %d grades per category%n",
+            studentCount, courseCount, gradesPerCategory);
+        System.out.printf("%-22s %,14d bytes  load %8.1f ms%n", "Java serialization",
+            Files.size(legacy), medianMillis(() -> {
+                try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(legacy)))) {
+                    return in.readObject();
+                }
+            }));
+        System.out.printf("%-22s %,14d bytes  load %8.1f ms%n", "GradeSnapshot",
+            Files.size(snapshot), medianMillis(() -> GradeSnapshot.read(snapshot)));
+        System.out.printf("%-22s %14s        %8.1f ms%n", "Mapped, one student", "",
+            medianMillis(() -> GradeSnapshot.map(snapshot).getStudents().get("24-00042")));
+        
+        Files.delete(legacy);
+        Files.delete(snapshot);
+        Files.delete(dir);
+    }
+    
+    private static double medianMillis(java.util.concurrent.Callable<Object> load) throws Exception {
+        double[] times = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            Objects.requireNonNull(load.call());
+            times[i] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+import java.util.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.stream.Stream;
+
+// Cost of a full transcript run (every student, every term) cold, then again
+// after changing grades for a small share of students, when only the terms
+// holding a changed course are rolled up again. Each run builds every
+// transcript in memory ("rollups"), then exports them to a temporary
+// directory through ReportExporter, as "export --transcripts" does.
+// Usage: java -cp <classes> TranscriptBenchmark [students] [terms] [changed-percent] [threads]
+public class TranscriptBenchmark {
+    private static final String[] CATEGORIES = {"Homework", "Quizzes", "Exams"};
+    private static final int COURSES_PER_TERM = 5;
+    private static final int COURSES_PER_STUDENT_TERM = 4;
+    
+    public static void main(String[] args) throws IOException {
+        int studentCount = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int termCount = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        double changedPercent = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        
+        GradeTracker tracker = new GradeTracker();
+        String[][] courses = new String[termCount][COURSES_PER_TERM];
+        for (int t = 0; t < termCount; t++) {
+            String term = (2021 + t / 2) + "-" + (1 + t % 2);
+            for (int c = 0; c < COURSES_PER_TERM; c++) {
+                courses[t][c] = "CS" + (100 * (t + 1) + c);
+                tracker.addCourse(courses[t][c], "Course " + courses[t][c], 1 + c % 4, 1);
+                tracker.setCourseTerm(courses[t][c], term);
+            }
+        }
+        String[] ids = new String[studentCount];
+        Random random = new Random(42);
+        for (int s = 0; s < studentCount; s++) {
+            ids[s] = String.format("24-%05d", s);
+            tracker.addStudent(ids[s], "Student " + s, "BSIT");
+            for (int t = 0; t < termCount; t++) {
+                for (int k = 0; k < COURSES_PER_STUDENT_TERM; k++) {
+                    String course = courses[t][(s + k) % COURSES_PER_TERM];
+                    tracker.enrollStudent(ids[s], course);
+                    for (String category : CATEGORIES) {
+                        tracker.addGrade(ids[s], course, category, category + " 1", 40 + random.nextDouble() * 60);
+                    }
+                }
+            }
+        }
+        System.out.printf("Data: %,d students, %d terms, %d courses per student per term, %d threads%n",
+            studentCount, termCount, COURSES_PER_STUDENT_TERM, threads);
+        
+        Path target = Files.createTempDirectory("transcripts");
+        try {
+            TranscriptEngine engine = new TranscriptEngine(tracker, GradeScale.PLUS_MINUS);
+            ReportExporter exporter = new ReportExporter(tracker, threads);
+            run("Cold run", ids, exporter, engine, target);
+            run("Unchanged rerun", ids, exporter, engine, target);
+            
+            // Each changed student gets one new grade in one course of one term
+            int changed = (int) Math.ceil(studentCount * changedPercent / 100);
+            for (int i = 0; i < changed; i++) {
+                int s = random.nextInt(studentCount);
+                int t = random.nextInt(termCount);
+                String course = courses[t][(s + random.nextInt(COURSES_PER_STUDENT_TERM)) % COURSES_PER_TERM];
+                tracker.addGrade(ids[s], course, "Quizzes", "Quiz 2", random.nextDouble() * 100);
+            }
+            System.out.printf("Changed grades for %,d students (%.1f%%)%n", changed, changedPercent);
+            run("Rerun after changes", ids, exporter, engine, target);
+            
+            // The same run with nothing cached, for comparison
+            engine.detach();
+            engine = new TranscriptEngine(tracker, GradeScale.PLUS_MINUS);
+            run("Rerun without cache", ids, exporter, engine, target);
+            engine.detach();
+        } finally {
+            deleteRecursively(target);
+        }
+    }
+    
+    private static void run(String label, String[] ids, ReportExporter exporter, TranscriptEngine engine,
+                            Path target) throws IOException {
+        long computed = engine.getTermsComputed();
+        long reused = engine.getTermsReused();
+        long start = System.nanoTime();
+        double checksum = 0;
+        for (String id : ids) {
+            checksum += engine.transcript(id).getCumulativeGpa();
+        }
+        double rollups = (System.nanoTime() - start) / 1e6;
+        long recomputed = engine.getTermsComputed() - computed;
+        long kept = engine.getTermsReused() - reused;
+        // The export reuses every term the in-memory pass just rolled up
+        ReportExporter.Result result = exporter.exportTranscripts(target, engine, null);
+        System.out.printf("%-20s rollups %7.1f ms (%,7d terms recomputed, %,7d reused)  export %5.2fs (%,6.0f/s)  [%.0f]%n",
+            label, rollups, recomputed, kept, result.getElapsedSeconds(), result.getReportsPerSecond(), checksum);
+    }
+    
+    private static void deleteRecursively(Path directory) throws IOException {
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        }
+        for (Path path : paths) Files.delete(path);
+    }
+}
\ No newline at end of file